@@ -0,0 +1,146 @@
+package tools.vitruv.methodologisttemplate.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.Brakesystem;
+import brakesystem.BrakesystemFactory;
+import cad.CADRepository;
+import cad.CShape;
+import cad.CadFactory;
+import cad.Circle;
+import tools.vitruv.stoex.stoex.Expression;
+import tools.vitruv.stoex.stoex.NormalDistribution;
+import tools.vitruv.stoex.stoex.SampledDistribution;
+import tools.vitruv.stoex.stoex.StoexFactory;
+import uncertainty.Effect;
+import uncertainty.OnDeleteMode;
+import uncertainty.ReducabilityLevel;
+import uncertainty.StochasticityEffectType;
+import uncertainty.StructuralEffectTypeRepresentation;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+import uncertainty.UncertaintyKind;
+import uncertainty.UncertaintyLocation;
+import uncertainty.UncertaintyLocationType;
+import uncertainty.UncertaintyNature;
+
+/**
+ * Builds plain EMF models of a given size for the helper benchmarks.
+ */
+public class BenchmarkModels {
+
+    /**
+     * The distribution of the generated uncertainty expressions.
+     */
+    public enum Distribution {
+        NONE, NORMAL, SAMPLED
+    }
+
+    private static final String[] FITTING_POSITIONS = { "FL", "FR", "ML", "MR", "RL", "RR", "TL", "TR" };
+
+    private BenchmarkModels() {
+        // Utility class
+    }
+
+    public static Brakesystem createBrakesystem(int calipers) {
+        Brakesystem brakesystem = BrakesystemFactory.eINSTANCE.createBrakesystem();
+        for (int i = 0; i < calipers; i++) {
+            BrakeCaliper caliper = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+            caliper.setFittingPosition(FITTING_POSITIONS[i % FITTING_POSITIONS.length]);
+            caliper.setPistonDiameterInMM(50);
+            caliper.setHydraulicPressureInBar(80);
+            brakesystem.getBrakeComponents().add(caliper);
+        }
+        return brakesystem;
+    }
+
+    /**
+     * Creates a CAD repository with the given number of circles, followed by the
+     * CShape of the brake caliper.
+     */
+    public static CADRepository createCadRepository(int circles) {
+        CADRepository repository = CadFactory.eINSTANCE.createCADRepository();
+        for (int i = 0; i < circles; i++) {
+            Circle circle = CadFactory.eINSTANCE.createCircle();
+            circle.setIdentifier("Circle" + i);
+            circle.setExtrusion(20);
+            circle.setRadius(100);
+            repository.getCadElements().add(circle);
+        }
+        CShape cShape = CadFactory.eINSTANCE.createCShape();
+        cShape.setIdentifier("BrakeCaliperCShape");
+        cShape.setThroatWidth(42);
+        repository.getCadElements().add(cShape);
+        return repository;
+    }
+
+    /**
+     * Adds uncertainties round robin to the given components.
+     *
+     * @param repository         the repository to add the uncertainties to
+     * @param components         the annotated components
+     * @param parameterLocations the annotated parameters, used round robin
+     * @param count              the number of uncertainties
+     * @param distribution       the distribution of the uncertainty expressions
+     * @return the created uncertainties
+     */
+    public static List<Uncertainty> annotate(UncertaintyAnnotationRepository repository,
+            List<? extends EObject> components, List<String> parameterLocations, int count,
+            Distribution distribution) {
+        List<Uncertainty> uncertainties = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Uncertainty uncertainty = createUncertainty(components.get(i % components.size()),
+                    parameterLocations.get(i % parameterLocations.size()), createExpression(distribution));
+            uncertainties.add(uncertainty);
+        }
+        repository.getUncertainties().addAll(uncertainties);
+        return uncertainties;
+    }
+
+    public static Uncertainty createUncertainty(EObject component, String parameterLocation, Expression expression) {
+        UncertaintyLocation location = UncertaintyFactory.eINSTANCE.createUncertaintyLocation();
+        location.setLocation(UncertaintyLocationType.PARAMETER);
+        location.setSpecification("Location specification");
+        location.setParameterLocation(parameterLocation);
+        location.getReferencedComponents().add(component);
+
+        Effect effect = UncertaintyFactory.eINSTANCE.createEffect();
+        effect.setRepresentation(StructuralEffectTypeRepresentation.CONTINOUS);
+        effect.setStochasticity(StochasticityEffectType.PROBABILISTIC);
+        effect.setExpression(expression);
+
+        Uncertainty uncertainty = UncertaintyFactory.eINSTANCE.createUncertainty();
+        uncertainty.setId(EcoreUtil.generateUUID());
+        uncertainty.setKind(UncertaintyKind.MEASUREMENT_UNCERTAINTY);
+        uncertainty.setReducability(ReducabilityLevel.UNKNOWN);
+        uncertainty.setNature(UncertaintyNature.ALEATORY);
+        uncertainty.setSetManually(true);
+        uncertainty.setOnDelete(OnDeleteMode.CASCADE);
+        uncertainty.setUncertaintyLocation(location);
+        uncertainty.setEffect(effect);
+        return uncertainty;
+    }
+
+    public static Expression createExpression(Distribution distribution) {
+        switch (distribution) {
+            case NORMAL:
+                NormalDistribution normal = StoexFactory.eINSTANCE.createNormalDistribution();
+                normal.setMu(50);
+                normal.setSigma(2);
+                return normal;
+            case SAMPLED:
+                SampledDistribution sampled = StoexFactory.eINSTANCE.createSampledDistribution();
+                sampled.getValues().addAll(List.of(60.0, 65.0, 70.0, 72.0, 74.0, 75.0, 76.0, 77.0, 78.0, 78.0,
+                        78.0, 79.0, 80.0, 81.0, 82.0, 84.0, 85.0, 86.0, 88.0, 92.0));
+                return sampled;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package tools.vitruv.methodologisttemplate.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import brakesystem.Brakesystem;
+import tools.vitruv.methodologisttemplate.consistency.UncertaintyReactionsHelper;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintyIndex;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+
+/**
+ * Cascade deletion of {@code sourceCount} source uncertainties, each with one
+ * corresponding copy that was not set manually. The sources are deleted in one
+ * batch, or one by one with a cascade step per source as the reactions do
+ * when the sources are deleted individually.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CascadeDeletionBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    private int sourceCount;
+
+    private UncertaintyAnnotationRepository uncertaintyRepo;
+    private List<Uncertainty> sources;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        Brakesystem brakesystem = BenchmarkModels.createBrakesystem(100);
+        uncertaintyRepo = UncertaintyFactory.eINSTANCE.createUncertaintyAnnotationRepository();
+        sources = BenchmarkModels.annotate(uncertaintyRepo, brakesystem.getBrakeComponents(),
+                List.of("pistonDiameterInMM"), sourceCount, BenchmarkModels.Distribution.NORMAL);
+        List<Uncertainty> copies = new ArrayList<>(sourceCount);
+        for (Uncertainty source : sources) {
+            Uncertainty copy = UncertaintyReactionsHelper.copyUncertainty(source, uncertaintyRepo);
+            copy.getUncertaintyLocation().getReferencedComponents()
+                    .addAll(source.getUncertaintyLocation().getReferencedComponents());
+            copies.add(copy);
+        }
+        uncertaintyRepo.getUncertainties().addAll(copies);
+        UncertaintyIndex.getIndex(uncertaintyRepo);
+    }
+
+    @Benchmark
+    public int deleteBatch() {
+        return UncertaintyReactionsHelper.deleteCascading(sources).size();
+    }
+
+    @Benchmark
+    public int deleteIndividually() {
+        int deleted = 0;
+        for (Uncertainty source : sources) {
+            deleted += UncertaintyReactionsHelper.deleteCascading(List.of(source)).size();
+        }
+        return deleted;
+    }
+}
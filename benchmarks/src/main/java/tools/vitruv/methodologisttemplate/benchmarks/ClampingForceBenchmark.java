@@ -0,0 +1,83 @@
+package tools.vitruv.methodologisttemplate.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.Brakesystem;
+import tools.vitruv.methodologisttemplate.consistency.ClampingForceHelper;
+import tools.vitruv.methodologisttemplate.consistency.propagation.PropagationResult;
+import tools.vitruv.methodologisttemplate.consistency.scheduling.RecomputationScheduler;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+
+/**
+ * Recomputation of the clamping force of one caliper in a brake system with
+ * {@code modelSize} calipers and {@code uncertaintyCount} uncertainties on
+ * piston diameters and hydraulic pressures. The calipers are spread over
+ * eight fitting positions, so recomputing all of them in one flush computes
+ * eight brake corners in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClampingForceBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int modelSize;
+
+    @Param({ "0", "10", "1000" })
+    private int uncertaintyCount;
+
+    @Param({ "NORMAL", "SAMPLED" })
+    private BenchmarkModels.Distribution distribution;
+
+    private List<BrakeCaliper> calipers;
+    private UncertaintyAnnotationRepository uncertaintyRepo;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Brakesystem brakesystem = BenchmarkModels.createBrakesystem(modelSize);
+        calipers = brakesystem.getBrakeComponents().stream().map(BrakeCaliper.class::cast).toList();
+        uncertaintyRepo = UncertaintyFactory.eINSTANCE.createUncertaintyAnnotationRepository();
+        BenchmarkModels.annotate(uncertaintyRepo, calipers, List.of("pistonDiameterInMM", "hydraulicPressureInBar"),
+                uncertaintyCount, distribution);
+        // Build the derived uncertainties before measuring
+        calipers.forEach(caliper -> ClampingForceHelper.recomputeClampingForce(caliper, uncertaintyRepo));
+    }
+
+    @Benchmark
+    public PropagationResult recomputeClampingForce() {
+        BrakeCaliper caliper = calipers.get(next++ % calipers.size());
+        caliper.setHydraulicPressureInBar(caliper.getHydraulicPressureInBar() == 80 ? 81 : 80);
+        return ClampingForceHelper.recomputeClampingForce(caliper, uncertaintyRepo);
+    }
+
+    @Benchmark
+    public long recomputeAllClampingForces() {
+        RecomputationScheduler scheduler = RecomputationScheduler.current();
+        scheduler.coalesce(() -> {
+            for (BrakeCaliper caliper : calipers) {
+                caliper.setHydraulicPressureInBar(caliper.getHydraulicPressureInBar() == 80 ? 81 : 80);
+                ClampingForceHelper.scheduleClampingForce(caliper, uncertaintyRepo);
+            }
+        });
+        return scheduler.getRecomputationCount();
+    }
+}
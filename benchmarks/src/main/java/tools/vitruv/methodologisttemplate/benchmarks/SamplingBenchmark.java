@@ -0,0 +1,64 @@
+package tools.vitruv.methodologisttemplate.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tools.vitruv.methodologisttemplate.consistency.formula.Formula;
+import tools.vitruv.methodologisttemplate.consistency.formula.FormulaRegistry;
+import tools.vitruv.methodologisttemplate.consistency.propagation.InputDistribution;
+import tools.vitruv.methodologisttemplate.consistency.propagation.MonteCarloEngine;
+import tools.vitruv.methodologisttemplate.consistency.propagation.MonteCarloResult;
+import tools.vitruv.methodologisttemplate.consistency.propagation.SamplingStrategy;
+
+/**
+ * Propagation of a normal piston diameter and a sampled hydraulic pressure
+ * through the clamping force formula until the mean reaches a standard error
+ * of {@code targetStandardError}, with each {@link SamplingStrategy}. The
+ * time includes the pilot run the engine estimates the sample count from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SamplingBenchmark {
+
+    private static final Formula CLAMPING_FORCE = FormulaRegistry
+            .compile("PI * ( (d * 0.001) / 2 ) ^ 2 * p * 10 ^ 2", "d", "p");
+
+    @Param({ "PLAIN", "ANTITHETIC", "LATIN_HYPERCUBE" })
+    private SamplingStrategy sampling;
+
+    @Param({ "0.01", "0.002" })
+    private double targetStandardError;
+
+    private MonteCarloEngine engine;
+    private List<InputDistribution> inputs;
+
+    @Setup
+    public void setup() {
+        engine = new MonteCarloEngine(MonteCarloEngine.DEFAULT_SAMPLE_COUNT, 1, ForkJoinPool.commonPool(), sampling)
+                .withTargetStandardError(targetStandardError);
+        inputs = List.of(new InputDistribution.Normal(50, 2), new InputDistribution.Empirical(
+                new double[] { 60, 65, 70, 72, 74, 75, 76, 77, 78, 78, 78, 79, 80, 81, 82, 84, 85, 86, 88, 92 }));
+    }
+
+    @Benchmark
+    public MonteCarloResult propagateToTargetAccuracy() {
+        return engine.propagate(CLAMPING_FORCE, inputs);
+    }
+}
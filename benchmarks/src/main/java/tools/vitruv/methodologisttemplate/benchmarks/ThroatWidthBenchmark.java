@@ -0,0 +1,73 @@
+package tools.vitruv.methodologisttemplate.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cad.CADRepository;
+import cad.CShape;
+import cad.Circle;
+import tools.vitruv.methodologisttemplate.consistency.ThroatWidthReactionsHelper;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+
+/**
+ * Throat width update after an extrusion change of a circle in a CAD
+ * repository with {@code modelSize} circles, {@code uncertaintyCount} of which
+ * carry an extrusion uncertainty.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThroatWidthBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int modelSize;
+
+    @Param({ "0", "10", "1000" })
+    private int uncertaintyCount;
+
+    @Param({ "NORMAL", "SAMPLED" })
+    private BenchmarkModels.Distribution distribution;
+
+    private List<Circle> circles;
+    private CShape cShape;
+    private UncertaintyAnnotationRepository uncertaintyRepo;
+    private int next;
+
+    @Setup
+    public void setup() {
+        CADRepository cadRepository = BenchmarkModels.createCadRepository(modelSize);
+        circles = cadRepository.getCadElements().stream().filter(Circle.class::isInstance).map(Circle.class::cast)
+                .toList();
+        cShape = cadRepository.getCadElements().stream().filter(CShape.class::isInstance).map(CShape.class::cast)
+                .findFirst().orElseThrow();
+        uncertaintyRepo = UncertaintyFactory.eINSTANCE.createUncertaintyAnnotationRepository();
+        BenchmarkModels.annotate(uncertaintyRepo, circles.subList(0, Math.min(uncertaintyCount, modelSize)),
+                List.of("extrusion"), uncertaintyCount, distribution);
+    }
+
+    @Benchmark
+    public int updateCShapeThroatWidth() {
+        Circle circle = circles.get(next++ % circles.size());
+        int oldValue = circle.getExtrusion();
+        int newValue = oldValue == 20 ? 30 : 20;
+        circle.setExtrusion(newValue);
+        ThroatWidthReactionsHelper.updateCShapeThroatWidth(newValue, oldValue, circle, cShape, uncertaintyRepo);
+        return cShape.getThroatWidth();
+    }
+}
@@ -0,0 +1,89 @@
+package tools.vitruv.methodologisttemplate.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.ecore.EObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import brakesystem.Brakesystem;
+import brakesystem.BrakesystemPackage;
+import tools.vitruv.methodologisttemplate.consistency.UncertaintyReactionsHelper;
+import tools.vitruv.methodologisttemplate.consistency.descriptor.UncertaintyDescriptors;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintyQuery;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+import uncertainty.UncertaintyLocationType;
+
+/**
+ * Synchronization of uncertainties to corresponding elements in a repository
+ * with {@code uncertaintyCount} uncertainties over {@code modelSize}
+ * components. All corresponding uncertainties exist already, so the repository
+ * does not grow during the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UncertaintyReactionsBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int modelSize;
+
+    @Param({ "10", "1000", "10000" })
+    private int uncertaintyCount;
+
+    private List<EObject> components;
+    private UncertaintyAnnotationRepository uncertaintyRepo;
+    private Uncertainty sourceUncertainty;
+
+    @Setup
+    public void setup() {
+        Brakesystem brakesystem = BenchmarkModels.createBrakesystem(modelSize);
+        components = List.copyOf(brakesystem.getBrakeComponents());
+        uncertaintyRepo = UncertaintyFactory.eINSTANCE.createUncertaintyAnnotationRepository();
+        List<Uncertainty> uncertainties = BenchmarkModels.annotate(uncertaintyRepo, components,
+                List.of("pistonDiameterInMM"), uncertaintyCount, BenchmarkModels.Distribution.NORMAL);
+        sourceUncertainty = uncertainties.get(0);
+        UncertaintyReactionsHelper.createMissingUncertaintiesForReferencedComponents(uncertaintyRepo, components,
+                sourceUncertainty);
+    }
+
+    @Benchmark
+    public List<Uncertainty> createMissingUncertainties() {
+        return UncertaintyReactionsHelper.createMissingUncertaintiesForReferencedComponents(uncertaintyRepo,
+                components, sourceUncertainty);
+    }
+
+    @Benchmark
+    public Uncertainty deepCopyUncertainty() {
+        return UncertaintyReactionsHelper.deepCopyUncertainty(sourceUncertainty);
+    }
+
+    @Benchmark
+    public Uncertainty createFlyweight() {
+        return UncertaintyDescriptors.createFlyweight(sourceUncertainty, uncertaintyRepo);
+    }
+
+    @Benchmark
+    public long queryParameterUncertainties() {
+        return UncertaintyQuery.on(uncertaintyRepo)
+                .referencing(BrakesystemPackage.Literals.BRAKE_CALIPER)
+                .locationType(UncertaintyLocationType.PARAMETER)
+                .parameterLocation("pistonDiameterInMM")
+                .count();
+    }
+}
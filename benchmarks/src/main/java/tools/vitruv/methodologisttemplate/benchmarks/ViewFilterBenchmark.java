@@ -0,0 +1,157 @@
+package tools.vitruv.methodologisttemplate.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.Brakesystem;
+import brakesystem.BrakesystemPackage;
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.feature.FeatureEChange;
+import tools.vitruv.change.atomic.feature.attribute.ReplaceSingleValuedEAttribute;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.composite.description.TransactionalChange;
+import tools.vitruv.change.composite.description.VitruviusChange;
+import tools.vitruv.change.composite.description.VitruviusChangeResolverFactory;
+import tools.vitruv.change.composite.recording.ChangeRecorder;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeFilterStage;
+import tools.vitruv.methodologisttemplate.viewtype.impl.ChangeTransformingViewTypeImpl;
+
+/**
+ * Filtering of a view commit with {@code changeCount} attribute changes by
+ * three filters: one drops specification type changes, one trims OEM numbers
+ * and one drops clamping force changes. The filters are registered as list
+ * filters or as fused filter stages, or not at all as baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewFilterBenchmark {
+
+    /**
+     * How the filters are registered at the view type.
+     */
+    public enum Filters {
+        NONE, LIST, STAGE
+    }
+
+    private static final int CALIPERS = 1000;
+
+    @Param({ "10000" })
+    private int changeCount;
+
+    @Param({ "NONE", "LIST", "STAGE" })
+    private Filters filters;
+
+    private ChangeTransformingViewTypeImpl viewType;
+    private VitruviusChange<HierarchicalId> viewChange;
+
+    @Setup
+    public void setup() {
+        viewType = new ChangeTransformingViewTypeImpl("filtered");
+        switch (filters) {
+            case LIST -> {
+                viewType.registerFilter(changes -> {
+                    changes.removeIf(change -> isChangeOf(change,
+                            BrakesystemPackage.Literals.BRAKE_COMPONENT__SPECIFICATION_TYPE));
+                    return changes;
+                });
+                viewType.registerFilter(changes -> {
+                    changes.stream().filter(ViewFilterBenchmark::isUntrimmedOemNumber)
+                            .forEach(ViewFilterBenchmark::trimOemNumber);
+                    return changes;
+                });
+                viewType.registerFilter(changes -> changes.stream()
+                        .filter(change -> !isChangeOf(change,
+                                BrakesystemPackage.Literals.BRAKE_CALIPER__CLAMPING_FORCE_IN_N))
+                        .toList());
+            }
+            case STAGE -> {
+                viewType.registerFilterStage(ChangeFilterStage.filter(change -> !isChangeOf(change,
+                        BrakesystemPackage.Literals.BRAKE_COMPONENT__SPECIFICATION_TYPE)));
+                viewType.registerFilterStage(ChangeFilterStage.rewrite(ViewFilterBenchmark::isUntrimmedOemNumber,
+                        ViewFilterBenchmark::trimOemNumber));
+                viewType.registerFilterStage(ChangeFilterStage.filter(
+                        change -> !isChangeOf(change, BrakesystemPackage.Literals.BRAKE_CALIPER__CLAMPING_FORCE_IN_N)));
+            }
+            case NONE -> {
+                // Baseline without filters
+            }
+        }
+        viewChange = recordChanges(changeCount);
+    }
+
+    @Benchmark
+    public int filterCommit() {
+        return viewType.transform(viewChange).getEChanges().size();
+    }
+
+    /**
+     * Records the given number of attribute changes on the calipers of a brake
+     * system, cycling through bridge gap, OEM number and specification type
+     * changes.
+     */
+    private static VitruviusChange<HierarchicalId> recordChanges(int changeCount) {
+        ResourceSet resourceSet = new ResourceSetImpl();
+        Resource resource = new ResourceImpl(URI.createURI("benchmark.brakesystem"));
+        resourceSet.getResources().add(resource);
+        Brakesystem brakesystem = BenchmarkModels.createBrakesystem(CALIPERS);
+        resource.getContents().add(brakesystem);
+        List<BrakeCaliper> calipers = brakesystem.getBrakeComponents().stream()
+                .filter(BrakeCaliper.class::isInstance).map(BrakeCaliper.class::cast).toList();
+
+        try (ChangeRecorder recorder = new ChangeRecorder(resourceSet)) {
+            recorder.addToRecording(resource);
+            recorder.beginRecording();
+            for (int i = 0; i < changeCount; i++) {
+                BrakeCaliper caliper = calipers.get(i % CALIPERS);
+                switch (i / CALIPERS % 3) {
+                    case 0 -> caliper.setBridgeGap(i);
+                    case 1 -> caliper.setOEM_number(" OEM-" + i + " ");
+                    default -> caliper.setSpecificationType("type-" + i);
+                }
+            }
+            TransactionalChange<EObject> change = recorder.endRecording();
+            return VitruviusChangeResolverFactory.forHierarchicalIds(resourceSet).assignIds(change);
+        }
+    }
+
+    private static boolean isChangeOf(EChange<HierarchicalId> change, EStructuralFeature feature) {
+        return change instanceof FeatureEChange<?, ?> featureChange && featureChange.getAffectedFeature() == feature;
+    }
+
+    private static boolean isUntrimmedOemNumber(EChange<HierarchicalId> change) {
+        return isChangeOf(change, BrakesystemPackage.Literals.BRAKE_COMPONENT__OEM_NUMBER)
+                && change instanceof ReplaceSingleValuedEAttribute<?, ?> replace
+                && replace.getNewValue() instanceof String value && !value.equals(value.strip());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void trimOemNumber(EChange<HierarchicalId> change) {
+        ReplaceSingleValuedEAttribute<HierarchicalId, Object> replace =
+                (ReplaceSingleValuedEAttribute<HierarchicalId, Object>) change;
+        replace.setNewValue(((String) replace.getNewValue()).strip());
+    }
+}
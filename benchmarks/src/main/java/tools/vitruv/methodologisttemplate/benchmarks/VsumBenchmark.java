@@ -0,0 +1,99 @@
+package tools.vitruv.methodologisttemplate.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.Brakesystem;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import uncertainty.UncertaintyAnnotationRepository;
+
+/**
+ * Building a VSUM with the case study reactions and committing a parameter
+ * change through a view of a VSUM with {@code modelSize} calipers and
+ * {@code uncertaintyCount} uncertainties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VsumBenchmark {
+
+    @Param({ "1", "10", "100" })
+    private int modelSize;
+
+    @Param({ "0", "10", "100" })
+    private int uncertaintyCount;
+
+    private Path storageRoot;
+    private InternalVirtualModel vsum;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        VsumFixture.registerResourceFactory();
+        storageRoot = Files.createTempDirectory("vsum-benchmark");
+        Path storageFolder = storageRoot.resolve("commit");
+        vsum = VsumFixture.createVirtualModel(storageFolder);
+        VsumFixture.registerRootObjects(vsum, storageFolder);
+        VsumFixture.modifyView(
+                VsumFixture.getView(vsum, List.of(Brakesystem.class, UncertaintyAnnotationRepository.class)),
+                view -> {
+                    Brakesystem brakesystem = view.getRootObjects(Brakesystem.class).iterator().next();
+                    Brakesystem generated = BenchmarkModels.createBrakesystem(modelSize);
+                    List<BrakeCaliper> calipers = generated.getBrakeComponents().stream()
+                            .map(BrakeCaliper.class::cast).toList();
+                    brakesystem.getBrakeComponents().addAll(calipers);
+                    BenchmarkModels.annotate(view.getRootObjects(UncertaintyAnnotationRepository.class).iterator()
+                            .next(), calipers, List.of("pistonDiameterInMM", "hydraulicPressureInBar"),
+                            uncertaintyCount, BenchmarkModels.Distribution.NORMAL);
+                });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        vsum.dispose();
+        VsumFixture.deleteRecursively(storageRoot);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 3, time = 5)
+    public InternalVirtualModel buildVirtualModel() {
+        Path storageFolder = storageRoot.resolve("build" + next++);
+        InternalVirtualModel model = VsumFixture.createVirtualModel(storageFolder);
+        VsumFixture.registerRootObjects(model, storageFolder);
+        model.dispose();
+        return model;
+    }
+
+    @Benchmark
+    public void commitPressureChange() {
+        CommittableView view = VsumFixture.getView(vsum, List.of(Brakesystem.class));
+        List<BrakeCaliper> calipers = view.getRootObjects(Brakesystem.class).iterator().next().getBrakeComponents()
+                .stream().filter(BrakeCaliper.class::isInstance).map(BrakeCaliper.class::cast).toList();
+        BrakeCaliper caliper = calipers.get(next++ % calipers.size());
+        caliper.setHydraulicPressureInBar(caliper.getHydraulicPressureInBar() == 80 ? 81 : 80);
+        view.commitChanges();
+    }
+}
@@ -0,0 +1,90 @@
+package tools.vitruv.methodologisttemplate.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+
+import brakesystem.Brakesystem;
+import cad.CADRepository;
+import tools.vitruv.change.propagation.ChangePropagationMode;
+import tools.vitruv.change.testutils.TestUserInteraction;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.views.View;
+import tools.vitruv.framework.views.ViewTypeFactory;
+import tools.vitruv.framework.vsum.VirtualModel;
+import tools.vitruv.framework.vsum.VirtualModelBuilder;
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import tools.vitruv.methodologisttemplate.consistency.lifecycle.BrakeSystemSpecifications;
+import tools.vitruv.methodologisttemplate.consistency.lifecycle.PropagationLifecycle;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+
+/**
+ * Sets up a VSUM with the reactions of the case study, like the scenario tests
+ * do.
+ */
+public class VsumFixture {
+
+    private VsumFixture() {
+        // Utility class
+    }
+
+    public static void registerResourceFactory() {
+        Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put("*", new XMIResourceFactoryImpl());
+    }
+
+    public static InternalVirtualModel createVirtualModel(Path storageFolder) {
+        VirtualModelBuilder builder = new VirtualModelBuilder()
+                .withStorageFolder(storageFolder)
+                .withUserInteractorForResultProvider(
+                        new TestUserInteraction.ResultProvider(new TestUserInteraction()));
+        BrakeSystemSpecifications.create().forEach(builder::withChangePropagationSpecification);
+        InternalVirtualModel model = builder.buildAndInitialize();
+        model.setChangePropagationMode(ChangePropagationMode.TRANSITIVE_CYCLIC);
+        model.addChangePropagationListener(new PropagationLifecycle());
+        return model;
+    }
+
+    /**
+     * Registers the uncertainty repository, the reactions create the brake
+     * system and the CAD repository.
+     */
+    public static void registerRootObjects(VirtualModel virtualModel, Path storageFolder) {
+        modifyView(getView(virtualModel,
+                List.of(Brakesystem.class, CADRepository.class, UncertaintyAnnotationRepository.class)),
+                view -> view.registerRoot(UncertaintyFactory.eINSTANCE.createUncertaintyAnnotationRepository(),
+                        URI.createFileURI(storageFolder.toString() + "/uncertainty.model")));
+    }
+
+    public static CommittableView getView(VirtualModel virtualModel, Collection<Class<?>> rootTypes) {
+        var selector = virtualModel.createSelector(ViewTypeFactory.createIdentityMappingViewType("default"));
+        selector.getSelectableElements().stream()
+                .filter(element -> rootTypes.stream().anyMatch(it -> it.isInstance(element)))
+                .forEach(it -> selector.setSelected(it, true));
+        View view = selector.createView();
+        return view.withChangeRecordingTrait();
+    }
+
+    public static void modifyView(CommittableView view, Consumer<CommittableView> modificationFunction) {
+        modificationFunction.accept(view);
+        view.commitChanges();
+    }
+
+    public static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
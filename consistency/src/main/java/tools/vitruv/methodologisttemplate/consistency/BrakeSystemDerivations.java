@@ -0,0 +1,77 @@
+package tools.vitruv.methodologisttemplate.consistency;
+
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.BrakeDisk;
+import brakesystem.BrakesystemPackage;
+import cad.CShape;
+import cad.CadPackage;
+import cad.Circle;
+import tools.vitruv.methodologisttemplate.consistency.graph.DerivationContext;
+import tools.vitruv.methodologisttemplate.consistency.graph.DerivationGraph;
+import tools.vitruv.methodologisttemplate.consistency.graph.ParameterChange;
+import tools.vitruv.methodologisttemplate.consistency.guard.WriteGuard;
+
+/**
+ * The derived parameters of the brake system case study:
+ * <ul>
+ * <li>disk brakeDiskThicknessInMM drives circle extrusion</li>
+ * <li>circle extrusion drives the throatWidth of the CShape of the paired
+ * caliper</li>
+ * <li>CShape throatWidth drives caliper bridgeGap</li>
+ * <li>caliper pistonDiameterInMM and hydraulicPressureInBar drive caliper
+ * clampingForceInN</li>
+ * </ul>
+ * Derivations that need the uncertainties are only resolved if the context
+ * provides the uncertainty repository.
+ */
+public class BrakeSystemDerivations {
+
+    public static final DerivationGraph GRAPH = DerivationGraph.builder()
+            .derive(CadPackage.Literals.CAD_ELEMENT__EXTRUSION,
+                    List.of(BrakesystemPackage.Literals.BRAKE_DISK__BRAKE_DISK_THICKNESS_IN_MM),
+                    (disk, context) -> context.getCorrespondingElement(disk, Circle.class),
+                    (circle, causes, context) -> WriteGuard.set(circle, CadPackage.Literals.CAD_ELEMENT__EXTRUSION,
+                            ((BrakeDisk) causes.get(0).element()).getBrakeDiskThicknessInMM()))
+            .derive(CadPackage.Literals.C_SHAPE__THROAT_WIDTH,
+                    List.of(CadPackage.Literals.CAD_ELEMENT__EXTRUSION),
+                    (circle, context) -> context.getUncertaintyRepository() != null
+                            ? context.getPairedElement(circle, CShape.class)
+                            : null,
+                    (cShape, causes, context) -> causes.forEach(cause -> ThroatWidthReactionsHelper
+                            .updateCShapeThroatWidth((Integer) cause.newValue(), (Integer) cause.oldValue(),
+                                    (Circle) cause.element(), (CShape) cShape, context.getUncertaintyRepository())))
+            .derive(BrakesystemPackage.Literals.BRAKE_CALIPER__BRIDGE_GAP,
+                    List.of(CadPackage.Literals.C_SHAPE__THROAT_WIDTH),
+                    (cShape, context) -> context.getCorrespondingElement(cShape, BrakeCaliper.class),
+                    (caliper, causes, context) -> WriteGuard.set(caliper,
+                            BrakesystemPackage.Literals.BRAKE_CALIPER__BRIDGE_GAP,
+                            ((CShape) causes.get(0).element()).getThroatWidth()))
+            .derive(BrakesystemPackage.Literals.BRAKE_CALIPER__CLAMPING_FORCE_IN_N,
+                    List.of(BrakesystemPackage.Literals.BRAKE_CALIPER__PISTON_DIAMETER_IN_MM,
+                            BrakesystemPackage.Literals.BRAKE_CALIPER__HYDRAULIC_PRESSURE_IN_BAR),
+                    (caliper, context) -> context.getUncertaintyRepository() != null ? caliper : null,
+                    (caliper, causes, context) -> ClampingForceHelper.scheduleClampingForce((BrakeCaliper) caliper,
+                            context.getUncertaintyRepository()))
+            .build();
+
+    /**
+     * Recomputes all parameters depending on the changed parameter, see
+     * {@link DerivationGraph#propagate(ParameterChange, DerivationContext)}.
+     *
+     * @param element  the changed element
+     * @param feature  the changed parameter
+     * @param oldValue the value before the change
+     * @param newValue the value after the change
+     * @param context  the correspondences and uncertainties known to the caller
+     * @return the derived parameter changes
+     */
+    public static List<ParameterChange> propagate(EObject element, EStructuralFeature feature, Object oldValue,
+            Object newValue, DerivationContext context) {
+        return GRAPH.propagate(new ParameterChange(element, feature, oldValue, newValue), context);
+    }
+}
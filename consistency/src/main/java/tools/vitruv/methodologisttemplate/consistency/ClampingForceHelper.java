@@ -3,7 +3,16 @@ package tools.vitruv.methodologisttemplate.consistency;
 import java.util.List;
 
 import brakesystem.BrakeCaliper;
-import tools.vitruv.stoex.interpreter.StoexEvaluator;
+import brakesystem.BrakesystemPackage;
+import tools.vitruv.methodologisttemplate.consistency.descriptor.UncertaintyDescriptors;
+import tools.vitruv.methodologisttemplate.consistency.formula.Formula;
+import tools.vitruv.methodologisttemplate.consistency.formula.FormulaRegistry;
+import tools.vitruv.methodologisttemplate.consistency.guard.WriteGuard;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintyIndex;
+import tools.vitruv.methodologisttemplate.consistency.propagation.PropagationResult;
+import tools.vitruv.methodologisttemplate.consistency.propagation.UncertaintyPropagator;
+import tools.vitruv.methodologisttemplate.consistency.scheduling.RecomputationScheduler;
+import tools.vitruv.methodologisttemplate.consistency.scheduling.StructuralFingerprint;
 import tools.vitruv.stoex.stoex.Expression;
 import uncertainty.Uncertainty;
 import uncertainty.UncertaintyAnnotationRepository;
@@ -11,77 +20,167 @@ import uncertainty.UncertaintyLocationType;
 
 public class ClampingForceHelper {
 
+    private static final Formula CLAMPING_FORCE = FormulaRegistry
+            .compile("PI * ( (d * 0.001) / 2 ) ^ 2 * p * 10 ^ 2", "d", "p");
+
+    public static final String CLAMPING_FORCE_PARAMETER = "clampingForceInN";
+
     /**
-     * Recomputes the clamping force of the given caliper, taking into account any
-     * uncertainties on piston diameter or hydraulic pressure. If uncertainties are
-     * present, the clamping force is computed as an uncertainty expression and a
-     * corresponding Uncertainty instance is created. If no uncertainties are
-     * present, the clamping force is computed as a deterministic value.
+     * The inputs of a clamping force computation, resolved from the model.
+     *
+     * @param pistonDiameter         the piston diameter of the caliper
+     * @param hydraulicPressure      the hydraulic pressure of the caliper
+     * @param pistonDiameterExpr     a copy of the piston diameter uncertainty
+     *                               expression, or null
+     * @param hydraulicPressureExpr  a copy of the hydraulic pressure
+     *                               uncertainty expression, or null
+     * @param template               the input uncertainty the derived one is
+     *                               based on, null if the clamping force is
+     *                               computed deterministically; only handed on
+     *                               to the application
+     */
+    private record ClampingForceInputs(int pistonDiameter, double hydraulicPressure, Expression pistonDiameterExpr,
+            Expression hydraulicPressureExpr, Uncertainty template) {
+    }
+
+    /**
+     * The computed clamping force of a caliper.
+     *
+     * @param force    the clamping force or its mean
+     * @param result   the propagation result, null if the clamping force was
+     *                 computed deterministically
+     * @param template the input uncertainty the derived one is based on, null
+     *                 if the clamping force was computed deterministically
+     */
+    private record ClampingForce(double force, PropagationResult result, Uncertainty template) {
+    }
+
+    /**
+     * Marks the clamping force of the given caliper as outdated. The clamping
+     * force is recomputed once per caliper when the
+     * {@link RecomputationScheduler} is flushed, and only if piston diameter,
+     * hydraulic pressure or their uncertainties changed since the last
+     * recomputation. The clamping forces of calipers in different brake
+     * corners are computed in parallel.
      * 
      * @param caliper         the BrakeCaliper to update
      * @param uncertaintyRepo the UncertaintyAnnotationRepository containing
      *                        uncertainties
      */
-    public static void recomputeClampingForce(BrakeCaliper caliper, UncertaintyAnnotationRepository uncertaintyRepo) {
-        if (handleUncertaintyClampingForce(caliper, uncertaintyRepo)) {
-            return;
-        }
-        Integer d = caliper.getPistonDiameterInMM();
-        Double p = caliper.getHydraulicPressureInBar();
-        double force = Math.PI * Math.pow(d * 0.001 / 2, 2) * p * Math.pow(10, 2);
-        caliper.setClampingForceInN(force);
+    public static void scheduleClampingForce(BrakeCaliper caliper, UncertaintyAnnotationRepository uncertaintyRepo) {
+        RecomputationScheduler.current().markDirty(caliper, fingerprint(caliper, uncertaintyRepo),
+                c -> resolveClampingForce(c, uncertaintyRepo), ClampingForceHelper::computeClampingForce,
+                (c, force) -> applyClampingForce(c, uncertaintyRepo, force));
+    }
+
+    private static StructuralFingerprint fingerprint(BrakeCaliper caliper,
+            UncertaintyAnnotationRepository uncertaintyRepo) {
+        UncertaintyIndex index = UncertaintyIndex.getIndex(uncertaintyRepo);
+        List<Uncertainty> uncertainties = getInputUncertainties(index, caliper);
+        Uncertainty template = uncertainties.isEmpty() ? null : uncertainties.get(0);
+        // Only values are captured, model elements referencing the caliper would
+        // keep it reachable from the scheduler
+        return StructuralFingerprint.of(caliper.getPistonDiameterInMM(), caliper.getHydraulicPressureInBar(),
+                getParameterUncertainty(index, caliper, "pistonDiameterInMM"),
+                getParameterUncertainty(index, caliper, "hydraulicPressureInBar"),
+                uncertainties.size(),
+                template == null ? null
+                        : List.of(template.getKind(), template.getNature(), template.getReducability(),
+                                template.getOnDelete()));
     }
 
     /**
-     * If uncertainties for piston diameter or hydraulic pressure exist for the
-     * given caliper, computes the clamping force as an uncertainty expression and
-     * creates a corresponding Uncertainty instance. Returns true if uncertainties
-     * were found and handled, false otherwise.
+     * Recomputes the clamping force of the given caliper, taking into account any
+     * uncertainties on piston diameter or hydraulic pressure. If uncertainties are
+     * present, the clamping force is computed as an uncertainty expression and the
+     * derived clamping force Uncertainty is created or updated. If no uncertainties
+     * are present, the clamping force is computed as a deterministic value and a
+     * previously derived clamping force Uncertainty is removed.
+     * 
+     * Normally distributed inputs are propagated analytically, other
+     * distributions are sampled.
      * 
      * @param caliper         the BrakeCaliper to update
      * @param uncertaintyRepo the UncertaintyAnnotationRepository containing
      *                        uncertainties
-     * @return true if uncertainties were found and handled, false otherwise
+     * @return the propagation result, which tells the propagation path taken, or
+     *         null if the clamping force was computed deterministically
      */
-    private static boolean handleUncertaintyClampingForce(BrakeCaliper caliper,
+    public static PropagationResult recomputeClampingForce(BrakeCaliper caliper,
             UncertaintyAnnotationRepository uncertaintyRepo) {
+        return applyClampingForce(caliper, uncertaintyRepo,
+                computeClampingForce(resolveClampingForce(caliper, uncertaintyRepo)));
+    }
 
-        List<Uncertainty> uncertainties = uncertaintyRepo.getUncertainties().stream()
-                .filter(u -> u.getUncertaintyLocation().getReferencedComponents().contains(caliper))
-                .toList();
+    /**
+     * Reads the inputs of the clamping force of the given caliper. The
+     * uncertainty expressions are copied, so the computation does not access
+     * the model.
+     */
+    private static ClampingForceInputs resolveClampingForce(BrakeCaliper caliper,
+            UncertaintyAnnotationRepository uncertaintyRepo) {
+        UncertaintyIndex index = UncertaintyIndex.getIndex(uncertaintyRepo);
+        List<Uncertainty> uncertainties = getInputUncertainties(index, caliper);
 
         if (uncertainties.isEmpty()) {
-            return false;
+            return new ClampingForceInputs(caliper.getPistonDiameterInMM(), caliper.getHydraulicPressureInBar(), null,
+                    null, null);
         }
+        Object[] expressions = UncertaintyPropagator.copyValues(
+                getParameterUncertainty(index, caliper, "pistonDiameterInMM"),
+                getParameterUncertainty(index, caliper, "hydraulicPressureInBar"));
+        return new ClampingForceInputs(caliper.getPistonDiameterInMM(), caliper.getHydraulicPressureInBar(),
+                (Expression) expressions[0], (Expression) expressions[1], uncertainties.get(0));
+    }
 
-        Expression pistonDiameterExpr = getParameterUncertainty(uncertainties, caliper, "pistonDiameterInMM");
-        Expression hydraulicPressureExpr = getParameterUncertainty(uncertainties, caliper, "hydraulicPressureInBar");
-
-        StoexEvaluator stoexHelper = new StoexEvaluator();
-        stoexHelper.setVariable("d", pistonDiameterExpr != null ? pistonDiameterExpr : caliper.getPistonDiameterInMM());
-        stoexHelper.setVariable("p",
-                hydraulicPressureExpr != null ? hydraulicPressureExpr : caliper.getHydraulicPressureInBar());
+    /**
+     * Computes the clamping force from the resolved inputs. If uncertainties
+     * for piston diameter or hydraulic pressure exist, the clamping force is
+     * propagated as an uncertainty expression.
+     */
+    private static ClampingForce computeClampingForce(ClampingForceInputs inputs) {
+        if (inputs.template() == null) {
+            return new ClampingForce(CLAMPING_FORCE.evaluate(inputs.pistonDiameter(), inputs.hydraulicPressure()),
+                    null, null);
+        }
 
-        String expr = "PI * ( (d * 0.001) / 2 ) ^ 2 * p * 10 ^ 2";
-        Expression result = stoexHelper.evaluate(expr);
-        caliper.setClampingForceInN(stoexHelper.getMean(result).doubleValue());
+        PropagationResult result = UncertaintyPropagator.propagate(CLAMPING_FORCE,
+                inputs.pistonDiameterExpr() != null ? inputs.pistonDiameterExpr() : inputs.pistonDiameter(),
+                inputs.hydraulicPressureExpr() != null ? inputs.hydraulicPressureExpr() : inputs.hydraulicPressure());
+        return new ClampingForce(result.mean(), result, inputs.template());
+    }
 
-        Uncertainty clampingForceUncertainty = UncertaintyReactionsHelper.deepCopyUncertainty(uncertainties.get(0));
-        clampingForceUncertainty.getUncertaintyLocation().getReferencedComponents().add(caliper);
-        clampingForceUncertainty.getUncertaintyLocation().setParameterLocation("clampingForceInN");
-        clampingForceUncertainty.getEffect().setExpression(result);
-        uncertaintyRepo.getUncertainties().add(clampingForceUncertainty);
+    /**
+     * Writes a computed clamping force and creates, updates or removes the
+     * derived clamping force Uncertainty accordingly.
+     */
+    private static PropagationResult applyClampingForce(BrakeCaliper caliper,
+            UncertaintyAnnotationRepository uncertaintyRepo, ClampingForce clampingForce) {
+        if (clampingForce.result() == null) {
+            DerivedUncertaintyHelper.removeDerivedUncertainty(uncertaintyRepo, caliper, CLAMPING_FORCE_PARAMETER);
+            WriteGuard.set(caliper, BrakesystemPackage.Literals.BRAKE_CALIPER__CLAMPING_FORCE_IN_N,
+                    clampingForce.force());
+            return null;
+        }
+        WriteGuard.set(caliper, BrakesystemPackage.Literals.BRAKE_CALIPER__CLAMPING_FORCE_IN_N, clampingForce.force());
+        DerivedUncertaintyHelper.upsertDerivedUncertainty(uncertaintyRepo, caliper, CLAMPING_FORCE_PARAMETER,
+                clampingForce.template(), clampingForce.result().expression());
+        return clampingForce.result();
+    }
 
-        return true;
+    private static List<Uncertainty> getInputUncertainties(UncertaintyIndex index, BrakeCaliper caliper) {
+        // The derived clamping force uncertainty is an output, not an input
+        return index.getUncertainties(caliper).stream()
+                .filter(u -> !DerivedUncertaintyHelper.isDerivedUncertainty(u, CLAMPING_FORCE_PARAMETER))
+                .toList();
     }
 
-    private static Expression getParameterUncertainty(List<Uncertainty> uncertainties, BrakeCaliper caliper,
+    private static Expression getParameterUncertainty(UncertaintyIndex index, BrakeCaliper caliper,
             String param) {
-        return uncertainties.stream()
-                .filter(u -> u.getUncertaintyLocation().getLocation() == UncertaintyLocationType.PARAMETER
-                        && u.getUncertaintyLocation().getParameterLocation().equals(param)
-                        && u.getEffect() != null && u.getEffect().getExpression() != null)
-                .map(u -> u.getEffect().getExpression())
+        return index.getUncertainties(caliper, UncertaintyLocationType.PARAMETER, param).stream()
+                .map(UncertaintyDescriptors::getEffect)
+                .filter(effect -> effect != null && effect.getExpression() != null)
+                .map(effect -> effect.getExpression())
                 .findFirst()
                 .orElse(null);
     }
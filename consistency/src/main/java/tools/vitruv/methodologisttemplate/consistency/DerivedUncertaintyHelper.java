@@ -0,0 +1,123 @@
+package tools.vitruv.methodologisttemplate.consistency;
+
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+
+import tools.vitruv.methodologisttemplate.consistency.guard.WriteGuard;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintyIndex;
+import tools.vitruv.methodologisttemplate.consistency.propagation.ExpressionNormalizer;
+import tools.vitruv.stoex.stoex.Expression;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyLocationType;
+import uncertainty.UncertaintyPackage;
+
+/**
+ * Manages the lifecycle of derived uncertainties, i.e. uncertainties that are
+ * computed by the consistency helpers (such as the clamping force or the throat
+ * width) instead of being set manually. There is at most one derived
+ * uncertainty per element and parameter location: it is created on the first
+ * computation, updated in place on every later one and removed once its inputs
+ * are no longer uncertain.
+ */
+public class DerivedUncertaintyHelper {
+
+    private DerivedUncertaintyHelper() {
+        // Utility class
+    }
+
+    /**
+     * Returns the derived uncertainty of the given element and parameter
+     * location, or null if there is none.
+     *
+     * @param uncertaintyRepo   the repository containing the uncertainties
+     * @param element           the element the derived parameter belongs to
+     * @param parameterLocation the name of the derived parameter
+     * @return the derived uncertainty or null
+     */
+    public static Uncertainty findDerivedUncertainty(UncertaintyAnnotationRepository uncertaintyRepo,
+            EObject element, String parameterLocation) {
+        return getDerivedUncertainties(uncertaintyRepo, element, parameterLocation).stream()
+                .findFirst().orElse(null);
+    }
+
+    /**
+     * Creates or updates the derived uncertainty of the given element and
+     * parameter location. If no derived uncertainty exists yet, one is copied
+     * from the template and added to the repository. Otherwise the existing one
+     * receives the new expression and the template's classification; surplus
+     * duplicates left by earlier computations are removed. The expression is
+     * simplified with the {@link ExpressionNormalizer} before it is stored.
+     *
+     * @param uncertaintyRepo   the repository containing the uncertainties
+     * @param element           the element the derived parameter belongs to
+     * @param parameterLocation the name of the derived parameter
+     * @param template          the input uncertainty the derived one is based on
+     * @param expression        the derived StoEx expression
+     * @return the created or updated derived uncertainty
+     */
+    public static Uncertainty upsertDerivedUncertainty(UncertaintyAnnotationRepository uncertaintyRepo,
+            EObject element, String parameterLocation, Uncertainty template, Expression expression) {
+        Expression normalized = ExpressionNormalizer.normalize(expression);
+        List<Uncertainty> existing = getDerivedUncertainties(uncertaintyRepo, element, parameterLocation);
+        if (existing.isEmpty()) {
+            Uncertainty derived = UncertaintyReactionsHelper.deepCopyUncertainty(template);
+            derived.getUncertaintyLocation().getReferencedComponents().add(element);
+            derived.getUncertaintyLocation().setLocation(UncertaintyLocationType.PARAMETER);
+            derived.getUncertaintyLocation().setParameterLocation(parameterLocation);
+            derived.getEffect().setExpression(normalized);
+            uncertaintyRepo.getUncertainties().add(derived);
+            return derived;
+        }
+
+        Uncertainty derived = existing.get(0);
+        uncertaintyRepo.getUncertainties().removeAll(existing.subList(1, existing.size()));
+        updateClassification(derived, template);
+        WriteGuard.set(derived.getEffect(), UncertaintyPackage.Literals.EFFECT__EXPRESSION, normalized);
+        return derived;
+    }
+
+    /**
+     * Removes the derived uncertainty of the given element and parameter
+     * location, if any.
+     *
+     * @param uncertaintyRepo   the repository containing the uncertainties
+     * @param element           the element the derived parameter belongs to
+     * @param parameterLocation the name of the derived parameter
+     * @return whether a derived uncertainty was removed
+     */
+    public static boolean removeDerivedUncertainty(UncertaintyAnnotationRepository uncertaintyRepo,
+            EObject element, String parameterLocation) {
+        List<Uncertainty> existing = getDerivedUncertainties(uncertaintyRepo, element, parameterLocation);
+        return uncertaintyRepo.getUncertainties().removeAll(existing);
+    }
+
+    /**
+     * @param uncertainty       the uncertainty to check
+     * @param parameterLocation the name of the derived parameter
+     * @return whether the uncertainty is a derived uncertainty for the given
+     *         parameter location
+     */
+    public static boolean isDerivedUncertainty(Uncertainty uncertainty, String parameterLocation) {
+        return !uncertainty.isSetManually()
+                && uncertainty.getUncertaintyLocation().getLocation() == UncertaintyLocationType.PARAMETER
+                && parameterLocation.equals(uncertainty.getUncertaintyLocation().getParameterLocation());
+    }
+
+    private static List<Uncertainty> getDerivedUncertainties(UncertaintyAnnotationRepository uncertaintyRepo,
+            EObject element, String parameterLocation) {
+        return UncertaintyIndex.getIndex(uncertaintyRepo)
+                .getUncertainties(element, UncertaintyLocationType.PARAMETER, parameterLocation).stream()
+                .filter(u -> !u.isSetManually())
+                .toList();
+    }
+
+    // Only write attributes that actually differ to avoid spurious change events
+    private static void updateClassification(Uncertainty derived, Uncertainty template) {
+        WriteGuard.set(derived, UncertaintyPackage.Literals.UNCERTAINTY__KIND, template.getKind());
+        WriteGuard.set(derived, UncertaintyPackage.Literals.UNCERTAINTY__NATURE, template.getNature());
+        WriteGuard.set(derived, UncertaintyPackage.Literals.UNCERTAINTY__REDUCABILITY, template.getReducability());
+        WriteGuard.set(derived, UncertaintyPackage.Literals.UNCERTAINTY__ON_DELETE, template.getOnDelete());
+    }
+}
@@ -1,74 +1,164 @@
 package tools.vitruv.methodologisttemplate.consistency;
 
 import brakesystem.BrakeCaliper;
-import cad.CADRepository;
+import brakesystem.BrakeDisk;
 import cad.CShape;
+import cad.CadPackage;
 import cad.Circle;
-import tools.vitruv.stoex.interpreter.StoexEvaluator;
+import tools.vitruv.methodologisttemplate.consistency.descriptor.UncertaintyDescriptors;
+import tools.vitruv.methodologisttemplate.consistency.formula.Formula;
+import tools.vitruv.methodologisttemplate.consistency.formula.FormulaRegistry;
+import tools.vitruv.methodologisttemplate.consistency.guard.WriteGuard;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintyIndex;
+import tools.vitruv.methodologisttemplate.consistency.pairing.BrakeCornerIndex;
+import tools.vitruv.methodologisttemplate.consistency.propagation.PropagationResult;
+import tools.vitruv.methodologisttemplate.consistency.propagation.UncertaintyPropagator;
+import tools.vitruv.methodologisttemplate.consistency.scheduling.RecomputationScheduler;
 import tools.vitruv.stoex.stoex.Expression;
+import uncertainty.Effect;
 import uncertainty.Uncertainty;
 import uncertainty.UncertaintyAnnotationRepository;
 
 public class ThroatWidthReactionsHelper {
 
-    public static void updateCShapeThroatWidth(Integer newValue, Integer oldValue, Circle circle,
+    private static final Formula THROAT_WIDTH = FormulaRegistry
+            .compile("throatWidth + newValue - oldValue", "throatWidth", "newValue", "oldValue");
+
+    public static final String THROAT_WIDTH_PARAMETER = "throatWidth";
+
+    private static final System.Logger LOGGER = System.getLogger(ThroatWidthReactionsHelper.class.getName());
+
+    /**
+     * An extrusion change of the circle a throat width depends on.
+     */
+    private record ExtrusionChange(Circle circle, int oldValue, int newValue) {
+    }
+
+    /**
+     * The inputs of a throat width computation, resolved from the model.
+     *
+     * @param throatWidth      the current throat width of the CShape
+     * @param oldValue         the extrusion before the merged change
+     * @param newValue         the extrusion after the merged change
+     * @param circleExpression a copy of the uncertainty expression of the
+     *                         circle extrusion, or null
+     * @param template         the circle uncertainty the derived one is based
+     *                         on, null if the throat width is computed
+     *                         deterministically; only handed on to the
+     *                         application
+     */
+    private record ThroatWidthInputs(int throatWidth, int oldValue, int newValue, Expression circleExpression,
+            Uncertainty template) {
+    }
+
+    /**
+     * The computed throat width of a CShape.
+     *
+     * @param throatWidth the throat width or its mean
+     * @param result      the propagation result, null if the throat width was
+     *                    computed deterministically
+     * @param template    the circle uncertainty the derived one is based on,
+     *                    null if the throat width was computed deterministically
+     */
+    private record ThroatWidth(int throatWidth, PropagationResult result, Uncertainty template) {
+    }
+
+    /**
+     * Updates the throat width of the CShape of the brake caliper paired with
+     * the brake disk of the circle, see {@link BrakeCornerIndex}. The update is
+     * a recomputation of the {@link RecomputationScheduler}, so the throat
+     * widths of different brake corners are computed in parallel if they are
+     * flushed together.
+     *
+     * @param newValue        the new extrusion of the circle
+     * @param oldValue        the previous extrusion of the circle
+     * @param circle          the circle of the brake disk
+     * @param cShape          the CShape of the paired brake caliper
+     * @param uncertaintyRepo the repository containing the uncertainties
+     */
+    public static void updateCShapeThroatWidth(Integer newValue, Integer oldValue, Circle circle, CShape cShape,
             UncertaintyAnnotationRepository uncertaintyRepo) {
         // No update needed if oldValue is 0 (initial creation)
         if (oldValue == 0) {
             return;
         }
-        CADRepository repo = (CADRepository) circle.eContainer();
+        UncertaintyIndex index = UncertaintyIndex.getIndex(uncertaintyRepo);
+        // Pending changes of the same circle are merged, a CShape is paired with
+        // a single circle
+        RecomputationScheduler.current().markDirty(cShape, new ExtrusionChange(circle, oldValue, newValue),
+                (earlier, later) -> new ExtrusionChange(later.circle(), earlier.oldValue(), later.newValue()),
+                (c, change) -> resolveThroatWidth(c, change, index), ThroatWidthReactionsHelper::computeThroatWidth,
+                (c, throatWidth) -> applyThroatWidth(c, throatWidth, uncertaintyRepo));
+    }
 
-        // Find the CShape that is linked to the BrakeCaliper and update its
-        // throatWidth
-        // There should be exactly one such CShape (Assumption based on the case
-        // study)
-        CShape cShape = repo.getCadElements().stream().filter(e -> e instanceof CShape).map(e -> (CShape) e)
-                .filter(c -> c.getIdentifier().equals("BrakeCaliperCShape")).findFirst().orElseThrow();
+    /**
+     * Reports a throat width update that is skipped because the brake disk of
+     * the circle has neither a paired caliper (see {@link BrakeCornerIndex})
+     * nor a corresponding CShape. No other CShape is updated instead, since it
+     * may belong to the caliper of another brake corner.
+     *
+     * @param circle the circle whose extrusion changed
+     * @param disk   the brake disk of the circle
+     */
+    public static void reportUnresolvedCShape(Circle circle, BrakeDisk disk) {
+        LOGGER.log(System.Logger.Level.WARNING,
+                "Skipped the throat width update for circle {0}: brake disk {1} has no paired caliper"
+                        + " and no corresponding CShape",
+                circle.getIdentifier(), disk);
+    }
 
-        if (handleCircleUncertainty(repo, circle, cShape, oldValue, uncertaintyRepo)) {
-            return;
+    /**
+     * Reads the inputs of the throat width after an extrusion change. The
+     * uncertainty expression of the circle is copied, so the computation does
+     * not access the model.
+     */
+    private static ThroatWidthInputs resolveThroatWidth(CShape cShape, ExtrusionChange change,
+            UncertaintyIndex index) {
+        Uncertainty circleUncertainty = index.getUncertainties(change.circle()).stream().findFirst().orElse(null);
+
+        Effect circleEffect = circleUncertainty == null ? null : UncertaintyDescriptors.getEffect(circleUncertainty);
+
+        if (circleEffect != null && circleEffect.getExpression() != null) {
+            return new ThroatWidthInputs(cShape.getThroatWidth(), change.oldValue(), change.newValue(),
+                    (Expression) UncertaintyPropagator.copyValues(circleEffect.getExpression())[0],
+                    circleUncertainty);
         }
-        // No uncertainty involved, just update the throat width directly
-        int delta = newValue - oldValue;
-        cShape.setThroatWidth(cShape.getThroatWidth() + delta);
+        return new ThroatWidthInputs(cShape.getThroatWidth(), change.oldValue(), change.newValue(), null, null);
+    }
 
+    /**
+     * Computes the throat width from the resolved inputs. If the circle has an
+     * uncertain extrusion, the throat width is propagated as an uncertainty
+     * expression.
+     */
+    private static ThroatWidth computeThroatWidth(ThroatWidthInputs inputs) {
+        if (inputs.circleExpression() != null) {
+            // A shifted normal distribution stays normal and is propagated exactly;
+            // other distributions are sampled
+            PropagationResult newThroatWidth = UncertaintyPropagator.propagate(THROAT_WIDTH,
+                    inputs.throatWidth(), inputs.circleExpression(), inputs.oldValue());
+            return new ThroatWidth((int) newThroatWidth.mean(), newThroatWidth, inputs.template());
+        }
+        // No uncertainty involved, just update the throat width directly
+        return new ThroatWidth(
+                (int) THROAT_WIDTH.evaluate(inputs.throatWidth(), inputs.newValue(), inputs.oldValue()), null,
+                null);
     }
 
-    public static boolean handleCircleUncertainty(CADRepository repo, Circle circle, CShape cShape, Integer oldValue,
+    private static void applyThroatWidth(CShape cShape, ThroatWidth throatWidth,
             UncertaintyAnnotationRepository uncertaintyRepo) {
-        Uncertainty circleUncertainty = uncertaintyRepo.getUncertainties().stream()
-                .filter(u -> u.getUncertaintyLocation().getReferencedComponents().contains(circle))
-                .findFirst().orElse(null);
-
-        if (circleUncertainty != null
-                && circleUncertainty.getEffect() != null
-                && circleUncertainty.getEffect().getExpression() != null) {
-            // create a new uncertainty for the throat width of the CShape
-            // This is a simplification, in a real scenario we would need to consider the
-            // type of uncertainty and how it propagates
-            Uncertainty uncertainty = UncertaintyReactionsHelper.deepCopyUncertainty(circleUncertainty);
-            uncertainty.getUncertaintyLocation().getReferencedComponents().add(cShape);
-            uncertainty.getUncertaintyLocation().setParameterLocation("throatWidth");
-
-            Expression circleExpression = circleUncertainty.getEffect().getExpression();
-            StoexEvaluator stoexHelper = new StoexEvaluator();
-
-            stoexHelper.setVariable("newValue", circleExpression);
-            stoexHelper.setVariable("oldValue", oldValue);
-            stoexHelper.setVariable("throatWidth", cShape.getThroatWidth());
-            Expression newThroatWidthExpression = (Expression) stoexHelper
-                    .evaluate("throatWidth + newValue - oldValue");
-
-            cShape.setThroatWidth(stoexHelper.getMean(newThroatWidthExpression).intValue());
-
-            uncertainty.getEffect().setExpression(newThroatWidthExpression);
-            uncertaintyRepo.getUncertainties().add(uncertainty);
-
-            return true;
-
+        if (throatWidth.result() == null) {
+            DerivedUncertaintyHelper.removeDerivedUncertainty(uncertaintyRepo, cShape, THROAT_WIDTH_PARAMETER);
+            WriteGuard.set(cShape, CadPackage.Literals.C_SHAPE__THROAT_WIDTH, throatWidth.throatWidth());
+            return;
         }
-        return false;
+        WriteGuard.set(cShape, CadPackage.Literals.C_SHAPE__THROAT_WIDTH, throatWidth.throatWidth());
+
+        // create or update the derived uncertainty for the throat width of the CShape
+        // This is a simplification, in a real scenario we would need to consider the
+        // type of uncertainty and how it propagates
+        DerivedUncertaintyHelper.upsertDerivedUncertainty(uncertaintyRepo, cShape, THROAT_WIDTH_PARAMETER,
+                throatWidth.template(), throatWidth.result().expression());
     }
 
     public static BrakeCaliper createNewBrakeCaliper(CShape cShape) {
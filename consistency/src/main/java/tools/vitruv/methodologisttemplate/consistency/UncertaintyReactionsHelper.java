@@ -1,30 +1,72 @@
 package tools.vitruv.methodologisttemplate.consistency;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 
+import tools.vitruv.methodologisttemplate.consistency.descriptor.UncertaintyDescriptors;
+import tools.vitruv.methodologisttemplate.consistency.guard.WriteGuard;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintyIndex;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintySignature;
 import uncertainty.Effect;
+import uncertainty.OnDeleteMode;
 import uncertainty.Pattern;
 import uncertainty.Uncertainty;
 import uncertainty.UncertaintyAnnotationRepository;
 import uncertainty.UncertaintyFactory;
 import uncertainty.UncertaintyLocation;
+import uncertainty.UncertaintyPackage;
 import uncertainty.UncertaintyPerspective;
 
 public class UncertaintyReactionsHelper {
 
+    private static volatile boolean flyweight = Boolean.getBoolean("uncertainty.flyweight");
+    // Removed by a cascade of the reactions on this thread, until the reaction to their deletion
+    private static final ThreadLocal<Set<Uncertainty>> REMOVED_IN_CASCADE = ThreadLocal
+            .withInitial(() -> Collections.newSetFromMap(new WeakHashMap<>()));
+    private static final LongAdder SKIPPED_DELETIONS = new LongAdder();
+
     private UncertaintyReactionsHelper() {
         // Utility class
     }
 
+    /**
+     * @return whether corresponding uncertainties are created as flyweights
+     *         sharing their effect, pattern and perspective, see
+     *         {@link UncertaintyDescriptors}
+     */
+    public static boolean isFlyweight() {
+        return flyweight;
+    }
+
+    /**
+     * Enables or disables the flyweight mode, which is disabled by default and
+     * enabled with the system property {@code uncertainty.flyweight=true}.
+     */
+    public static void setFlyweight(boolean flyweight) {
+        UncertaintyReactionsHelper.flyweight = flyweight;
+    }
+
     /**
      * Creates and adds Uncertainty instances for referenced components if they do
      * not already exist.
-     * For each EObject in correspondingReferenceList, if no matching Uncertainty
-     * exists in the repository, a new Uncertainty (copied from sourceUncertainty)
+     * For each EObject in correspondingReferenceList, if no equivalent Uncertainty
+     * (see {@link UncertaintySignature}) exists in the repository, a new Uncertainty (copied from sourceUncertainty,
+     * as a flyweight in flyweight mode, see {@link #copyUncertainty(Uncertainty, UncertaintyAnnotationRepository)})
      * is created and linked to the component.
      *
      * @param uncertaintyRepo       The UncertaintyAnnotationRepository to add
@@ -40,49 +82,263 @@ public class UncertaintyReactionsHelper {
 
         List<Uncertainty> createdUncertainties = new ArrayList<>();
 
-        List<UncertaintyLocation> existingUncertaintyLocations = uncertaintyRepo.getUncertainties().stream()
-                .map(Uncertainty::getUncertaintyLocation)
-                .toList();
+        UncertaintyIndex index = UncertaintyIndex.getIndex(uncertaintyRepo);
+        UncertaintySignature signature = UncertaintySignature.of(sourceUncertainty);
 
         for (EObject correspondingElement : correspondingElements) {
-            List<UncertaintyLocation> matchingLocations = existingUncertaintyLocations.stream()
-                    .filter(loc -> loc.getReferencedComponents().contains(correspondingElement))
-                    .toList();
-
-            if (matchingLocations.isEmpty()) {
-                Uncertainty newUncertainty = deepCopyUncertainty(sourceUncertainty);
+            if (!index.hasEquivalentUncertainty(correspondingElement, signature)) {
+                Uncertainty newUncertainty = copyUncertainty(sourceUncertainty, uncertaintyRepo);
                 newUncertainty.getUncertaintyLocation().getReferencedComponents().add(correspondingElement);
                 uncertaintyRepo.getUncertainties().add(newUncertainty);
                 createdUncertainties.add(newUncertainty);
+            }
+        }
+
+        return createdUncertainties;
+    }
+
+    /**
+     * Checks whether the deletion of an uncertainty is prohibited: its delete
+     * mode is {@link OnDeleteMode#RESTRICT} and at least one of its
+     * corresponding uncertainties was not set manually.
+     *
+     * @param uncertainty                The uncertainty to delete.
+     * @param correspondingUncertainties The uncertainties corresponding to it.
+     * @return Whether the uncertainty must not be deleted.
+     */
+    public static boolean isDeletionRestricted(Uncertainty uncertainty,
+            Collection<Uncertainty> correspondingUncertainties) {
+        return uncertainty.getOnDelete() == OnDeleteMode.RESTRICT
+                && correspondingUncertainties.stream().anyMatch(u -> !u.isSetManually());
+    }
+
+    /**
+     * Collects the uncertainties deleted in cascade with a source uncertainty:
+     * its corresponding uncertainties that were not set manually and,
+     * transitively, the uncertainties derived from them that were not set
+     * manually (see {@link UncertaintyIndex#getCopies(Uncertainty)}). Collecting the closure
+     * first allows removing it in one pass with
+     * {@link #removeUncertainties(Collection)}, instead of one cascade step per
+     * deleted uncertainty.
+     *
+     * @param correspondingUncertainties The uncertainties corresponding to the
+     *                                   source uncertainty.
+     * @return The uncertainties to delete, in the order they were found.
+     */
+    public static Set<Uncertainty> collectCascade(Collection<Uncertainty> correspondingUncertainties) {
+        Set<Uncertainty> cascade = new LinkedHashSet<>();
+        Deque<Uncertainty> pending = new ArrayDeque<>(correspondingUncertainties);
+        while (!pending.isEmpty()) {
+            Uncertainty uncertainty = pending.pop();
+            if (uncertainty.isSetManually() || !cascade.add(uncertainty)) {
                 continue;
             }
-            boolean existingMatch = false;
-            for (UncertaintyLocation loc : matchingLocations) {
-                existingMatch = compareUncertainties(sourceUncertainty, (Uncertainty) loc.eContainer());
-                if (existingMatch) {
-                    break;
-                }
+            if (uncertainty.eContainer() instanceof UncertaintyAnnotationRepository repository) {
+                pending.addAll(UncertaintyIndex.getIndex(repository).getCopies(uncertainty));
             }
-            if (!existingMatch) {
-                Uncertainty newUncertainty = deepCopyUncertainty(sourceUncertainty);
-                newUncertainty.getUncertaintyLocation().getReferencedComponents().add(correspondingElement);
-                uncertaintyRepo.getUncertainties().add(newUncertainty);
-                createdUncertainties.add(newUncertainty);
+        }
+        return cascade;
+    }
+
+    /**
+     * Removes the given uncertainties from their repositories with one removal
+     * per repository. Uncertainties that are no longer contained in a repository
+     * are skipped. The copies that are kept are detached from the removed
+     * uncertainties they were derived from.
+     *
+     * @param uncertainties The uncertainties to remove.
+     * @return The number of removed uncertainties.
+     */
+    public static int removeUncertainties(Collection<Uncertainty> uncertainties) {
+        Map<UncertaintyAnnotationRepository, Set<Uncertainty>> byRepository = new LinkedHashMap<>();
+        for (Uncertainty uncertainty : uncertainties) {
+            if (uncertainty.eContainer() instanceof UncertaintyAnnotationRepository repository) {
+                byRepository.computeIfAbsent(repository, r -> new LinkedHashSet<>()).add(uncertainty);
             }
         }
+        int removed = 0;
+        for (Map.Entry<UncertaintyAnnotationRepository, Set<Uncertainty>> entry : byRepository.entrySet()) {
+            UncertaintyIndex index = UncertaintyIndex.getIndex(entry.getKey());
+            for (Uncertainty uncertainty : entry.getValue()) {
+                List<Uncertainty> keptCopies = new ArrayList<>(index.getCopies(uncertainty));
+                keptCopies.removeAll(entry.getValue());
+                detachCopies(uncertainty, keptCopies);
+            }
+            entry.getKey().getUncertainties().removeAll(entry.getValue());
+            removed += entry.getValue().size();
+        }
+        return removed;
+    }
 
-        return createdUncertainties;
+    /**
+     * Removes the cascade of a deleted uncertainty like
+     * {@link #removeUncertainties(Collection)} and remembers the removed
+     * uncertainties, so that the reactions to their deletion are skipped, see
+     * {@link #isRemovedInCascade(Uncertainty)}. The correspondences of the
+     * cascade have to be removed by the caller.
+     *
+     * @param cascade The uncertainties to remove, see
+     *                {@link #collectCascade(Collection)}.
+     * @return The number of removed uncertainties.
+     */
+    public static int removeCascade(Collection<Uncertainty> cascade) {
+        Set<Uncertainty> removedInCascade = REMOVED_IN_CASCADE.get();
+        for (Uncertainty uncertainty : cascade) {
+            if (uncertainty.eContainer() != null) {
+                removedInCascade.add(uncertainty);
+            }
+        }
+        return removeUncertainties(cascade);
+    }
+
+    /**
+     * Checks whether the deleted uncertainty was removed by
+     * {@link #removeCascade(Collection)} on this thread. The cascade already
+     * handled its copies and correspondences, so the reaction to its deletion
+     * has nothing left to do. Every uncertainty is reported once, by the
+     * reaction to its deletion.
+     *
+     * @param deleted The deleted uncertainty.
+     * @return Whether the reaction to the deletion is skipped.
+     */
+    public static boolean isRemovedInCascade(Uncertainty deleted) {
+        if (!REMOVED_IN_CASCADE.get().remove(deleted)) {
+            return false;
+        }
+        SKIPPED_DELETIONS.increment();
+        return true;
+    }
+
+    /**
+     * @return the number of deletion reactions skipped since the last reset
+     *         because the cascade of another deletion removed the uncertainty
+     */
+    public static long getSkippedDeletions() {
+        return SKIPPED_DELETIONS.sum();
+    }
+
+    public static void resetSkippedDeletions() {
+        SKIPPED_DELETIONS.reset();
+    }
+
+    /**
+     * Deletes a batch of source uncertainties together with the uncertainties
+     * deleted in cascade with them, in one pass. The delete mode of each source
+     * is applied as by the uncertainty2uncertainty reactions, with the copies
+     * of a source taken as its corresponding uncertainties: CASCADE deletes the
+     * copies that were not set manually, NO_ACTION deletes only the source, and
+     * RESTRICT keeps a source with copies that were not set manually. The
+     * reactions to the deletions then only remove the remaining
+     * correspondences.
+     *
+     * @param sources The uncertainties to delete.
+     * @return The deleted uncertainties.
+     */
+    public static Set<Uncertainty> deleteCascading(Collection<Uncertainty> sources) {
+        Set<Uncertainty> deleted = new LinkedHashSet<>();
+        List<Uncertainty> cascading = new ArrayList<>();
+        for (Uncertainty source : sources) {
+            if (!(source.eContainer() instanceof UncertaintyAnnotationRepository repository)) {
+                continue;
+            }
+            List<Uncertainty> copies = UncertaintyIndex.getIndex(repository).getCopies(source);
+            if (source.getOnDelete() == OnDeleteMode.CASCADE) {
+                cascading.addAll(copies);
+            } else if (isDeletionRestricted(source, copies)) {
+                continue;
+            }
+            deleted.add(source);
+        }
+        deleted.addAll(collectCascade(cascading));
+        removeUncertainties(deleted);
+        return deleted;
+    }
+
+    /**
+     * Unsets the {@link Uncertainty#getDerivedFrom() derivation link} of the
+     * given uncertainties that were derived from a deleted uncertainty and are
+     * kept, so that they do not refer to an uncertainty outside of the model.
+     * Uncertainties that are no longer contained in a repository are skipped.
+     *
+     * @param deleted       The deleted uncertainty.
+     * @param uncertainties The uncertainties to detach, usually the
+     *                      uncertainties corresponding to the deleted one.
+     * @return The number of detached uncertainties.
+     */
+    public static int detachCopies(Uncertainty deleted, Collection<Uncertainty> uncertainties) {
+        int detached = 0;
+        for (Uncertainty uncertainty : uncertainties) {
+            if (uncertainty.getDerivedFrom() == deleted && uncertainty.eContainer() != null) {
+                uncertainty.setDerivedFrom(null);
+                detached++;
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * Copies an uncertainty for a corresponding component, as a flyweight in
+     * flyweight mode and as a deep copy otherwise. The copy gets a new id and
+     * refers to the original as the uncertainty it is derived from, which
+     * {@link UncertaintyIndex#getCopies(Uncertainty)} uses to find the copies
+     * of an uncertainty.
+     *
+     * @param original   The uncertainty to copy.
+     * @param repository The repository the copy will be added to.
+     * @return The copy of the uncertainty.
+     */
+    public static Uncertainty copyUncertainty(Uncertainty original, UncertaintyAnnotationRepository repository) {
+        Uncertainty copy = flyweight ? UncertaintyDescriptors.createFlyweight(original, repository)
+                : deepCopyUncertainty(original);
+        copy.setDerivedFrom(original);
+        return copy;
+    }
+
+    /**
+     * Propagates a single attribute change of an uncertainty, or of one of its
+     * contained parts such as the effect or of a part of its descriptor, to the
+     * corresponding uncertainties.
+     * Only the changed attribute is written, and only to the corresponding
+     * uncertainties that do not hold the new value yet; the writes are applied
+     * in one batch. Flyweights are switched to the descriptor holding the new
+     * value.
+     *
+     * @param changedElement             The uncertainty or contained part whose
+     *                                   attribute changed.
+     * @param attribute                  The changed attribute.
+     * @param correspondingUncertainties The uncertainties to update.
+     * @return The number of corresponding uncertainties written to.
+     */
+    public static int propagateAttributeChange(EObject changedElement, EAttribute attribute,
+            List<Uncertainty> correspondingUncertainties) {
+        EReference part = changedElement instanceof Uncertainty ? null
+                : (EReference) UncertaintyPackage.Literals.UNCERTAINTY
+                        .getEStructuralFeature(changedElement.eContainmentFeature().getName());
+        Object value = changedElement.eGet(attribute);
+        List<EObject> targets = new ArrayList<>(correspondingUncertainties.size());
+        int written = 0;
+        for (Uncertainty correspondingUncertainty : correspondingUncertainties) {
+            EObject target = part == null ? correspondingUncertainty : (EObject) correspondingUncertainty.eGet(part);
+            if (target == null && correspondingUncertainty.getDescriptor() != null) {
+                written += UncertaintyDescriptors.setPartAttribute(correspondingUncertainty, part, attribute, value)
+                        ? 1 : 0;
+            } else {
+                targets.add(target);
+            }
+        }
+        return written + WriteGuard.setAll(targets, attribute, value);
     }
 
     /**
      * Compares two Uncertainty objects for equality based on their attributes and
-     * nested elements.
+     * nested elements. This is the reference semantics of
+     * {@link UncertaintySignature}, which is used for the lookups instead.
      *
      * @param u1 The first Uncertainty to compare.
      * @param u2 The second Uncertainty to compare.
      * @return true if the Uncertainties are considered equal, false otherwise.
      */
-    private static boolean compareUncertainties(Uncertainty u1, Uncertainty u2) {
+    public static boolean compareUncertainties(Uncertainty u1, Uncertainty u2) {
         if (u1.getKind() != u2.getKind()) {
             return false;
         }
@@ -95,8 +351,8 @@ public class UncertaintyReactionsHelper {
         if (u1.getOnDelete() != u2.getOnDelete()) {
             return false;
         }
-        Effect e1 = u1.getEffect();
-        Effect e2 = u2.getEffect();
+        Effect e1 = UncertaintyDescriptors.getEffect(u1);
+        Effect e2 = UncertaintyDescriptors.getEffect(u2);
         if (e1 == null || e2 == null) {
             if (e1 != e2) { // one is null, the other is not
                 return false;
@@ -109,8 +365,8 @@ public class UncertaintyReactionsHelper {
                 return false;
             }
         }
-        Pattern p1 = u1.getPattern();
-        Pattern p2 = u2.getPattern();
+        Pattern p1 = UncertaintyDescriptors.getPattern(u1);
+        Pattern p2 = UncertaintyDescriptors.getPattern(u2);
         if (p1 == null || p2 == null) {
             if (p1 != p2) { // one is null, the other is not
                 return false;
@@ -120,8 +376,8 @@ public class UncertaintyReactionsHelper {
                 return false;
             }
         }
-        UncertaintyPerspective up1 = u1.getPerspective();
-        UncertaintyPerspective up2 = u2.getPerspective();
+        UncertaintyPerspective up1 = UncertaintyDescriptors.getPerspective(u1);
+        UncertaintyPerspective up2 = UncertaintyDescriptors.getPerspective(u2);
         if (up1 == null || up2 == null) {
             if (up1 != up2) { // one is null, the other is not
                 return false;
@@ -155,19 +411,19 @@ public class UncertaintyReactionsHelper {
         copyLocation.setSpecification(originalLocation.getSpecification());
         copy.setUncertaintyLocation(copyLocation);
         // Deep copy of Effect
-        Effect originalEffect = original.getEffect();
+        Effect originalEffect = UncertaintyDescriptors.getEffect(original);
         Effect copyEffect = UncertaintyFactory.eINSTANCE.createEffect();
         copyEffect.setSpecification(originalEffect.getSpecification());
         copyEffect.setRepresentation(originalEffect.getRepresentation());
         copyEffect.setStochasticity(originalEffect.getStochasticity());
         copy.setEffect(copyEffect);
         // Deep copy of Pattern
-        Pattern originalPattern = original.getPattern();
+        Pattern originalPattern = UncertaintyDescriptors.getPattern(original);
         Pattern copyPattern = UncertaintyFactory.eINSTANCE.createPattern();
         copyPattern.setPatternType(originalPattern.getPatternType());
         copy.setPattern(copyPattern);
         // Deep copy of UncertaintyPerspective
-        UncertaintyPerspective originalPerspective = original.getPerspective();
+        UncertaintyPerspective originalPerspective = UncertaintyDescriptors.getPerspective(original);
         UncertaintyPerspective copyPerspective = UncertaintyFactory.eINSTANCE.createUncertaintyPerspective();
         copyPerspective.setPerspective(originalPerspective.getPerspective());
         copyPerspective.setSpecification(originalPerspective.getSpecification());
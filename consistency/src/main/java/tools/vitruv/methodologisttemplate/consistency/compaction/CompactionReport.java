@@ -0,0 +1,38 @@
+package tools.vitruv.methodologisttemplate.consistency.compaction;
+
+/**
+ * What a compaction step or pass of an {@link UncertaintyCompactor} reclaimed.
+ * The reclaimed memory is an estimate from the number and kind of the removed
+ * objects, assuming compressed references; it is meant for comparing
+ * compactions, not as an exact heap measurement.
+ *
+ * @param scanned              the number of scanned uncertainties
+ * @param removedUncertainties the number of removed orphaned or superseded
+ *                             uncertainties
+ * @param prunedReferences     the number of dangling references removed from
+ *                             the locations of remaining uncertainties
+ * @param removedDescriptors   the number of removed unused descriptors
+ * @param reclaimedObjects     the number of removed objects, including the
+ *                             contents of removed uncertainties and descriptors
+ * @param reclaimedBytes       the estimated memory of the removed objects and
+ *                             references
+ * @param passCompleted        whether the step completed a pass over the
+ *                             repository
+ */
+public record CompactionReport(int scanned, int removedUncertainties, int prunedReferences, int removedDescriptors,
+        int reclaimedObjects, long reclaimedBytes, boolean passCompleted) {
+
+    public static final CompactionReport EMPTY = new CompactionReport(0, 0, 0, 0, 0, 0, false);
+
+    /**
+     * @param other a later report
+     * @return the sum of both reports, which completed a pass if the later one
+     *         did
+     */
+    public CompactionReport plus(CompactionReport other) {
+        return new CompactionReport(scanned + other.scanned, removedUncertainties + other.removedUncertainties,
+                prunedReferences + other.prunedReferences, removedDescriptors + other.removedDescriptors,
+                reclaimedObjects + other.reclaimedObjects, reclaimedBytes + other.reclaimedBytes,
+                other.passCompleted);
+    }
+}
@@ -0,0 +1,266 @@
+package tools.vitruv.methodologisttemplate.consistency.compaction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import tools.vitruv.methodologisttemplate.consistency.ClampingForceHelper;
+import tools.vitruv.methodologisttemplate.consistency.DerivedUncertaintyHelper;
+import tools.vitruv.methodologisttemplate.consistency.ThroatWidthReactionsHelper;
+import tools.vitruv.methodologisttemplate.consistency.UncertaintyReactionsHelper;
+import tools.vitruv.methodologisttemplate.consistency.descriptor.UncertaintyDescriptors;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyDescriptor;
+import uncertainty.UncertaintyLocation;
+import uncertainty.UncertaintyLocationType;
+
+/**
+ * Removes uncertainties that no longer annotate anything from an
+ * {@link UncertaintyAnnotationRepository}, so that the helpers do not have to
+ * scan past them:
+ * <ul>
+ * <li>orphans, whose referenced components were all removed from the model,
+ * and derived uncertainties without any referenced component,</li>
+ * <li>superseded derived uncertainties, i.e. duplicates of the derived
+ * uncertainty of an element and derived parameter (see
+ * {@link DerivedUncertaintyHelper}),</li>
+ * <li>descriptors no uncertainty references anymore, at the end of each
+ * pass.</li>
+ * </ul>
+ * Dangling references of uncertainties that still reference other components
+ * are removed from their locations. Manually set uncertainties without any
+ * referenced component are kept, as they may not have been placed yet.
+ *
+ * The compactor works incrementally: each {@link #compactStep(int)} scans a
+ * bounded number of uncertainties from where the previous step stopped, so it
+ * can run between commits instead of on the commit path, either on demand or
+ * on a schedule with {@link #schedule}. The compactor changes the model and
+ * must only be used on the thread that owns the repository.
+ */
+public final class UncertaintyCompactor {
+
+    /**
+     * The number of uncertainties scanned per step by default.
+     */
+    public static final int DEFAULT_BUDGET = 1000;
+
+    // Estimated sizes for the reclaimed memory, assuming compressed references
+    private static final long OBJECT_BYTES = 40;
+    private static final long REFERENCE_BYTES = 4;
+    private static final long LIST_BYTES = 24;
+    private static final long STRING_BYTES = 40;
+
+    private final UncertaintyAnnotationRepository repository;
+    private final Set<String> derivedParameters;
+    private final List<Consumer<CompactionReport>> listeners = new CopyOnWriteArrayList<>();
+
+    private int cursor;
+    private volatile CompactionReport total = CompactionReport.EMPTY;
+
+    /**
+     * Creates a compactor for the derived clamping force and throat width
+     * uncertainties.
+     *
+     * @param repository the repository to compact
+     */
+    public UncertaintyCompactor(UncertaintyAnnotationRepository repository) {
+        this(repository, Set.of(ClampingForceHelper.CLAMPING_FORCE_PARAMETER,
+                ThroatWidthReactionsHelper.THROAT_WIDTH_PARAMETER));
+    }
+
+    /**
+     * @param repository        the repository to compact
+     * @param derivedParameters the parameter locations of derived uncertainties
+     */
+    public UncertaintyCompactor(UncertaintyAnnotationRepository repository, Set<String> derivedParameters) {
+        this.repository = repository;
+        this.derivedParameters = Set.copyOf(derivedParameters);
+    }
+
+    /**
+     * Registers a listener that receives the report of every step.
+     *
+     * @param listener the listener
+     */
+    public void addListener(Consumer<CompactionReport> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<CompactionReport> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return the sum of the reports of all steps of this compactor
+     */
+    public CompactionReport getTotal() {
+        return total;
+    }
+
+    /**
+     * Compacts the whole repository in one pass, on demand.
+     *
+     * @return the report of the pass
+     */
+    public CompactionReport compact() {
+        cursor = 0;
+        CompactionReport report = CompactionReport.EMPTY;
+        do {
+            report = report.plus(compactStep(DEFAULT_BUDGET));
+        } while (!report.passCompleted());
+        return report;
+    }
+
+    /**
+     * Scans the next uncertainties of the repository and removes the orphaned
+     * and superseded ones. After the last uncertainty, the unused descriptors
+     * are removed and the next step starts a new pass.
+     *
+     * @param budget the maximum number of uncertainties to scan
+     * @return the report of the step
+     */
+    public CompactionReport compactStep(int budget) {
+        List<Uncertainty> uncertainties = repository.getUncertainties();
+        if (cursor >= uncertainties.size()) {
+            cursor = 0;
+        }
+        int end = Math.min(uncertainties.size(), cursor + Math.max(1, budget));
+        int scanned = end - cursor;
+        Set<Uncertainty> removable = new LinkedHashSet<>();
+        int prunedReferences = 0;
+        for (int i = cursor; i < end; i++) {
+            Uncertainty uncertainty = uncertainties.get(i);
+            UncertaintyLocation location = uncertainty.getUncertaintyLocation();
+            List<EObject> components = location == null ? List.of() : location.getReferencedComponents();
+            List<EObject> dangling = components.stream().filter(this::isDangling).toList();
+            if (components.isEmpty() ? !uncertainty.isSetManually() : dangling.size() == components.size()) {
+                removable.add(uncertainty);
+            } else if (!dangling.isEmpty()) {
+                location.getReferencedComponents().removeAll(dangling);
+                prunedReferences += dangling.size();
+            } else if (isSuperseded(uncertainty)) {
+                removable.add(uncertainty);
+            }
+        }
+
+        int reclaimedObjects = 0;
+        long reclaimedBytes = prunedReferences * REFERENCE_BYTES;
+        for (Uncertainty uncertainty : removable) {
+            reclaimedObjects += countObjects(uncertainty);
+            reclaimedBytes += estimateBytes(uncertainty);
+        }
+        UncertaintyReactionsHelper.removeUncertainties(removable);
+        cursor = end - removable.size();
+
+        boolean passCompleted = cursor >= uncertainties.size();
+        int removedDescriptors = 0;
+        if (passCompleted) {
+            List<UncertaintyDescriptor> descriptors = new ArrayList<>(repository.getDescriptors());
+            removedDescriptors = UncertaintyDescriptors.removeUnused(repository);
+            for (UncertaintyDescriptor descriptor : descriptors) {
+                if (descriptor.eContainer() != repository) {
+                    reclaimedObjects += countObjects(descriptor);
+                    reclaimedBytes += estimateBytes(descriptor);
+                }
+            }
+            cursor = 0;
+        }
+
+        CompactionReport report = new CompactionReport(scanned, removable.size(), prunedReferences,
+                removedDescriptors, reclaimedObjects, reclaimedBytes, passCompleted);
+        total = total.plus(report);
+        listeners.forEach(listener -> listener.accept(report));
+        return report;
+    }
+
+    /**
+     * Runs a compaction step periodically. The steps are handed to the given
+     * executor, which has to run them on the thread owning the repository,
+     * e.g. between commits of the view containing it, and may commit the view
+     * afterwards.
+     *
+     * @param scheduler     the scheduler triggering the steps
+     * @param period        the delay between two steps
+     * @param budget        the number of uncertainties scanned per step
+     * @param modelExecutor runs the steps on the thread owning the repository
+     * @return the scheduled task, cancel it to stop the compaction
+     */
+    public ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, Duration period, int budget,
+            Executor modelExecutor) {
+        long millis = period.toMillis();
+        return scheduler.scheduleWithFixedDelay(() -> modelExecutor.execute(() -> compactStep(budget)), millis,
+                millis, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isSuperseded(Uncertainty uncertainty) {
+        UncertaintyLocation location = uncertainty.getUncertaintyLocation();
+        if (uncertainty.isSetManually() || location.getLocation() != UncertaintyLocationType.PARAMETER
+                || !derivedParameters.contains(location.getParameterLocation())) {
+            return false;
+        }
+        for (EObject component : location.getReferencedComponents()) {
+            if (DerivedUncertaintyHelper.findDerivedUncertainty(repository, component,
+                    location.getParameterLocation()) != uncertainty) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Removed components are neither contained in another element nor in a
+    // resource; unresolvable proxies are dangling as well
+    private boolean isDangling(EObject component) {
+        EObject resolved = component.eIsProxy() ? EcoreUtil.resolve(component, repository) : component;
+        return resolved.eIsProxy() || resolved.eContainer() == null && resolved.eResource() == null;
+    }
+
+    private static int countObjects(EObject object) {
+        int count = 1;
+        for (TreeIterator<EObject> contents = object.eAllContents(); contents.hasNext(); contents.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    private static long estimateBytes(EObject object) {
+        long bytes = shallowBytes(object);
+        for (TreeIterator<EObject> contents = object.eAllContents(); contents.hasNext();) {
+            bytes += shallowBytes(contents.next());
+        }
+        return bytes;
+    }
+
+    private static long shallowBytes(EObject object) {
+        long bytes = OBJECT_BYTES;
+        for (EStructuralFeature feature : object.eClass().getEAllStructuralFeatures()) {
+            if (feature.isDerived() || feature.isTransient()) {
+                continue;
+            }
+            bytes += REFERENCE_BYTES;
+            if (!object.eIsSet(feature)) {
+                continue;
+            }
+            Object value = object.eGet(feature, false);
+            if (feature.isMany()) {
+                bytes += LIST_BYTES + REFERENCE_BYTES * ((List<?>) value).size();
+            } else if (value instanceof String string) {
+                bytes += STRING_BYTES + string.length();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,340 @@
+package tools.vitruv.methodologisttemplate.consistency.descriptor;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import tools.vitruv.methodologisttemplate.consistency.guard.WriteGuard;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintyIndex;
+import uncertainty.Effect;
+import uncertainty.Pattern;
+import uncertainty.PatternType;
+import uncertainty.StochasticityEffectType;
+import uncertainty.StructuralEffectTypeRepresentation;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyDescriptor;
+import uncertainty.UncertaintyFactory;
+import uncertainty.UncertaintyLocation;
+import uncertainty.UncertaintyPackage;
+import uncertainty.UncertaintyPerspective;
+import uncertainty.UncertaintyPerspectiveType;
+
+/**
+ * Flyweight uncertainties. A flyweight only holds its own
+ * {@link UncertaintyLocation} and the classification attributes; its effect,
+ * pattern and perspective are taken from a shared {@link UncertaintyDescriptor}
+ * contained in the repository. Descriptors are interned per repository, so all
+ * flyweights with equal effect, pattern and perspective data reference the
+ * same descriptor.
+ *
+ * The helpers never change an interned descriptor: changing a part of a
+ * flyweight replaces its descriptor reference ({@link #setPartAttribute}), and
+ * giving it parts of its own, e.g. to attach an expression, copies the
+ * descriptor parts into the uncertainty ({@link #materialize}). A part of a
+ * descriptor edited in a view changes all flyweights sharing it; the reactions
+ * report such edits with {@link #descriptorChanged}, which re-keys the
+ * descriptor and returns the flyweights to propagate the edit from. Interning
+ * also detects descriptors edited otherwise and no longer hands them out for
+ * their former data. Readers use {@link #getEffect}, {@link #getPattern} and
+ * {@link #getPerspective}, which work for flyweights and regular uncertainties
+ * alike.
+ */
+public final class UncertaintyDescriptors {
+
+    private UncertaintyDescriptors() {
+        // Utility class
+    }
+
+    /**
+     * The interned data of a descriptor.
+     */
+    private record Key(StructuralEffectTypeRepresentation representation, StochasticityEffectType stochasticity,
+            String effectSpecification, PatternType patternType, UncertaintyPerspectiveType perspective,
+            String perspectiveSpecification) {
+
+        static Key of(UncertaintyDescriptor descriptor) {
+            return of(descriptor.getEffect(), descriptor.getPattern(), descriptor.getPerspective());
+        }
+
+        static Key of(Effect effect, Pattern pattern, UncertaintyPerspective perspective) {
+            return new Key(effect == null ? null : effect.getRepresentation(),
+                    effect == null ? null : effect.getStochasticity(),
+                    effect == null ? null : effect.getSpecification(),
+                    pattern == null ? null : pattern.getPatternType(),
+                    perspective == null ? null : perspective.getPerspective(),
+                    perspective == null ? null : perspective.getSpecification());
+        }
+
+        Key with(EAttribute attribute, Object value) {
+            return new Key(
+                    attribute == UncertaintyPackage.Literals.EFFECT__REPRESENTATION
+                            ? (StructuralEffectTypeRepresentation) value : representation,
+                    attribute == UncertaintyPackage.Literals.EFFECT__STOCHASTICITY
+                            ? (StochasticityEffectType) value : stochasticity,
+                    attribute == UncertaintyPackage.Literals.EFFECT__SPECIFICATION
+                            ? (String) value : effectSpecification,
+                    attribute == UncertaintyPackage.Literals.PATTERN__PATTERN_TYPE
+                            ? (PatternType) value : patternType,
+                    attribute == UncertaintyPackage.Literals.UNCERTAINTY_PERSPECTIVE__PERSPECTIVE
+                            ? (UncertaintyPerspectiveType) value : perspective,
+                    attribute == UncertaintyPackage.Literals.UNCERTAINTY_PERSPECTIVE__SPECIFICATION
+                            ? (String) value : perspectiveSpecification);
+        }
+    }
+
+    /**
+     * @return the own effect of the uncertainty or the effect of its descriptor
+     */
+    public static Effect getEffect(Uncertainty uncertainty) {
+        UncertaintyDescriptor descriptor = uncertainty.getDescriptor();
+        return uncertainty.getEffect() != null || descriptor == null ? uncertainty.getEffect()
+                : descriptor.getEffect();
+    }
+
+    /**
+     * @return the own pattern of the uncertainty or the pattern of its
+     *         descriptor
+     */
+    public static Pattern getPattern(Uncertainty uncertainty) {
+        UncertaintyDescriptor descriptor = uncertainty.getDescriptor();
+        return uncertainty.getPattern() != null || descriptor == null ? uncertainty.getPattern()
+                : descriptor.getPattern();
+    }
+
+    /**
+     * @return the own perspective of the uncertainty or the perspective of its
+     *         descriptor
+     */
+    public static UncertaintyPerspective getPerspective(Uncertainty uncertainty) {
+        UncertaintyDescriptor descriptor = uncertainty.getDescriptor();
+        return uncertainty.getPerspective() != null || descriptor == null ? uncertainty.getPerspective()
+                : descriptor.getPerspective();
+    }
+
+    /**
+     * Creates a flyweight copy of an uncertainty. The copy gets a new id and
+     * references the interned descriptor of the effect, pattern and
+     * perspective of the original; only the location is copied. As with a deep
+     * copy, the referenced components and the effect expression are not
+     * copied.
+     *
+     * @param original   the uncertainty to copy
+     * @param repository the repository the copy will be added to
+     * @return the flyweight copy
+     */
+    public static Uncertainty createFlyweight(Uncertainty original, UncertaintyAnnotationRepository repository) {
+        Uncertainty copy = UncertaintyFactory.eINSTANCE.createUncertainty();
+        copy.setId(EcoreUtil.generateUUID());
+        copy.setKind(original.getKind());
+        copy.setNature(original.getNature());
+        copy.setReducability(original.getReducability());
+        copy.setOnDelete(original.getOnDelete());
+        UncertaintyLocation originalLocation = original.getUncertaintyLocation();
+        UncertaintyLocation copyLocation = UncertaintyFactory.eINSTANCE.createUncertaintyLocation();
+        copyLocation.setLocation(originalLocation.getLocation());
+        copyLocation.setSpecification(originalLocation.getSpecification());
+        copy.setUncertaintyLocation(copyLocation);
+        copy.setDescriptor(intern(repository,
+                Key.of(getEffect(original), getPattern(original), getPerspective(original))));
+        return copy;
+    }
+
+    /**
+     * Sets an attribute of the effect, pattern or perspective of a flyweight by
+     * referencing the descriptor that holds the new value. Uncertainties with
+     * own parts are written directly.
+     *
+     * @param uncertainty the uncertainty to change
+     * @param part        the containment reference of the part, e.g.
+     *                    {@code UNCERTAINTY__EFFECT}
+     * @param attribute   the attribute of the part
+     * @param value       the new value
+     * @return whether the uncertainty changed
+     */
+    public static boolean setPartAttribute(Uncertainty uncertainty, EReference part, EAttribute attribute,
+            Object value) {
+        EObject ownPart = (EObject) uncertainty.eGet(part);
+        UncertaintyDescriptor descriptor = uncertainty.getDescriptor();
+        if (ownPart != null || descriptor == null) {
+            return ownPart != null && WriteGuard.set(ownPart, attribute, value);
+        }
+        if (descriptor.eGet(descriptor.eClass().getEStructuralFeature(part.getName())) == null) {
+            return false;
+        }
+        Key key = Key.of(descriptor);
+        UncertaintyAnnotationRepository repository = (UncertaintyAnnotationRepository) descriptor.eContainer();
+        return WriteGuard.set(uncertainty, UncertaintyPackage.Literals.UNCERTAINTY__DESCRIPTOR,
+                intern(repository, key.with(attribute, value)));
+    }
+
+    /**
+     * Handles an edit of a part of a descriptor, which changes all flyweights
+     * referencing it. The descriptor is interned under its new data; if an
+     * equal descriptor already exists, the flyweights are switched to it and
+     * the edited one is left to {@link #removeUnused}. The flyweights are
+     * looked up in the {@link UncertaintyIndex} of the repository.
+     *
+     * @param descriptor the descriptor whose effect, pattern or perspective
+     *                   changed
+     * @return the flyweights whose parts changed, in the order they were
+     *         indexed
+     */
+    public static List<Uncertainty> descriptorChanged(UncertaintyDescriptor descriptor) {
+        if (!(descriptor.eContainer() instanceof UncertaintyAnnotationRepository repository)) {
+            return List.of();
+        }
+        List<Uncertainty> flyweights = UncertaintyIndex.getIndex(repository).getFlyweights(descriptor);
+        DescriptorPool pool = getPool(repository);
+        pool.remove(descriptor);
+        Key key = Key.of(descriptor);
+        UncertaintyDescriptor equal = pool.descriptors.get(key);
+        if (equal != null && equal.eContainer() == repository && Key.of(equal).equals(key)) {
+            for (Uncertainty flyweight : flyweights) {
+                WriteGuard.set(flyweight, UncertaintyPackage.Literals.UNCERTAINTY__DESCRIPTOR, equal);
+            }
+        } else {
+            pool.put(key, descriptor);
+        }
+        return flyweights;
+    }
+
+    /**
+     * Gives a flyweight its own copies of the descriptor parts and removes the
+     * descriptor reference, so the parts can be changed for this uncertainty
+     * alone. Other uncertainties are returned unchanged.
+     *
+     * @param uncertainty the uncertainty
+     * @return the uncertainty
+     */
+    public static Uncertainty materialize(Uncertainty uncertainty) {
+        UncertaintyDescriptor descriptor = uncertainty.getDescriptor();
+        if (descriptor == null) {
+            return uncertainty;
+        }
+        if (uncertainty.getEffect() == null && descriptor.getEffect() != null) {
+            uncertainty.setEffect(EcoreUtil.copy(descriptor.getEffect()));
+        }
+        if (uncertainty.getPattern() == null && descriptor.getPattern() != null) {
+            uncertainty.setPattern(EcoreUtil.copy(descriptor.getPattern()));
+        }
+        if (uncertainty.getPerspective() == null && descriptor.getPerspective() != null) {
+            uncertainty.setPerspective(EcoreUtil.copy(descriptor.getPerspective()));
+        }
+        uncertainty.setDescriptor(null);
+        return uncertainty;
+    }
+
+    /**
+     * Removes the descriptors no uncertainty of the repository references
+     * anymore.
+     *
+     * @param repository the repository
+     * @return the number of removed descriptors
+     */
+    public static int removeUnused(UncertaintyAnnotationRepository repository) {
+        if (repository.getDescriptors().isEmpty()) {
+            return 0;
+        }
+        Set<UncertaintyDescriptor> used = repository.getUncertainties().stream()
+                .map(Uncertainty::getDescriptor)
+                .collect(Collectors.toSet());
+        List<UncertaintyDescriptor> unused = repository.getDescriptors().stream()
+                .filter(descriptor -> !used.contains(descriptor))
+                .toList();
+        if (!unused.isEmpty()) {
+            repository.getDescriptors().removeAll(unused);
+            DescriptorPool pool = getPool(repository);
+            unused.forEach(pool::remove);
+        }
+        return unused.size();
+    }
+
+    private static UncertaintyDescriptor intern(UncertaintyAnnotationRepository repository, Key key) {
+        DescriptorPool pool = getPool(repository);
+        UncertaintyDescriptor descriptor = pool.descriptors.get(key);
+        if (descriptor != null && descriptor.eContainer() == repository) {
+            Key actual = Key.of(descriptor);
+            if (actual.equals(key)) {
+                return descriptor;
+            }
+            // Edited without a reaction reporting it
+            pool.remove(descriptor);
+            if (!pool.descriptors.containsKey(actual)) {
+                pool.put(actual, descriptor);
+            }
+        }
+        descriptor = UncertaintyFactory.eINSTANCE.createUncertaintyDescriptor();
+        if (key.representation() != null || key.stochasticity() != null || key.effectSpecification() != null) {
+            Effect effect = UncertaintyFactory.eINSTANCE.createEffect();
+            effect.setRepresentation(key.representation());
+            effect.setStochasticity(key.stochasticity());
+            effect.setSpecification(key.effectSpecification());
+            descriptor.setEffect(effect);
+        }
+        if (key.patternType() != null) {
+            Pattern pattern = UncertaintyFactory.eINSTANCE.createPattern();
+            pattern.setPatternType(key.patternType());
+            descriptor.setPattern(pattern);
+        }
+        if (key.perspective() != null || key.perspectiveSpecification() != null) {
+            UncertaintyPerspective perspective = UncertaintyFactory.eINSTANCE.createUncertaintyPerspective();
+            perspective.setPerspective(key.perspective());
+            perspective.setSpecification(key.perspectiveSpecification());
+            descriptor.setPerspective(perspective);
+        }
+        repository.getDescriptors().add(descriptor);
+        pool.put(key, descriptor);
+        return descriptor;
+    }
+
+    private static DescriptorPool getPool(UncertaintyAnnotationRepository repository) {
+        for (Adapter adapter : repository.eAdapters()) {
+            if (adapter instanceof DescriptorPool pool) {
+                return pool;
+            }
+        }
+        DescriptorPool pool = new DescriptorPool();
+        for (UncertaintyDescriptor descriptor : repository.getDescriptors()) {
+            Key key = Key.of(descriptor);
+            if (!pool.descriptors.containsKey(key)) {
+                pool.put(key, descriptor);
+            }
+        }
+        repository.eAdapters().add(pool);
+        return pool;
+    }
+
+    private static final class DescriptorPool extends AdapterImpl {
+
+        private final Map<Key, UncertaintyDescriptor> descriptors = new HashMap<>();
+        private final Map<UncertaintyDescriptor, Key> keys = new IdentityHashMap<>();
+
+        void put(Key key, UncertaintyDescriptor descriptor) {
+            descriptors.put(key, descriptor);
+            keys.put(descriptor, key);
+        }
+
+        void remove(UncertaintyDescriptor descriptor) {
+            Key key = keys.remove(descriptor);
+            if (key != null) {
+                descriptors.remove(key, descriptor);
+            }
+        }
+
+        @Override
+        public boolean isAdapterForType(Object type) {
+            return type == DescriptorPool.class;
+        }
+    }
+}
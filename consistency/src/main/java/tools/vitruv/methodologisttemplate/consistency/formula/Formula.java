@@ -0,0 +1,117 @@
+package tools.vitruv.methodologisttemplate.consistency.formula;
+
+import java.util.List;
+
+import tools.vitruv.stoex.interpreter.StoexEvaluator;
+import tools.vitruv.stoex.stoex.Expression;
+
+/**
+ * A StoEx formula that has been parsed once into an immutable expression tree.
+ * The formula declares its parameters in a fixed order; values are bound
+ * positionally on every call, so a single instance can be shared between
+ * threads and reused for any number of evaluations.
+ *
+ * Instances are obtained from {@link FormulaRegistry#compile(String, String...)}.
+ */
+public final class Formula {
+
+    private final String source;
+    private final List<String> parameters;
+    private final FormulaNode root;
+
+    Formula(String source, List<String> parameters, FormulaNode root) {
+        this.source = source;
+        this.parameters = List.copyOf(parameters);
+        this.root = root;
+    }
+
+    /**
+     * @return the StoEx source of this formula
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the parameter names in binding order
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Evaluates the formula for deterministic parameter values.
+     *
+     * @param values the parameter values in the order of {@link #getParameters()}
+     * @return the value of the formula
+     */
+    public double evaluate(double... values) {
+        checkArity(values.length);
+        return root.evaluate(values);
+    }
+
+    /**
+     * Evaluates the formula for a block of parameter values, e.g. a block of
+     * Monte Carlo samples. Each column holds the values of one parameter.
+     *
+     * @param columns one array per parameter in the order of
+     *                {@link #getParameters()}, each with at least length values
+     * @param length  the number of values to evaluate
+     * @return a new array with the value of the formula for each index
+     */
+    public double[] evaluate(double[][] columns, int length) {
+        checkArity(columns.length);
+        double[] target = new double[length];
+        root.evaluate(columns, target, length);
+        return target;
+    }
+
+    /**
+     * Evaluates the formula together with its first and second partial
+     * derivative with respect to one parameter.
+     *
+     * @param parameter the index of the parameter to differentiate by
+     * @param values    the parameter values in the order of
+     *                  {@link #getParameters()}
+     * @return the value, the first and the second derivative in this order
+     */
+    public double[] differentiate(int parameter, double... values) {
+        checkArity(values.length);
+        return root.differentiate(values, parameter);
+    }
+
+    /**
+     * Evaluates the formula with the StoEx interpreter, which is required as
+     * soon as one of the parameters is bound to a stochastic {@link Expression}.
+     * Deterministic parameters may be passed as {@link Number}s. Every call
+     * binds the parameters on an interpreter without other bindings, see
+     * {@link FormulaRegistry#interpreter()}.
+     *
+     * @param values the parameter values in the order of {@link #getParameters()}
+     * @return the resulting StoEx expression
+     */
+    public Expression evaluateStochastic(Object... values) {
+        checkArity(values.length);
+        StoexEvaluator interpreter = FormulaRegistry.interpreter();
+        for (int i = 0; i < values.length; i++) {
+            interpreter.setVariable(parameters.get(i), values[i]);
+        }
+        return interpreter.evaluate(source);
+    }
+
+    FormulaNode getRoot() {
+        return root;
+    }
+
+    private void checkArity(int count) {
+        if (count != parameters.size()) {
+            throw new IllegalArgumentException(
+                    "Formula '" + source + "' expects " + parameters.size() + " values but got " + count);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
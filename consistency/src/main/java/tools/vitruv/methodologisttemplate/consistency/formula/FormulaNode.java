@@ -0,0 +1,198 @@
+package tools.vitruv.methodologisttemplate.consistency.formula;
+
+import java.util.Arrays;
+
+/**
+ * Node of the immutable expression tree of a compiled {@link Formula}.
+ * Variables are resolved to parameter indices at compile time.
+ */
+sealed interface FormulaNode {
+
+    double evaluate(double[] values);
+
+    /**
+     * Evaluates this node for a block of parameter values at once.
+     *
+     * @param columns one array of values per parameter
+     * @param target  receives the values of this node
+     * @param length  the number of values in the block
+     */
+    void evaluate(double[][] columns, double[] target, int length);
+
+    /**
+     * Evaluates this node together with its first and second partial derivative
+     * with respect to one parameter (forward mode differentiation).
+     *
+     * @param values    the parameter values
+     * @param parameter the index of the parameter to differentiate by
+     * @return the value, first and second derivative in this order
+     */
+    double[] differentiate(double[] values, int parameter);
+
+    record Constant(double value) implements FormulaNode {
+        @Override
+        public double evaluate(double[] values) {
+            return value;
+        }
+
+        @Override
+        public void evaluate(double[][] columns, double[] target, int length) {
+            Arrays.fill(target, 0, length, value);
+        }
+
+        @Override
+        public double[] differentiate(double[] values, int parameter) {
+            return new double[] { value, 0, 0 };
+        }
+    }
+
+    record Variable(String name, int index) implements FormulaNode {
+        @Override
+        public double evaluate(double[] values) {
+            return values[index];
+        }
+
+        @Override
+        public void evaluate(double[][] columns, double[] target, int length) {
+            System.arraycopy(columns[index], 0, target, 0, length);
+        }
+
+        @Override
+        public double[] differentiate(double[] values, int parameter) {
+            return new double[] { values[index], index == parameter ? 1 : 0, 0 };
+        }
+    }
+
+    record Negation(FormulaNode operand) implements FormulaNode {
+        @Override
+        public double evaluate(double[] values) {
+            return -operand.evaluate(values);
+        }
+
+        @Override
+        public void evaluate(double[][] columns, double[] target, int length) {
+            operand.evaluate(columns, target, length);
+            for (int i = 0; i < length; i++) {
+                target[i] = -target[i];
+            }
+        }
+
+        @Override
+        public double[] differentiate(double[] values, int parameter) {
+            double[] result = operand.differentiate(values, parameter);
+            result[0] = -result[0];
+            result[1] = -result[1];
+            result[2] = -result[2];
+            return result;
+        }
+    }
+
+    record Binary(Operator operator, FormulaNode left, FormulaNode right) implements FormulaNode {
+        @Override
+        public double evaluate(double[] values) {
+            return operator.apply(left.evaluate(values), right.evaluate(values));
+        }
+
+        @Override
+        public void evaluate(double[][] columns, double[] target, int length) {
+            left.evaluate(columns, target, length);
+            double[] operand = new double[length];
+            right.evaluate(columns, operand, length);
+            operator.apply(target, operand, length);
+        }
+
+        @Override
+        public double[] differentiate(double[] values, int parameter) {
+            return operator.differentiate(left.differentiate(values, parameter),
+                    right.differentiate(values, parameter));
+        }
+    }
+
+    enum Operator {
+        ADD('+'), SUBTRACT('-'), MULTIPLY('*'), DIVIDE('/'), POWER('^');
+
+        private final char symbol;
+
+        Operator(char symbol) {
+            this.symbol = symbol;
+        }
+
+        char getSymbol() {
+            return symbol;
+        }
+
+        void apply(double[] left, double[] right, int length) {
+            switch (this) {
+                case ADD -> {
+                    for (int i = 0; i < length; i++) {
+                        left[i] += right[i];
+                    }
+                }
+                case SUBTRACT -> {
+                    for (int i = 0; i < length; i++) {
+                        left[i] -= right[i];
+                    }
+                }
+                case MULTIPLY -> {
+                    for (int i = 0; i < length; i++) {
+                        left[i] *= right[i];
+                    }
+                }
+                case DIVIDE -> {
+                    for (int i = 0; i < length; i++) {
+                        left[i] /= right[i];
+                    }
+                }
+                case POWER -> {
+                    for (int i = 0; i < length; i++) {
+                        left[i] = Math.pow(left[i], right[i]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Combines value, first and second derivative of both operands.
+         */
+        double[] differentiate(double[] a, double[] b) {
+            return switch (this) {
+                case ADD -> new double[] { a[0] + b[0], a[1] + b[1], a[2] + b[2] };
+                case SUBTRACT -> new double[] { a[0] - b[0], a[1] - b[1], a[2] - b[2] };
+                case MULTIPLY -> new double[] { a[0] * b[0], a[1] * b[0] + a[0] * b[1],
+                        a[2] * b[0] + 2 * a[1] * b[1] + a[0] * b[2] };
+                case DIVIDE -> {
+                    // a / b = a * (1 / b)
+                    double[] reciprocal = { 1 / b[0], -b[1] / (b[0] * b[0]),
+                            2 * b[1] * b[1] / (b[0] * b[0] * b[0]) - b[2] / (b[0] * b[0]) };
+                    yield MULTIPLY.differentiate(a, reciprocal);
+                }
+                case POWER -> differentiatePower(a, b);
+            };
+        }
+
+        private static double[] differentiatePower(double[] a, double[] b) {
+            double value = Math.pow(a[0], b[0]);
+            if (b[1] == 0 && b[2] == 0) {
+                // Constant exponent, also valid for non-positive bases
+                double first = b[0] * Math.pow(a[0], b[0] - 1);
+                double second = b[0] * (b[0] - 1) * Math.pow(a[0], b[0] - 2);
+                return new double[] { value, first * a[1], second * a[1] * a[1] + first * a[2] };
+            }
+            // a ^ b = exp(b * ln(a))
+            double log = Math.log(a[0]);
+            double h1 = b[1] * log + b[0] * a[1] / a[0];
+            double h2 = b[2] * log + 2 * b[1] * a[1] / a[0] + b[0] * (a[2] / a[0] - a[1] * a[1] / (a[0] * a[0]));
+            return new double[] { value, value * h1, value * (h2 + h1 * h1) };
+        }
+
+        double apply(double left, double right) {
+            return switch (this) {
+                case ADD -> left + right;
+                case SUBTRACT -> left - right;
+                case MULTIPLY -> left * right;
+                case DIVIDE -> left / right;
+                case POWER -> Math.pow(left, right);
+            };
+        }
+    }
+}
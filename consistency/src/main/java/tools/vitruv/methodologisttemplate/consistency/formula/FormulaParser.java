@@ -0,0 +1,146 @@
+package tools.vitruv.methodologisttemplate.consistency.formula;
+
+import java.util.List;
+
+import tools.vitruv.methodologisttemplate.consistency.formula.FormulaNode.Binary;
+import tools.vitruv.methodologisttemplate.consistency.formula.FormulaNode.Constant;
+import tools.vitruv.methodologisttemplate.consistency.formula.FormulaNode.Negation;
+import tools.vitruv.methodologisttemplate.consistency.formula.FormulaNode.Operator;
+import tools.vitruv.methodologisttemplate.consistency.formula.FormulaNode.Variable;
+
+/**
+ * Recursive descent parser for the arithmetic subset of StoEx used by the
+ * derived parameters: numeric literals, parameters, the constant {@code PI},
+ * parentheses, unary minus and the binary operators {@code + - * / ^}.
+ * {@code ^} binds tighter than the multiplicative operators and is right
+ * associative.
+ */
+final class FormulaParser {
+
+    private final String source;
+    private final List<String> parameters;
+    private int position;
+
+    private FormulaParser(String source, List<String> parameters) {
+        this.source = source;
+        this.parameters = parameters;
+    }
+
+    static FormulaNode parse(String source, List<String> parameters) {
+        FormulaParser parser = new FormulaParser(source, parameters);
+        FormulaNode node = parser.parseAdditive();
+        parser.skipWhitespace();
+        if (parser.position < source.length()) {
+            throw parser.error("Unexpected '" + source.charAt(parser.position) + "'");
+        }
+        return node;
+    }
+
+    private FormulaNode parseAdditive() {
+        FormulaNode node = parseMultiplicative();
+        while (true) {
+            if (accept('+')) {
+                node = new Binary(Operator.ADD, node, parseMultiplicative());
+            } else if (accept('-')) {
+                node = new Binary(Operator.SUBTRACT, node, parseMultiplicative());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private FormulaNode parseMultiplicative() {
+        FormulaNode node = parseUnary();
+        while (true) {
+            if (accept('*')) {
+                node = new Binary(Operator.MULTIPLY, node, parseUnary());
+            } else if (accept('/')) {
+                node = new Binary(Operator.DIVIDE, node, parseUnary());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private FormulaNode parseUnary() {
+        if (accept('-')) {
+            return new Negation(parseUnary());
+        }
+        return parsePower();
+    }
+
+    private FormulaNode parsePower() {
+        FormulaNode base = parsePrimary();
+        if (accept('^')) {
+            return new Binary(Operator.POWER, base, parseUnary());
+        }
+        return base;
+    }
+
+    private FormulaNode parsePrimary() {
+        skipWhitespace();
+        if (accept('(')) {
+            FormulaNode node = parseAdditive();
+            if (!accept(')')) {
+                throw error("Expected ')'");
+            }
+            return node;
+        }
+        if (position >= source.length()) {
+            throw error("Unexpected end of formula");
+        }
+        char c = source.charAt(position);
+        if (Character.isDigit(c) || c == '.') {
+            return parseNumber();
+        }
+        if (Character.isLetter(c) || c == '_') {
+            return parseIdentifier();
+        }
+        throw error("Unexpected '" + c + "'");
+    }
+
+    private FormulaNode parseNumber() {
+        int start = position;
+        while (position < source.length()
+                && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+            position++;
+        }
+        return new Constant(Double.parseDouble(source.substring(start, position)));
+    }
+
+    private FormulaNode parseIdentifier() {
+        int start = position;
+        while (position < source.length()
+                && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '_')) {
+            position++;
+        }
+        String name = source.substring(start, position);
+        int index = parameters.indexOf(name);
+        if (index >= 0) {
+            return new Variable(name, index);
+        }
+        if (name.equals("PI")) {
+            return new Constant(Math.PI);
+        }
+        throw error("Undeclared parameter '" + name + "'");
+    }
+
+    private boolean accept(char expected) {
+        skipWhitespace();
+        if (position < source.length() && source.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + " in formula '" + source + "'");
+    }
+}
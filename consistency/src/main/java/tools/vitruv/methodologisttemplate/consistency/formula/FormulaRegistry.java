@@ -0,0 +1,50 @@
+package tools.vitruv.methodologisttemplate.consistency.formula;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import tools.vitruv.stoex.interpreter.StoexEvaluator;
+
+/**
+ * Registry of compiled {@link Formula}s. Each distinct combination of source
+ * and parameter list is parsed exactly once; later lookups return the cached,
+ * immutable instance. The registry is safe to use from multiple threads.
+ */
+public final class FormulaRegistry {
+
+    private record FormulaKey(String source, List<String> parameters) {
+    }
+
+    private static final Map<FormulaKey, Formula> FORMULAS = new ConcurrentHashMap<>();
+
+    private FormulaRegistry() {
+        // Utility class
+    }
+
+    /**
+     * Returns the compiled form of the given formula, parsing it on first use.
+     *
+     * @param source     the StoEx source of the formula
+     * @param parameters the names of the formula parameters in binding order
+     * @return the compiled formula
+     * @throws IllegalArgumentException if the source cannot be parsed or uses a
+     *                                  parameter that is not declared
+     */
+    public static Formula compile(String source, String... parameters) {
+        List<String> parameterList = List.of(parameters);
+        return FORMULAS.computeIfAbsent(new FormulaKey(source, parameterList),
+                key -> new Formula(source, parameterList, FormulaParser.parse(source, parameterList)));
+    }
+
+    /**
+     * Returns a new StoEx interpreter without variable bindings. Interpreters
+     * are not shared between evaluations, so that the bindings of a previous
+     * caller can neither leak into an evaluation nor keep its values alive.
+     *
+     * @return a new interpreter
+     */
+    public static StoexEvaluator interpreter() {
+        return new StoexEvaluator();
+    }
+}
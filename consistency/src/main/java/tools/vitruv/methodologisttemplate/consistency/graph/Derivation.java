@@ -0,0 +1,50 @@
+package tools.vitruv.methodologisttemplate.consistency.graph;
+
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * Declaration of a derived parameter: the target parameter is recomputed from
+ * the source parameters.
+ *
+ * @param target        the derived parameter
+ * @param sources       the parameters the target depends on
+ * @param resolver      finds the element holding the target parameter
+ * @param recomputation recomputes the target parameter
+ */
+public record Derivation(EStructuralFeature target, List<EStructuralFeature> sources, TargetResolver resolver,
+        Recomputation recomputation) {
+
+    public Derivation {
+        sources = List.copyOf(sources);
+    }
+
+    /**
+     * Finds the element whose derived parameter depends on a changed element.
+     */
+    @FunctionalInterface
+    public interface TargetResolver {
+        /**
+         * @param source  the changed element
+         * @param context the derivation context
+         * @return the element holding the derived parameter, or null if it cannot
+         *         be resolved
+         */
+        EObject resolve(EObject source, DerivationContext context);
+    }
+
+    /**
+     * Recomputes a derived parameter.
+     */
+    @FunctionalInterface
+    public interface Recomputation {
+        /**
+         * @param target  the element holding the derived parameter
+         * @param causes  the changes of the source parameters, at least one
+         * @param context the derivation context
+         */
+        void recompute(EObject target, List<ParameterChange> causes, DerivationContext context);
+    }
+}
@@ -0,0 +1,89 @@
+package tools.vitruv.methodologisttemplate.consistency.graph;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EObject;
+
+import uncertainty.UncertaintyAnnotationRepository;
+
+/**
+ * Information a {@link DerivationGraph} needs beyond the changed elements. The
+ * correspondence model is only accessible from reactions, so reactions hand
+ * the correspondences they retrieved to the graph. Derivations whose target
+ * cannot be resolved are left to the reaction of the next round trip.
+ */
+public final class DerivationContext {
+
+    private final UncertaintyAnnotationRepository uncertaintyRepository;
+    private final Map<EObject, EObject> correspondences = new HashMap<>();
+    private final Map<EObject, EObject> pairings = new HashMap<>();
+
+    /**
+     * @param uncertaintyRepository the repository containing the uncertainties,
+     *                              may be null
+     */
+    public DerivationContext(UncertaintyAnnotationRepository uncertaintyRepository) {
+        this.uncertaintyRepository = uncertaintyRepository;
+    }
+
+    /**
+     * Registers a correspondence the derivations may navigate.
+     *
+     * @param source the source element
+     * @param target the element corresponding to the source
+     * @return this context
+     */
+    public DerivationContext withCorrespondence(EObject source, EObject target) {
+        if (source != null && target != null) {
+            correspondences.put(source, target);
+            correspondences.put(target, source);
+        }
+        return this;
+    }
+
+    /**
+     * @param source the source element
+     * @param type   the type of the corresponding element
+     * @return the registered corresponding element, or null if there is none of
+     *         the given type
+     */
+    public <T extends EObject> T getCorrespondingElement(EObject source, Class<T> type) {
+        EObject target = correspondences.get(source);
+        return type.isInstance(target) ? type.cast(target) : null;
+    }
+
+    /**
+     * Registers an element the derivations of the source depend on without a
+     * direct correspondence, e.g. the CShape of the caliper paired with the
+     * brake disk of a circle.
+     *
+     * @param source the source element
+     * @param paired the element paired with the source
+     * @return this context
+     */
+    public DerivationContext withPairedElement(EObject source, EObject paired) {
+        if (source != null && paired != null) {
+            pairings.put(source, paired);
+        }
+        return this;
+    }
+
+    /**
+     * @param source the source element
+     * @param type   the type of the paired element
+     * @return the registered paired element, or null if there is none of the
+     *         given type
+     */
+    public <T extends EObject> T getPairedElement(EObject source, Class<T> type) {
+        EObject paired = pairings.get(source);
+        return type.isInstance(paired) ? type.cast(paired) : null;
+    }
+
+    /**
+     * @return the repository containing the uncertainties, may be null
+     */
+    public UncertaintyAnnotationRepository getUncertaintyRepository() {
+        return uncertaintyRepository;
+    }
+}
@@ -0,0 +1,238 @@
+package tools.vitruv.methodologisttemplate.consistency.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * Dependency graph of derived parameters. Derivations are registered
+ * declaratively with a {@link Builder}; after a parameter change only the
+ * derivations downstream of the changed parameter are recomputed, in
+ * topological order. Propagation stops at derived values that did not change.
+ *
+ * Values written by the graph are still propagated by Vitruv and come back as
+ * changes through the reactions. Such echoes are recognized and ignored if
+ * everything downstream of them has already been recomputed, so derivations
+ * that are not idempotent, like the incremental throat width, are applied only
+ * once. Echoes are only recognized within the change propagation that wrote
+ * them: the graph keeps them between {@link #propagationStarted()} and
+ * {@link #propagationFinished()}, which the
+ * {@link tools.vitruv.methodologisttemplate.consistency.lifecycle.PropagationLifecycle}
+ * calls for every propagation of a VSUM. A later change to the same value is
+ * therefore always propagated. Outside of a propagation no echoes are kept.
+ */
+public final class DerivationGraph {
+
+    private final List<Derivation> derivations;
+    private final Map<EStructuralFeature, List<Derivation>> downstream = new HashMap<>();
+    private final ThreadLocal<Map<EObject, Map<EStructuralFeature, Object>>> echoes = new ThreadLocal<>();
+
+    private DerivationGraph(List<Derivation> derivations) {
+        this.derivations = derivations;
+        Map<EStructuralFeature, List<Derivation>> dependents = new HashMap<>();
+        for (Derivation derivation : derivations) {
+            for (EStructuralFeature source : derivation.sources()) {
+                dependents.computeIfAbsent(source, s -> new ArrayList<>()).add(derivation);
+            }
+        }
+        Comparator<Derivation> topologicalOrder = Comparator.comparingInt(derivations::indexOf);
+        for (EStructuralFeature feature : dependents.keySet()) {
+            Set<Derivation> reachable = new HashSet<>();
+            Deque<EStructuralFeature> queue = new ArrayDeque<>(List.of(feature));
+            while (!queue.isEmpty()) {
+                for (Derivation dependent : dependents.getOrDefault(queue.poll(), List.of())) {
+                    if (reachable.add(dependent)) {
+                        queue.add(dependent.target());
+                    }
+                }
+            }
+            List<Derivation> ordered = new ArrayList<>(reachable);
+            ordered.sort(topologicalOrder);
+            downstream.put(feature, List.copyOf(ordered));
+        }
+    }
+
+    /**
+     * @return a builder for a new graph
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return all derivations in topological order
+     */
+    public List<Derivation> getDerivations() {
+        return derivations;
+    }
+
+    /**
+     * @param feature a parameter
+     * @return the derivations depending directly or transitively on the
+     *         parameter, in topological order
+     */
+    public List<Derivation> getDownstream(EStructuralFeature feature) {
+        return downstream.getOrDefault(feature, List.of());
+    }
+
+    /**
+     * Starts keeping the echoes of the values written on the current thread,
+     * discarding those of an earlier propagation.
+     */
+    public void propagationStarted() {
+        echoes.set(new HashMap<>());
+    }
+
+    /**
+     * Discards the echoes of the values written on the current thread that
+     * have not come back.
+     */
+    public void propagationFinished() {
+        echoes.remove();
+    }
+
+    /**
+     * Recomputes all parameters depending on the changed parameter.
+     *
+     * @param change  the parameter change
+     * @param context the derivation context
+     * @return the derived parameter changes in the order they were applied
+     */
+    public List<ParameterChange> propagate(ParameterChange change, DerivationContext context) {
+        if (consumeEcho(change)) {
+            return List.of();
+        }
+        Map<EStructuralFeature, List<ParameterChange>> changes = new HashMap<>();
+        changes.computeIfAbsent(change.feature(), f -> new ArrayList<>()).add(change);
+        List<ParameterChange> derived = new ArrayList<>();
+        // Changes with a downstream target that could not be resolved
+        Set<ParameterChange> incomplete = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (Derivation derivation : getDownstream(change.feature())) {
+            Map<EObject, List<ParameterChange>> causesByTarget = new LinkedHashMap<>();
+            for (EStructuralFeature source : derivation.sources()) {
+                for (ParameterChange cause : changes.getOrDefault(source, List.of())) {
+                    EObject target = derivation.resolver().resolve(cause.element(), context);
+                    if (target == null) {
+                        incomplete.add(cause);
+                    } else {
+                        causesByTarget.computeIfAbsent(target, t -> new ArrayList<>()).add(cause);
+                    }
+                }
+            }
+            causesByTarget.forEach((target, causes) -> {
+                Object oldValue = target.eGet(derivation.target());
+                derivation.recomputation().recompute(target, causes, context);
+                Object newValue = target.eGet(derivation.target());
+                if (!Objects.equals(oldValue, newValue)) {
+                    ParameterChange derivedChange = new ParameterChange(target, derivation.target(), oldValue,
+                            newValue);
+                    changes.computeIfAbsent(derivation.target(), f -> new ArrayList<>()).add(derivedChange);
+                    derived.add(derivedChange);
+                }
+            });
+        }
+
+        Map<EObject, Map<EStructuralFeature, Object>> pendingEchoes = echoes.get();
+        if (pendingEchoes == null) {
+            return derived;
+        }
+        for (ParameterChange derivedChange : derived) {
+            if (!incomplete.contains(derivedChange)) {
+                pendingEchoes.computeIfAbsent(derivedChange.element(), e -> new HashMap<>())
+                        .put(derivedChange.feature(), derivedChange.newValue());
+            }
+        }
+        return derived;
+    }
+
+    private boolean consumeEcho(ParameterChange change) {
+        Map<EObject, Map<EStructuralFeature, Object>> pendingEchoes = echoes.get();
+        Map<EStructuralFeature, Object> elementEchoes = pendingEchoes == null ? null
+                : pendingEchoes.get(change.element());
+        if (elementEchoes == null || !elementEchoes.containsKey(change.feature())) {
+            return false;
+        }
+        // Any change of the parameter invalidates a pending echo
+        Object echo = elementEchoes.remove(change.feature());
+        return Objects.equals(echo, change.newValue());
+    }
+
+    /**
+     * Builder for a {@link DerivationGraph}, sorts the derivations
+     * topologically.
+     */
+    public static final class Builder {
+
+        private final List<Derivation> derivations = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Registers a derived parameter.
+         *
+         * @param target        the derived parameter
+         * @param sources       the parameters the target depends on
+         * @param resolver      finds the element holding the target parameter
+         * @param recomputation recomputes the target parameter
+         * @return this builder
+         */
+        public Builder derive(EStructuralFeature target, List<EStructuralFeature> sources,
+                Derivation.TargetResolver resolver, Derivation.Recomputation recomputation) {
+            derivations.add(new Derivation(target, sources, resolver, recomputation));
+            return this;
+        }
+
+        /**
+         * @return the graph
+         * @throws IllegalStateException if the derivations are cyclic
+         */
+        public DerivationGraph build() {
+            // Kahn's algorithm over the parameters
+            Map<EStructuralFeature, Integer> inDegree = new HashMap<>();
+            Map<EStructuralFeature, List<EStructuralFeature>> edges = new HashMap<>();
+            Set<EStructuralFeature> features = new LinkedHashSet<>();
+            for (Derivation derivation : derivations) {
+                features.add(derivation.target());
+                features.addAll(derivation.sources());
+                for (EStructuralFeature source : derivation.sources()) {
+                    edges.computeIfAbsent(source, s -> new ArrayList<>()).add(derivation.target());
+                    inDegree.merge(derivation.target(), 1, Integer::sum);
+                }
+            }
+            Deque<EStructuralFeature> ready = new ArrayDeque<>();
+            features.stream().filter(f -> !inDegree.containsKey(f)).forEach(ready::add);
+            Map<EStructuralFeature, Integer> order = new HashMap<>();
+            while (!ready.isEmpty()) {
+                EStructuralFeature feature = ready.poll();
+                order.put(feature, order.size());
+                for (EStructuralFeature dependent : edges.getOrDefault(feature, List.of())) {
+                    if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+            if (order.size() != features.size()) {
+                throw new IllegalStateException("Derived parameters depend cyclically on each other");
+            }
+            List<Derivation> sorted = new ArrayList<>(derivations);
+            sorted.sort(Comparator.comparingInt(derivation -> order.get(derivation.target())));
+            return new DerivationGraph(List.copyOf(sorted));
+        }
+    }
+}
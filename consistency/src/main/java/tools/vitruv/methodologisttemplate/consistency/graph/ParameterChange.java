@@ -0,0 +1,15 @@
+package tools.vitruv.methodologisttemplate.consistency.graph;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * Change of a parameter value of a model element.
+ *
+ * @param element  the changed element
+ * @param feature  the changed parameter
+ * @param oldValue the value before the change
+ * @param newValue the value after the change
+ */
+public record ParameterChange(EObject element, EStructuralFeature feature, Object oldValue, Object newValue) {
+}
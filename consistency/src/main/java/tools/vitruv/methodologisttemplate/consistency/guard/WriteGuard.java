@@ -0,0 +1,109 @@
+package tools.vitruv.methodologisttemplate.consistency.guard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * Suppresses writes of values that a feature already holds. With
+ * {@code TRANSITIVE_CYCLIC} propagation every write is recorded as a change
+ * and triggers the reactions again, even if the value did not change; a
+ * derived value that is written back unchanged therefore bounces between the
+ * models. Writing through the guard ends such a chain at its fixpoint.
+ *
+ * Values are compared with {@link Objects#equals(Object, Object)}, contained
+ * values such as StoEx expressions structurally with
+ * {@link EcoreUtil#equals(EObject, EObject)}. Suppressed writes are counted as
+ * saved propagations.
+ */
+public final class WriteGuard {
+
+    private static final LongAdder WRITES = new LongAdder();
+    private static final LongAdder SAVED = new LongAdder();
+
+    private WriteGuard() {
+    }
+
+    /**
+     * Sets the feature of the element unless it already holds an equal value.
+     *
+     * @param element the element to write to
+     * @param feature a single-valued feature of the element
+     * @param value   the new value
+     * @return whether the value was written
+     */
+    public static boolean set(EObject element, EStructuralFeature feature, Object value) {
+        if (isEqual(feature, element.eGet(feature), value)) {
+            SAVED.increment();
+            return false;
+        }
+        element.eSet(feature, value);
+        WRITES.increment();
+        return true;
+    }
+
+    /**
+     * Sets the feature of all elements to the value in one batch. The elements
+     * already holding an equal value are filtered out first, so the batch only
+     * contains the effective writes.
+     *
+     * @param elements the elements to write to, null entries are ignored
+     * @param feature  a single-valued feature of all elements
+     * @param value    the new value
+     * @return the number of elements written
+     */
+    public static int setAll(Collection<? extends EObject> elements, EStructuralFeature feature, Object value) {
+        List<EObject> pending = new ArrayList<>(elements.size());
+        int unchanged = 0;
+        for (EObject element : elements) {
+            if (element == null) {
+                continue;
+            }
+            if (isEqual(feature, element.eGet(feature), value)) {
+                unchanged++;
+            } else {
+                pending.add(element);
+            }
+        }
+        for (EObject element : pending) {
+            element.eSet(feature, value);
+        }
+        WRITES.add(pending.size());
+        SAVED.add(unchanged);
+        return pending.size();
+    }
+
+    /**
+     * @return the number of writes suppressed because the value was unchanged
+     */
+    public static long getSavedPropagations() {
+        return SAVED.sum();
+    }
+
+    /**
+     * @return the number of writes passed through the guard
+     */
+    public static long getWrites() {
+        return WRITES.sum();
+    }
+
+    public static void reset() {
+        WRITES.reset();
+        SAVED.reset();
+    }
+
+    private static boolean isEqual(EStructuralFeature feature, Object current, Object value) {
+        if (feature instanceof EReference reference && reference.isContainment()
+                && current instanceof EObject currentObject && value instanceof EObject newObject) {
+            return EcoreUtil.equals(currentObject, newObject);
+        }
+        return Objects.equals(current, value);
+    }
+}
@@ -0,0 +1,540 @@
+package tools.vitruv.methodologisttemplate.consistency.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyDescriptor;
+import uncertainty.UncertaintyKind;
+import uncertainty.UncertaintyLocation;
+import uncertainty.UncertaintyLocationType;
+import uncertainty.UncertaintyNature;
+import uncertainty.UncertaintyPackage;
+
+/**
+ * Incrementally maintained index over the uncertainties of an
+ * {@link UncertaintyAnnotationRepository}. Uncertainties are indexed by the
+ * components they reference and by the triple (referenced component,
+ * {@link UncertaintyLocationType}, parameter location), and by the pair
+ * (referenced component, {@link UncertaintySignature}) to find equivalent
+ * uncertainties in constant time. Secondary indexes on kind, nature, location
+ * type, parameter location and the {@link EClass}es of the referenced
+ * components back the {@link UncertaintyQuery}, an index on
+ * {@link Uncertainty#getDerivedFrom()} finds the copies of an uncertainty and
+ * an index on the {@link UncertaintyDescriptor} finds the flyweights sharing
+ * it.
+ *
+ * The index is an EMF adapter: it is attached to the repository, to every
+ * contained {@link Uncertainty}, to their {@link UncertaintyLocation}s and to
+ * their effects, patterns and perspectives, as well as to the descriptors of
+ * the repository and their parts, and updates only the affected
+ * entries when uncertainties are added or removed, when a location changes its
+ * referenced components, location type or parameter location, or when the
+ * uncertainty it is derived from or an attribute of the signature changes. An
+ * edit of a descriptor part re-indexes the flyweights sharing the descriptor.
+ * Use {@link #getIndex(UncertaintyAnnotationRepository)} to obtain the index
+ * of a repository.
+ *
+ * Like the EMF models it observes, the index is not thread-safe: it is
+ * updated by the notifications of the repository and must only be read on
+ * the thread that changes the repository.
+ */
+public class UncertaintyIndex extends AdapterImpl {
+
+    private record Key(EObject component, UncertaintyLocationType location, String parameterLocation) {
+    }
+
+    private record SignatureKey(EObject component, UncertaintySignature signature) {
+    }
+
+    private record Attributes(Uncertainty derivedFrom, UncertaintyDescriptor descriptor, UncertaintyKind kind,
+            UncertaintyNature nature, UncertaintyLocationType location, String parameterLocation,
+            Set<EClass> referencedClasses) {
+    }
+
+    private static final Set<Object> SIGNATURE_FEATURES = Set.of(
+            UncertaintyPackage.Literals.UNCERTAINTY__KIND,
+            UncertaintyPackage.Literals.UNCERTAINTY__NATURE,
+            UncertaintyPackage.Literals.UNCERTAINTY__REDUCABILITY,
+            UncertaintyPackage.Literals.UNCERTAINTY__ON_DELETE,
+            UncertaintyPackage.Literals.UNCERTAINTY__DESCRIPTOR,
+            UncertaintyPackage.Literals.EFFECT__REPRESENTATION,
+            UncertaintyPackage.Literals.EFFECT__STOCHASTICITY,
+            UncertaintyPackage.Literals.PATTERN__PATTERN_TYPE,
+            UncertaintyPackage.Literals.UNCERTAINTY_PERSPECTIVE__PERSPECTIVE);
+
+    private static final Set<Object> PART_FEATURES = Set.of(
+            UncertaintyPackage.Literals.UNCERTAINTY__EFFECT,
+            UncertaintyPackage.Literals.UNCERTAINTY__PATTERN,
+            UncertaintyPackage.Literals.UNCERTAINTY__PERSPECTIVE);
+
+    private static final Set<Object> DESCRIPTOR_PART_FEATURES = Set.of(
+            UncertaintyPackage.Literals.UNCERTAINTY_DESCRIPTOR__EFFECT,
+            UncertaintyPackage.Literals.UNCERTAINTY_DESCRIPTOR__PATTERN,
+            UncertaintyPackage.Literals.UNCERTAINTY_DESCRIPTOR__PERSPECTIVE);
+
+    private final Map<EObject, Set<Uncertainty>> byComponent = new HashMap<>();
+    private final Map<Key, Set<Uncertainty>> byKey = new HashMap<>();
+    private final Map<SignatureKey, Set<Uncertainty>> bySignature = new HashMap<>();
+    private final Map<Uncertainty, List<Key>> indexedKeys = new LinkedHashMap<>();
+    private final Map<Uncertainty, UncertaintySignature> indexedSignatures = new HashMap<>();
+
+    private final Map<Uncertainty, Set<Uncertainty>> byDerivedFrom = new HashMap<>();
+    private final Map<UncertaintyDescriptor, Set<Uncertainty>> byDescriptor = new HashMap<>();
+    private final Map<UncertaintyKind, Set<Uncertainty>> byKind = new HashMap<>();
+    private final Map<UncertaintyNature, Set<Uncertainty>> byNature = new HashMap<>();
+    private final Map<UncertaintyLocationType, Set<Uncertainty>> byLocationType = new HashMap<>();
+    private final Map<String, Set<Uncertainty>> byParameterLocation = new HashMap<>();
+    private final Map<EClass, Set<Uncertainty>> byReferencedClass = new HashMap<>();
+    private final Map<Uncertainty, Attributes> indexedAttributes = new HashMap<>();
+
+    private UncertaintyAnnotationRepository repository;
+
+    private UncertaintyIndex() {
+        // Created through getIndex
+    }
+
+    /**
+     * Returns the index attached to the given repository. If the repository has
+     * no index yet, one is created from its current contents and attached.
+     *
+     * @param uncertaintyRepo the repository to index
+     * @return the index of the repository
+     */
+    public static UncertaintyIndex getIndex(UncertaintyAnnotationRepository uncertaintyRepo) {
+        for (Adapter adapter : uncertaintyRepo.eAdapters()) {
+            if (adapter instanceof UncertaintyIndex index) {
+                return index;
+            }
+        }
+        UncertaintyIndex index = new UncertaintyIndex();
+        uncertaintyRepo.eAdapters().add(index);
+        return index;
+    }
+
+    /**
+     * Returns all uncertainties whose location references the given component,
+     * in the order they were indexed.
+     *
+     * @param component the referenced component
+     * @return the uncertainties referencing the component, possibly empty
+     */
+    public List<Uncertainty> getUncertainties(EObject component) {
+        return copyOf(byComponent.get(component));
+    }
+
+    /**
+     * Returns all uncertainties whose location references the given component
+     * with the given location type and parameter location.
+     *
+     * @param component         the referenced component
+     * @param locationType      the location type of the uncertainty location
+     * @param parameterLocation the parameter location, may be null
+     * @return the matching uncertainties, possibly empty
+     */
+    public List<Uncertainty> getUncertainties(EObject component, UncertaintyLocationType locationType,
+            String parameterLocation) {
+        return copyOf(byKey.get(new Key(component, locationType, parameterLocation)));
+    }
+
+    /**
+     * Returns the uncertainties referencing the given component that
+     * {@link UncertaintySignature} considers equivalent to the given one.
+     *
+     * @param component   the referenced component
+     * @param uncertainty the uncertainty to compare with, need not be indexed
+     * @return the equivalent uncertainties, possibly empty
+     */
+    public List<Uncertainty> getEquivalentUncertainties(EObject component, Uncertainty uncertainty) {
+        return getEquivalentUncertainties(component, UncertaintySignature.of(uncertainty));
+    }
+
+    /**
+     * @param component the referenced component
+     * @param signature the signature to look up
+     * @return the uncertainties referencing the component with the signature,
+     *         possibly empty
+     */
+    public List<Uncertainty> getEquivalentUncertainties(EObject component, UncertaintySignature signature) {
+        return copyOf(bySignature.get(new SignatureKey(component, signature)));
+    }
+
+    /**
+     * @param component the referenced component
+     * @param signature the signature to look up
+     * @return whether an uncertainty with the signature references the
+     *         component
+     */
+    public boolean hasEquivalentUncertainty(EObject component, UncertaintySignature signature) {
+        return bySignature.containsKey(new SignatureKey(component, signature));
+    }
+
+    /**
+     * Returns the copies of the given uncertainty: the uncertainties derived
+     * from it, see {@link Uncertainty#getDerivedFrom()}. Corresponding
+     * uncertainties are created as such copies of their source.
+     *
+     * @param uncertainty the uncertainty, need not be indexed
+     * @return the copies of the uncertainty in the order they were indexed,
+     *         possibly empty
+     */
+    public List<Uncertainty> getCopies(Uncertainty uncertainty) {
+        return copyOf(byDerivedFrom.get(uncertainty));
+    }
+
+    /**
+     * Returns the flyweights sharing the given descriptor, see
+     * {@link tools.vitruv.methodologisttemplate.consistency.descriptor.UncertaintyDescriptors}.
+     *
+     * @param descriptor the descriptor
+     * @return the uncertainties referencing the descriptor in the order they
+     *         were indexed, possibly empty
+     */
+    public List<Uncertainty> getFlyweights(UncertaintyDescriptor descriptor) {
+        return copyOf(byDescriptor.get(descriptor));
+    }
+
+    /**
+     * @param component the referenced component
+     * @return whether any uncertainty references the given component
+     */
+    public boolean hasUncertainties(EObject component) {
+        return byComponent.containsKey(component);
+    }
+
+    /**
+     * @return the number of indexed uncertainties
+     */
+    public int size() {
+        return indexedKeys.size();
+    }
+
+    /**
+     * @return a query over all indexed uncertainties
+     */
+    public UncertaintyQuery query() {
+        return new UncertaintyQuery(this);
+    }
+
+    // Live views for the UncertaintyQuery, must not be modified
+
+    Set<Uncertainty> all() {
+        return indexedKeys.keySet();
+    }
+
+    Set<Uncertainty> withComponent(EObject component) {
+        return byComponent.getOrDefault(component, Set.of());
+    }
+
+    Set<Uncertainty> withKind(UncertaintyKind kind) {
+        return byKind.getOrDefault(kind, Set.of());
+    }
+
+    Set<Uncertainty> withNature(UncertaintyNature nature) {
+        return byNature.getOrDefault(nature, Set.of());
+    }
+
+    Set<Uncertainty> withLocationType(UncertaintyLocationType locationType) {
+        return byLocationType.getOrDefault(locationType, Set.of());
+    }
+
+    Set<Uncertainty> withParameterLocation(String parameterLocation) {
+        return byParameterLocation.getOrDefault(parameterLocation, Set.of());
+    }
+
+    Set<Uncertainty> withReferencedClass(EClass referencedClass) {
+        return byReferencedClass.getOrDefault(referencedClass, Set.of());
+    }
+
+    @Override
+    public boolean isAdapterForType(Object type) {
+        return type == UncertaintyIndex.class;
+    }
+
+    @Override
+    public void setTarget(Notifier newTarget) {
+        // The same adapter instance is attached to the repository and all of its
+        // uncertainties, locations and descriptors; only the repository is kept as target.
+        if (newTarget instanceof UncertaintyAnnotationRepository repo && repository == null) {
+            repository = repo;
+            repo.getDescriptors().forEach(this::attachDescriptor);
+            repo.getUncertainties().forEach(this::attach);
+        }
+    }
+
+    @Override
+    public void unsetTarget(Notifier oldTarget) {
+        if (oldTarget == repository) {
+            List.copyOf(indexedKeys.keySet()).forEach(this::detach);
+            repository.getDescriptors().forEach(this::detachDescriptor);
+            repository = null;
+        }
+    }
+
+    @Override
+    public void notifyChanged(Notification notification) {
+        if (notification.isTouch() || notification.getEventType() == Notification.RESOLVE
+                || notification.getEventType() == Notification.REMOVING_ADAPTER) {
+            return;
+        }
+        Object feature = notification.getFeature();
+        if (feature == UncertaintyPackage.Literals.UNCERTAINTY_ANNOTATION_REPOSITORY__UNCERTAINTIES) {
+            handleUncertaintiesChanged(notification);
+        } else if (feature == UncertaintyPackage.Literals.UNCERTAINTY_ANNOTATION_REPOSITORY__DESCRIPTORS) {
+            handleDescriptorsChanged(notification);
+        } else if (DESCRIPTOR_PART_FEATURES.contains(feature)) {
+            if (notification.getOldValue() instanceof EObject oldPart) {
+                oldPart.eAdapters().remove(this);
+            }
+            if (notification.getNewValue() instanceof EObject newPart) {
+                newPart.eAdapters().add(this);
+            }
+            reindexFlyweights((UncertaintyDescriptor) notification.getNotifier());
+        } else if (feature == UncertaintyPackage.Literals.UNCERTAINTY__UNCERTAINTY_LOCATION) {
+            Uncertainty uncertainty = (Uncertainty) notification.getNotifier();
+            if (notification.getOldValue() instanceof UncertaintyLocation oldLocation) {
+                oldLocation.eAdapters().remove(this);
+            }
+            if (notification.getNewValue() instanceof UncertaintyLocation newLocation) {
+                newLocation.eAdapters().add(this);
+            }
+            reindex(uncertainty);
+        } else if (PART_FEATURES.contains(feature)) {
+            if (notification.getOldValue() instanceof EObject oldPart) {
+                oldPart.eAdapters().remove(this);
+            }
+            if (notification.getNewValue() instanceof EObject newPart) {
+                newPart.eAdapters().add(this);
+            }
+            reindex((Uncertainty) notification.getNotifier());
+        } else if (SIGNATURE_FEATURES.contains(feature)
+                || feature == UncertaintyPackage.Literals.UNCERTAINTY__DERIVED_FROM) {
+            EObject notifier = (EObject) notification.getNotifier();
+            Object owner = notifier instanceof Uncertainty ? notifier : notifier.eContainer();
+            if (owner instanceof Uncertainty changed && indexedKeys.containsKey(changed)) {
+                reindex(changed);
+            } else if (owner instanceof UncertaintyDescriptor descriptor) {
+                // A shared part changes the signature of all flyweights of the descriptor
+                reindexFlyweights(descriptor);
+            }
+        } else if (feature == UncertaintyPackage.Literals.UNCERTAINTY_LOCATION__REFERENCED_COMPONENTS
+                || feature == UncertaintyPackage.Literals.UNCERTAINTY_LOCATION__LOCATION
+                || feature == UncertaintyPackage.Literals.UNCERTAINTY_LOCATION__PARAMETER_LOCATION) {
+            EObject container = ((EObject) notification.getNotifier()).eContainer();
+            if (container instanceof Uncertainty uncertainty && indexedKeys.containsKey(uncertainty)) {
+                reindex(uncertainty);
+            }
+        }
+    }
+
+    private void handleUncertaintiesChanged(Notification notification) {
+        switch (notification.getEventType()) {
+            case Notification.ADD -> attach((Uncertainty) notification.getNewValue());
+            case Notification.ADD_MANY -> forEachUncertainty(notification.getNewValue(), true);
+            case Notification.REMOVE -> detach((Uncertainty) notification.getOldValue());
+            case Notification.REMOVE_MANY -> forEachUncertainty(notification.getOldValue(), false);
+            case Notification.SET, Notification.UNSET -> {
+                if (notification.getOldValue() instanceof Uncertainty oldUncertainty) {
+                    detach(oldUncertainty);
+                }
+                if (notification.getNewValue() instanceof Uncertainty newUncertainty) {
+                    attach(newUncertainty);
+                }
+            }
+            default -> {
+                // MOVE does not affect the index
+            }
+        }
+    }
+
+    private void handleDescriptorsChanged(Notification notification) {
+        switch (notification.getEventType()) {
+            case Notification.ADD -> attachDescriptor((UncertaintyDescriptor) notification.getNewValue());
+            case Notification.ADD_MANY -> ((Collection<?>) notification.getNewValue())
+                    .forEach(descriptor -> attachDescriptor((UncertaintyDescriptor) descriptor));
+            case Notification.REMOVE -> detachDescriptor((UncertaintyDescriptor) notification.getOldValue());
+            case Notification.REMOVE_MANY -> ((Collection<?>) notification.getOldValue())
+                    .forEach(descriptor -> detachDescriptor((UncertaintyDescriptor) descriptor));
+            case Notification.SET, Notification.UNSET -> {
+                if (notification.getOldValue() instanceof UncertaintyDescriptor oldDescriptor) {
+                    detachDescriptor(oldDescriptor);
+                }
+                if (notification.getNewValue() instanceof UncertaintyDescriptor newDescriptor) {
+                    attachDescriptor(newDescriptor);
+                }
+            }
+            default -> {
+                // MOVE does not affect the index
+            }
+        }
+    }
+
+    private void forEachUncertainty(Object values, boolean attach) {
+        for (Object value : (Collection<?>) values) {
+            if (attach) {
+                attach((Uncertainty) value);
+            } else {
+                detach((Uncertainty) value);
+            }
+        }
+    }
+
+    private void attach(Uncertainty uncertainty) {
+        if (!uncertainty.eAdapters().contains(this)) {
+            uncertainty.eAdapters().add(this);
+        }
+        for (EObject part : parts(uncertainty)) {
+            if (!part.eAdapters().contains(this)) {
+                part.eAdapters().add(this);
+            }
+        }
+        reindex(uncertainty);
+    }
+
+    private void detach(Uncertainty uncertainty) {
+        uncertainty.eAdapters().remove(this);
+        for (EObject part : parts(uncertainty)) {
+            part.eAdapters().remove(this);
+        }
+        unindex(uncertainty);
+    }
+
+    private void attachDescriptor(UncertaintyDescriptor descriptor) {
+        for (EObject notifier : descriptorNotifiers(descriptor)) {
+            if (!notifier.eAdapters().contains(this)) {
+                notifier.eAdapters().add(this);
+            }
+        }
+    }
+
+    private void detachDescriptor(UncertaintyDescriptor descriptor) {
+        for (EObject notifier : descriptorNotifiers(descriptor)) {
+            notifier.eAdapters().remove(this);
+        }
+    }
+
+    private void reindexFlyweights(UncertaintyDescriptor descriptor) {
+        for (Uncertainty flyweight : getFlyweights(descriptor)) {
+            reindex(flyweight);
+        }
+    }
+
+    private void reindex(Uncertainty uncertainty) {
+        unindex(uncertainty);
+        List<Key> keys = new ArrayList<>();
+        UncertaintySignature signature = UncertaintySignature.of(uncertainty);
+        UncertaintyLocation location = uncertainty.getUncertaintyLocation();
+        if (location != null) {
+            for (EObject component : location.getReferencedComponents()) {
+                Key key = new Key(component, location.getLocation(), location.getParameterLocation());
+                keys.add(key);
+                byKey.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(uncertainty);
+                byComponent.computeIfAbsent(component, k -> new LinkedHashSet<>()).add(uncertainty);
+                bySignature.computeIfAbsent(new SignatureKey(component, signature), k -> new LinkedHashSet<>())
+                        .add(uncertainty);
+            }
+        }
+        indexedKeys.put(uncertainty, keys);
+        indexedSignatures.put(uncertainty, signature);
+
+        Set<EClass> referencedClasses = new HashSet<>();
+        if (location != null) {
+            for (EObject component : location.getReferencedComponents()) {
+                referencedClasses.add(component.eClass());
+                referencedClasses.addAll(component.eClass().getEAllSuperTypes());
+            }
+        }
+        Attributes attributes = new Attributes(uncertainty.getDerivedFrom(), uncertainty.getDescriptor(),
+                uncertainty.getKind(), uncertainty.getNature(),
+                location == null ? null : location.getLocation(),
+                location == null ? null : location.getParameterLocation(), referencedClasses);
+        if (attributes.derivedFrom() != null) {
+            byDerivedFrom.computeIfAbsent(attributes.derivedFrom(), k -> new LinkedHashSet<>()).add(uncertainty);
+        }
+        if (attributes.descriptor() != null) {
+            byDescriptor.computeIfAbsent(attributes.descriptor(), k -> new LinkedHashSet<>()).add(uncertainty);
+        }
+        byKind.computeIfAbsent(attributes.kind(), k -> new LinkedHashSet<>()).add(uncertainty);
+        byNature.computeIfAbsent(attributes.nature(), k -> new LinkedHashSet<>()).add(uncertainty);
+        byLocationType.computeIfAbsent(attributes.location(), k -> new LinkedHashSet<>()).add(uncertainty);
+        byParameterLocation.computeIfAbsent(attributes.parameterLocation(), k -> new LinkedHashSet<>())
+                .add(uncertainty);
+        for (EClass referencedClass : referencedClasses) {
+            byReferencedClass.computeIfAbsent(referencedClass, k -> new LinkedHashSet<>()).add(uncertainty);
+        }
+        indexedAttributes.put(uncertainty, attributes);
+    }
+
+    private void unindex(Uncertainty uncertainty) {
+        List<Key> keys = indexedKeys.remove(uncertainty);
+        UncertaintySignature signature = indexedSignatures.remove(uncertainty);
+        Attributes attributes = indexedAttributes.remove(uncertainty);
+        if (keys == null) {
+            return;
+        }
+        removeFrom(byDerivedFrom, attributes.derivedFrom(), uncertainty);
+        removeFrom(byDescriptor, attributes.descriptor(), uncertainty);
+        removeFrom(byKind, attributes.kind(), uncertainty);
+        removeFrom(byNature, attributes.nature(), uncertainty);
+        removeFrom(byLocationType, attributes.location(), uncertainty);
+        removeFrom(byParameterLocation, attributes.parameterLocation(), uncertainty);
+        for (EClass referencedClass : attributes.referencedClasses()) {
+            removeFrom(byReferencedClass, referencedClass, uncertainty);
+        }
+        for (Key key : keys) {
+            removeFrom(byKey, key, uncertainty);
+            removeFrom(byComponent, key.component(), uncertainty);
+            removeFrom(bySignature, new SignatureKey(key.component(), signature), uncertainty);
+        }
+    }
+
+    // The own parts of the uncertainty whose changes affect the index
+    private static List<EObject> parts(Uncertainty uncertainty) {
+        List<EObject> parts = new ArrayList<>(4);
+        for (EObject part : new EObject[] { uncertainty.getUncertaintyLocation(), uncertainty.getEffect(),
+                uncertainty.getPattern(), uncertainty.getPerspective() }) {
+            if (part != null) {
+                parts.add(part);
+            }
+        }
+        return parts;
+    }
+
+    // The descriptor and its parts, whose changes affect the flyweights sharing it
+    private static List<EObject> descriptorNotifiers(UncertaintyDescriptor descriptor) {
+        List<EObject> notifiers = new ArrayList<>(4);
+        for (EObject notifier : new EObject[] { descriptor, descriptor.getEffect(), descriptor.getPattern(),
+                descriptor.getPerspective() }) {
+            if (notifier != null) {
+                notifiers.add(notifier);
+            }
+        }
+        return notifiers;
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Uncertainty>> map, K key, Uncertainty uncertainty) {
+        Set<Uncertainty> uncertainties = map.get(key);
+        if (uncertainties != null && uncertainties.remove(uncertainty) && uncertainties.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    private static List<Uncertainty> copyOf(Set<Uncertainty> uncertainties) {
+        return uncertainties == null ? List.of() : List.copyOf(uncertainties);
+    }
+}
@@ -0,0 +1,167 @@
+package tools.vitruv.methodologisttemplate.consistency.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyKind;
+import uncertainty.UncertaintyLocation;
+import uncertainty.UncertaintyLocationType;
+import uncertainty.UncertaintyNature;
+
+/**
+ * Conjunctive query over the uncertainties of a repository, backed by the
+ * secondary indexes of its {@link UncertaintyIndex}:
+ *
+ * <pre>
+ * Optional&lt;Uncertainty&gt; clampingForce = UncertaintyQuery.on(repository)
+ *         .referencing(BrakesystemPackage.Literals.BRAKE_CALIPER)
+ *         .locationType(UncertaintyLocationType.PARAMETER)
+ *         .parameterLocation("clampingForceInN")
+ *         .findFirst();
+ * </pre>
+ *
+ * The candidates are taken from the smallest index bucket of all constraints
+ * and filtered by the others, so the cost of a query depends on its most
+ * selective constraint rather than on the repository size. A query can be
+ * run repeatedly and always reflects the current repository. The results
+ * are in the order the uncertainties were last indexed, i.e. added or
+ * changed.
+ *
+ * The stream of a query is a lazy view of the index bucket it starts from,
+ * nothing is copied. The repository must therefore not be changed until the
+ * stream is consumed; collect the results with {@link #toList()} first to
+ * change the repository based on them. Like the {@link UncertaintyIndex},
+ * queries are not thread-safe and must only be run on the thread that
+ * changes the repository.
+ */
+public final class UncertaintyQuery {
+
+    private final UncertaintyIndex index;
+    private final List<Constraint> constraints = new ArrayList<>();
+
+    private record Constraint(Supplier<Set<Uncertainty>> candidates, Predicate<Uncertainty> predicate) {
+    }
+
+    UncertaintyQuery(UncertaintyIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * @param repository the repository to query
+     * @return a query over all uncertainties of the repository
+     */
+    public static UncertaintyQuery on(UncertaintyAnnotationRepository repository) {
+        return UncertaintyIndex.getIndex(repository).query();
+    }
+
+    /**
+     * Restricts the results to uncertainties of the given kind.
+     */
+    public UncertaintyQuery kind(UncertaintyKind kind) {
+        return where(() -> index.withKind(kind), u -> u.getKind() == kind);
+    }
+
+    /**
+     * Restricts the results to uncertainties of the given nature.
+     */
+    public UncertaintyQuery nature(UncertaintyNature nature) {
+        return where(() -> index.withNature(nature), u -> u.getNature() == nature);
+    }
+
+    /**
+     * Restricts the results to uncertainties whose location has the given
+     * type.
+     */
+    public UncertaintyQuery locationType(UncertaintyLocationType locationType) {
+        return where(() -> index.withLocationType(locationType),
+                u -> location(u) != null && location(u).getLocation() == locationType);
+    }
+
+    /**
+     * Restricts the results to uncertainties whose location has the given
+     * parameter location.
+     */
+    public UncertaintyQuery parameterLocation(String parameterLocation) {
+        return where(() -> index.withParameterLocation(parameterLocation),
+                u -> location(u) != null && Objects.equals(location(u).getParameterLocation(), parameterLocation));
+    }
+
+    /**
+     * Restricts the results to uncertainties referencing at least one
+     * component that is an instance of the given class or of a subclass.
+     */
+    public UncertaintyQuery referencing(EClass referencedClass) {
+        return where(() -> index.withReferencedClass(referencedClass), u -> location(u) != null
+                && location(u).getReferencedComponents().stream().anyMatch(referencedClass::isInstance));
+    }
+
+    /**
+     * Restricts the results to uncertainties referencing the given component.
+     */
+    public UncertaintyQuery referencing(EObject component) {
+        return where(() -> index.withComponent(component),
+                u -> location(u) != null && location(u).getReferencedComponents().contains(component));
+    }
+
+    /**
+     * @return the matching uncertainties, filtered lazily from the smallest
+     *         index bucket, which must not change until the stream is consumed
+     */
+    public Stream<Uncertainty> stream() {
+        if (constraints.isEmpty()) {
+            return index.all().stream();
+        }
+        Constraint smallest = null;
+        Set<Uncertainty> candidates = null;
+        for (Constraint constraint : constraints) {
+            Set<Uncertainty> bucket = constraint.candidates().get();
+            if (candidates == null || bucket.size() < candidates.size()) {
+                smallest = constraint;
+                candidates = bucket;
+            }
+        }
+        Stream<Uncertainty> results = candidates.stream();
+        for (Constraint constraint : constraints) {
+            if (constraint != smallest) {
+                results = results.filter(constraint.predicate());
+            }
+        }
+        return results;
+    }
+
+    public Optional<Uncertainty> findFirst() {
+        return stream().findFirst();
+    }
+
+    public boolean exists() {
+        return findFirst().isPresent();
+    }
+
+    public long count() {
+        return stream().count();
+    }
+
+    public List<Uncertainty> toList() {
+        return stream().toList();
+    }
+
+    private UncertaintyQuery where(Supplier<Set<Uncertainty>> candidates, Predicate<Uncertainty> predicate) {
+        constraints.add(new Constraint(candidates, predicate));
+        return this;
+    }
+
+    private static UncertaintyLocation location(Uncertainty uncertainty) {
+        return uncertainty.getUncertaintyLocation();
+    }
+}
@@ -0,0 +1,48 @@
+package tools.vitruv.methodologisttemplate.consistency.index;
+
+import tools.vitruv.methodologisttemplate.consistency.descriptor.UncertaintyDescriptors;
+import uncertainty.Effect;
+import uncertainty.OnDeleteMode;
+import uncertainty.Pattern;
+import uncertainty.PatternType;
+import uncertainty.ReducabilityLevel;
+import uncertainty.StochasticityEffectType;
+import uncertainty.StructuralEffectTypeRepresentation;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyKind;
+import uncertainty.UncertaintyNature;
+import uncertainty.UncertaintyPerspective;
+import uncertainty.UncertaintyPerspectiveType;
+
+/**
+ * Canonical form of the classification of an uncertainty. Two uncertainties
+ * have equal signatures exactly if
+ * {@link tools.vitruv.methodologisttemplate.consistency.UncertaintyReactionsHelper#compareUncertainties}
+ * considers them equal, so the signature can be used as a hash key to find
+ * equivalent uncertainties. The location is not part of the signature.
+ *
+ * @param hasEffect      whether the uncertainty has an effect
+ * @param hasPattern     whether the uncertainty has a pattern
+ * @param hasPerspective whether the uncertainty has a perspective
+ */
+public record UncertaintySignature(UncertaintyKind kind, UncertaintyNature nature, ReducabilityLevel reducability,
+        OnDeleteMode onDelete, boolean hasEffect, StructuralEffectTypeRepresentation representation,
+        StochasticityEffectType stochasticity, boolean hasPattern, PatternType patternType, boolean hasPerspective,
+        UncertaintyPerspectiveType perspective) {
+
+    /**
+     * @param uncertainty the uncertainty, may be a flyweight
+     * @return the signature of the uncertainty
+     */
+    public static UncertaintySignature of(Uncertainty uncertainty) {
+        Effect effect = UncertaintyDescriptors.getEffect(uncertainty);
+        Pattern pattern = UncertaintyDescriptors.getPattern(uncertainty);
+        UncertaintyPerspective perspective = UncertaintyDescriptors.getPerspective(uncertainty);
+        return new UncertaintySignature(uncertainty.getKind(), uncertainty.getNature(),
+                uncertainty.getReducability(), uncertainty.getOnDelete(),
+                effect != null, effect == null ? null : effect.getRepresentation(),
+                effect == null ? null : effect.getStochasticity(),
+                pattern != null, pattern == null ? null : pattern.getPatternType(),
+                perspective != null, perspective == null ? null : perspective.getPerspective());
+    }
+}
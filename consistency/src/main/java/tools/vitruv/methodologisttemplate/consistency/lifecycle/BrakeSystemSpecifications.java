@@ -0,0 +1,105 @@
+package tools.vitruv.methodologisttemplate.consistency.lifecycle;
+
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+
+import mir.reactions.brakesystem2cad.Brakesystem2cadChangePropagationSpecification;
+import mir.reactions.cad2brakesystem.Cad2brakesystemChangePropagationSpecification;
+import mir.reactions.uncertainty2cad.Uncertainty2cadChangePropagationSpecification;
+import mir.reactions.uncertainty2uncertainty.Uncertainty2uncertaintyChangePropagationSpecification;
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.composite.description.TransactionalChange;
+import tools.vitruv.change.correspondence.Correspondence;
+import tools.vitruv.change.correspondence.view.EditableCorrespondenceModelView;
+import tools.vitruv.change.propagation.ChangePropagationSpecification;
+import tools.vitruv.change.propagation.ResourceAccess;
+
+/**
+ * The change propagation specifications generated from the reactions of the
+ * case study. Vitruv records the changes a specification makes while it
+ * propagates one change, so each specification runs its propagation step as a
+ * {@link PropagationLifecycle#propagationStep(String, Runnable)}: the derived
+ * values its reactions schedule are written at the end of the step, once per
+ * element, and are propagated further like any other change of the step.
+ * The steps and the reactions to every atomic change are measured by the
+ * {@link tools.vitruv.methodologisttemplate.consistency.metrics.PropagationMetrics}.
+ */
+public final class BrakeSystemSpecifications {
+
+    private BrakeSystemSpecifications() {
+        // Utility class
+    }
+
+    /**
+     * @return new instances of the brakesystem2cad, cad2brakesystem,
+     *         uncertainty2cad and uncertainty2uncertainty specifications
+     */
+    public static List<ChangePropagationSpecification> create() {
+        return List.of(new Brakesystem2cadChangePropagationSpecification() {
+            @Override
+            public void propagateNonAtomicChange(TransactionalChange<EObject> change,
+                    EditableCorrespondenceModelView<Correspondence> correspondenceModel,
+                    ResourceAccess resourceAccess) {
+                PropagationLifecycle.propagationStep("brakesystem2cad",
+                        () -> super.propagateNonAtomicChange(change, correspondenceModel, resourceAccess));
+            }
+
+            @Override
+            public void propagateChange(EChange<EObject> change,
+                    EditableCorrespondenceModelView<Correspondence> correspondenceModel,
+                    ResourceAccess resourceAccess) {
+                PropagationLifecycle.propagateChange("brakesystem2cad", change,
+                        () -> super.propagateChange(change, correspondenceModel, resourceAccess));
+            }
+        }, new Cad2brakesystemChangePropagationSpecification() {
+            @Override
+            public void propagateNonAtomicChange(TransactionalChange<EObject> change,
+                    EditableCorrespondenceModelView<Correspondence> correspondenceModel,
+                    ResourceAccess resourceAccess) {
+                PropagationLifecycle.propagationStep("cad2brakesystem",
+                        () -> super.propagateNonAtomicChange(change, correspondenceModel, resourceAccess));
+            }
+
+            @Override
+            public void propagateChange(EChange<EObject> change,
+                    EditableCorrespondenceModelView<Correspondence> correspondenceModel,
+                    ResourceAccess resourceAccess) {
+                PropagationLifecycle.propagateChange("cad2brakesystem", change,
+                        () -> super.propagateChange(change, correspondenceModel, resourceAccess));
+            }
+        }, new Uncertainty2cadChangePropagationSpecification() {
+            @Override
+            public void propagateNonAtomicChange(TransactionalChange<EObject> change,
+                    EditableCorrespondenceModelView<Correspondence> correspondenceModel,
+                    ResourceAccess resourceAccess) {
+                PropagationLifecycle.propagationStep("uncertainty2cad",
+                        () -> super.propagateNonAtomicChange(change, correspondenceModel, resourceAccess));
+            }
+
+            @Override
+            public void propagateChange(EChange<EObject> change,
+                    EditableCorrespondenceModelView<Correspondence> correspondenceModel,
+                    ResourceAccess resourceAccess) {
+                PropagationLifecycle.propagateChange("uncertainty2cad", change,
+                        () -> super.propagateChange(change, correspondenceModel, resourceAccess));
+            }
+        }, new Uncertainty2uncertaintyChangePropagationSpecification() {
+            @Override
+            public void propagateNonAtomicChange(TransactionalChange<EObject> change,
+                    EditableCorrespondenceModelView<Correspondence> correspondenceModel,
+                    ResourceAccess resourceAccess) {
+                PropagationLifecycle.propagationStep("uncertainty2uncertainty",
+                        () -> super.propagateNonAtomicChange(change, correspondenceModel, resourceAccess));
+            }
+
+            @Override
+            public void propagateChange(EChange<EObject> change,
+                    EditableCorrespondenceModelView<Correspondence> correspondenceModel,
+                    ResourceAccess resourceAccess) {
+                PropagationLifecycle.propagateChange("uncertainty2uncertainty", change,
+                        () -> super.propagateChange(change, correspondenceModel, resourceAccess));
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package tools.vitruv.methodologisttemplate.consistency.lifecycle;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.eobject.EObjectExistenceEChange;
+import tools.vitruv.change.atomic.feature.FeatureEChange;
+import tools.vitruv.change.atomic.uuid.Uuid;
+import tools.vitruv.change.composite.description.PropagatedChange;
+import tools.vitruv.change.composite.description.VitruviusChange;
+import tools.vitruv.change.propagation.ChangePropagationListener;
+import tools.vitruv.methodologisttemplate.consistency.BrakeSystemDerivations;
+import tools.vitruv.methodologisttemplate.consistency.metrics.PropagationMetrics;
+import tools.vitruv.methodologisttemplate.consistency.scheduling.RecomputationScheduler;
+
+/**
+ * Scopes the state the consistency helpers keep between reactions to a single
+ * change propagation of a VSUM. Register it with
+ * {@code VirtualModel.addChangePropagationListener} next to the
+ * specifications of {@link BrakeSystemSpecifications}:
+ *
+ * <pre>
+ * BrakeSystemSpecifications.create().forEach(builder::withChangePropagationSpecification);
+ * InternalVirtualModel vsum = builder.buildAndInitialize();
+ * vsum.addChangePropagationListener(new PropagationLifecycle());
+ * </pre>
+ *
+ * The listener is notified on the committing thread, which also executes the
+ * reactions, so it reaches the thread-confined state of the reactions. Vitruv
+ * notifies the end of a propagation after the models have been saved, so
+ * pending recomputations are not flushed here but at the end of every
+ * propagation step by the specifications.
+ */
+public class PropagationLifecycle implements ChangePropagationListener {
+
+    @Override
+    public void startedChangePropagation(VitruviusChange<Uuid> changeToPropagate) {
+        BrakeSystemDerivations.GRAPH.propagationStarted();
+    }
+
+    @Override
+    public void finishedChangePropagation(Iterable<PropagatedChange> propagatedChanges) {
+        BrakeSystemDerivations.GRAPH.propagationFinished();
+    }
+
+    /**
+     * Runs one propagation step of a specification. The recomputations marked
+     * by its reactions are flushed when the step is done. The step is measured
+     * by the {@link PropagationMetrics}.
+     *
+     * @param specification the name of the reactions of the specification
+     * @param step          propagates the changes of the step
+     */
+    static void propagationStep(String specification, Runnable step) {
+        PropagationMetrics.Sample sample = PropagationMetrics.step(specification);
+        try {
+            RecomputationScheduler.current().coalesce(step);
+        } finally {
+            sample.stop();
+        }
+    }
+
+    /**
+     * Executes the reactions of a specification to one atomic change and
+     * measures them by the {@link PropagationMetrics}, named after the kind of
+     * the change and the affected feature.
+     *
+     * @param specification the name of the reactions of the specification
+     * @param change        the change to propagate
+     * @param propagation   executes the reactions
+     */
+    static void propagateChange(String specification, EChange<EObject> change, Runnable propagation) {
+        EObject element = null;
+        EStructuralFeature feature = null;
+        if (change instanceof FeatureEChange<EObject, ?> featureChange) {
+            element = featureChange.getAffectedElement();
+            feature = featureChange.getAffectedFeature();
+        } else if (change instanceof EObjectExistenceEChange<EObject> existenceChange) {
+            element = existenceChange.getAffectedElement();
+        }
+        String name = feature == null ? change.eClass().getName()
+                : change.eClass().getName() + "(" + feature.getEContainingClass().getName() + "." + feature.getName()
+                        + ")";
+        PropagationMetrics.Sample sample = PropagationMetrics.change(specification, name, element, feature);
+        try {
+            propagation.run();
+        } finally {
+            sample.stop();
+        }
+    }
+}
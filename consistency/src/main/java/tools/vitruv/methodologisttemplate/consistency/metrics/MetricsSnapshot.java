@@ -0,0 +1,68 @@
+package tools.vitruv.methodologisttemplate.consistency.metrics;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Point-in-time copy of the metrics recorded by {@link PropagationMetrics}.
+ * Latencies are in microseconds.
+ *
+ * @param takenAt the time the snapshot was taken
+ * @param entries one entry per propagation step and change
+ */
+public record MetricsSnapshot(Instant takenAt, List<Entry> entries) {
+
+    /**
+     * Metrics of the propagation steps of one specification or of its
+     * reactions to one kind of change.
+     *
+     * @param kind         whether a step or a change was measured
+     * @param name         the specification, e.g. {@code cad2brakesystem}, or
+     *                     the qualified change, e.g.
+     *                     {@code cad2brakesystem.ReplaceSingleValuedEAttribute(Circle.extrusion)}
+     * @param invocations  the number of completed invocations
+     * @param totalMicros  the summed latency of all invocations
+     * @param meanMicros   the mean latency
+     * @param p50Micros    the median latency
+     * @param p90Micros    the 90th percentile of the latency
+     * @param p99Micros    the 99th percentile of the latency
+     * @param maxMicros    the maximum latency
+     * @param meanFanOut   the mean fan-out per invocation
+     * @param maxFanOut    the maximum fan-out of an invocation
+     */
+    public record Entry(PropagationMetrics.Kind kind, String name, long invocations, double totalMicros,
+            double meanMicros, double p50Micros, double p90Micros, double p99Micros, double maxMicros,
+            double meanFanOut, long maxFanOut) {
+    }
+
+    public Optional<Entry> getEntry(String name) {
+        return entries.stream().filter(entry -> entry.name().equals(name)).findFirst();
+    }
+
+    /**
+     * @return a table of all entries, the most expensive ones in total first
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Propagation metrics at ").append(takenAt).append(System.lineSeparator());
+        builder.append(String.format(Locale.ROOT, "%-8s %-80s %10s %12s %10s %10s %10s %10s %10s %8s %8s%n",
+                "kind", "name", "count", "total[us]", "mean[us]", "p50[us]", "p90[us]", "p99[us]", "max[us]",
+                "fanOut", "maxFan"));
+        entries.stream()
+                .sorted(Comparator.comparingDouble(Entry::totalMicros).reversed())
+                .forEach(entry -> builder.append(String.format(Locale.ROOT,
+                        "%-8s %-80s %10d %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f %8.2f %8d%n",
+                        entry.kind(), entry.name(), entry.invocations(), entry.totalMicros(), entry.meanMicros(),
+                        entry.p50Micros(), entry.p90Micros(), entry.p99Micros(), entry.maxMicros(),
+                        entry.meanFanOut(), entry.maxFanOut())));
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
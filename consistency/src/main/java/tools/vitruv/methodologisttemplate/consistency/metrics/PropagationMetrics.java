@@ -0,0 +1,269 @@
+package tools.vitruv.methodologisttemplate.consistency.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.emf.ecore.EObject;
+
+import tools.vitruv.methodologisttemplate.consistency.guard.WriteGuard;
+import tools.vitruv.methodologisttemplate.consistency.trace.PropagationTrace;
+import tools.vitruv.methodologisttemplate.consistency.trace.TraceEvent;
+
+/**
+ * Invocation counts, latency histograms and fan-out of the change propagation.
+ * The specifications of
+ * {@link tools.vitruv.methodologisttemplate.consistency.lifecycle.BrakeSystemSpecifications}
+ * open a {@link Sample} around every propagation step, i.e. the propagation
+ * of a change by one specification including the recomputations flushed at
+ * its end, and around every atomic change the specification executes its
+ * reactions for, and stop it when done. The reactions themselves are not
+ * instrumented.
+ *
+ * The fan-out of an invocation is the number of samples started while it was
+ * active, i.e. the atomic changes propagated in a step. Latencies include
+ * nested samples.
+ *
+ * The metrics are kept in memory and exposed by {@link #snapshot()} and as
+ * the MXBean {@value #OBJECT_NAME}. The samples also feed a running
+ * {@link PropagationTrace}. Recording is disabled with the system
+ * property {@code propagation.metrics.disabled=true} or at runtime via
+ * {@link #setEnabled(boolean)}.
+ */
+public final class PropagationMetrics {
+
+    public static final String OBJECT_NAME = "tools.vitruv.methodologisttemplate:type=PropagationMetrics";
+
+    /**
+     * The kind of the instrumented code.
+     */
+    public enum Kind {
+        STEP, CHANGE
+    }
+
+    private static final Map<String, InvocationStats> STATS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Deque<Sample>> ACTIVE = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final Sample NO_SAMPLE = new Sample(null, null, null);
+    private static volatile boolean enabled = !Boolean.getBoolean("propagation.metrics.disabled");
+
+    static {
+        registerMXBean();
+    }
+
+    private PropagationMetrics() {
+    }
+
+    /**
+     * Starts measuring a propagation step.
+     *
+     * @param specification the name of the reactions of the specification,
+     *                      e.g. {@code brakesystem2cad}
+     * @return the running sample, to be stopped when the step is done
+     */
+    public static Sample step(String specification) {
+        PropagationTrace trace = PropagationTrace.active();
+        return start(Kind.STEP, specification, trace, trace == null ? null : trace.stepStarted(specification));
+    }
+
+    /**
+     * Starts measuring the reactions of a specification to an atomic change.
+     *
+     * @param specification the name of the reactions of the specification,
+     *                      e.g. {@code brakesystem2cad}
+     * @param change        describes the change, e.g.
+     *                      {@code ReplaceSingleValuedEAttribute(BrakeDisk.brakeDiskThicknessInMM)}
+     * @param element       the element affected by the change, used by the
+     *                      {@link PropagationTrace}
+     * @param feature       the feature affected by the change, null for root
+     *                      insertions and deletions
+     * @return the running sample, to be stopped when the reactions are done
+     */
+    public static Sample change(String specification, String change, EObject element, Object feature) {
+        String name = specification + "." + change;
+        PropagationTrace trace = PropagationTrace.active();
+        return start(Kind.CHANGE, name, trace,
+                trace == null ? null : trace.reactionStarted(name, element, feature));
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        PropagationMetrics.enabled = enabled;
+    }
+
+    public static MetricsSnapshot snapshot() {
+        List<MetricsSnapshot.Entry> entries = STATS.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.naturalOrder()))
+                .map(entry -> entry.getValue().toEntry(entry.getKey()))
+                .toList();
+        return new MetricsSnapshot(Instant.now(), entries);
+    }
+
+    public static void reset() {
+        STATS.clear();
+    }
+
+    private static Sample start(Kind kind, String name, PropagationTrace trace, TraceEvent traceEvent) {
+        if (!enabled && trace == null) {
+            return NO_SAMPLE;
+        }
+        Deque<Sample> active = ACTIVE.get();
+        Sample parent = active.peek();
+        if (parent != null) {
+            parent.fanOut++;
+        }
+        Sample sample = new Sample(enabled ? STATS.computeIfAbsent(name, it -> new InvocationStats(kind)) : null,
+                trace, traceEvent);
+        active.push(sample);
+        return sample;
+    }
+
+    private static void registerMXBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new MXBeanImpl(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered by another class loader, e.g. in a test runner
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * A running measurement of one propagation step or change. Samples are
+     * confined to the thread that started them.
+     */
+    public static final class Sample {
+
+        private final InvocationStats stats;
+        private final PropagationTrace trace;
+        private final TraceEvent traceEvent;
+        private final long start;
+        private int fanOut;
+        private boolean stopped;
+
+        private Sample(InvocationStats stats, PropagationTrace trace, TraceEvent traceEvent) {
+            this.stats = stats;
+            this.trace = trace;
+            this.traceEvent = traceEvent;
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * Records the invocation. Stopping a sample more than once has no
+         * effect.
+         */
+        public void stop() {
+            if (stopped || this == NO_SAMPLE) {
+                return;
+            }
+            stopped = true;
+            long elapsed = System.nanoTime() - start;
+            Deque<Sample> active = ACTIVE.get();
+            if (active.contains(this)) {
+                // Samples of changes aborted by an exception may still be on top
+                while (active.pop() != this) {
+                    // Discard
+                }
+            }
+            if (stats != null) {
+                stats.record(elapsed, fanOut);
+            }
+            if (trace != null) {
+                trace.stopped(traceEvent, elapsed);
+            }
+        }
+    }
+
+    private static final class InvocationStats {
+
+        private final Kind kind;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder totalFanOut = new LongAdder();
+        private final AtomicLong maxFanOut = new AtomicLong();
+
+        InvocationStats(Kind kind) {
+            this.kind = kind;
+        }
+
+        void record(long elapsedNanos, int fanOut) {
+            latency.record(elapsedNanos);
+            totalFanOut.add(fanOut);
+            maxFanOut.accumulateAndGet(fanOut, Math::max);
+        }
+
+        MetricsSnapshot.Entry toEntry(String name) {
+            long invocations = latency.getTotalCount();
+            double mean = latency.getMean();
+            return new MetricsSnapshot.Entry(kind, name, invocations, mean * invocations / 1000, mean / 1000,
+                    latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(90) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0, latency.getMax() / 1000.0,
+                    invocations == 0 ? 0 : (double) totalFanOut.sum() / invocations, maxFanOut.get());
+        }
+    }
+
+    private static final class MXBeanImpl implements PropagationMetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return PropagationMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            PropagationMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public String[] getNames() {
+            return STATS.keySet().stream().sorted().toArray(String[]::new);
+        }
+
+        @Override
+        public long getInvocationCount(String name) {
+            InvocationStats stats = STATS.get(name);
+            return stats == null ? 0 : stats.latency.getTotalCount();
+        }
+
+        @Override
+        public double getLatencyPercentileMicros(String name, double percentile) {
+            InvocationStats stats = STATS.get(name);
+            return stats == null ? 0 : stats.latency.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        @Override
+        public double getMeanFanOut(String name) {
+            InvocationStats stats = STATS.get(name);
+            return stats == null ? 0 : stats.toEntry(name).meanFanOut();
+        }
+
+        @Override
+        public long getSavedPropagations() {
+            return WriteGuard.getSavedPropagations();
+        }
+
+        @Override
+        public String dumpSnapshot() {
+            return snapshot().format();
+        }
+
+        @Override
+        public void reset() {
+            PropagationMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package tools.vitruv.methodologisttemplate.consistency.metrics;
+
+/**
+ * JMX view of the {@link PropagationMetrics}, registered as
+ * {@value PropagationMetrics#OBJECT_NAME}. Latencies are in microseconds.
+ */
+public interface PropagationMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return the names of all propagation steps and changes measured so far
+     */
+    String[] getNames();
+
+    long getInvocationCount(String name);
+
+    double getLatencyPercentileMicros(String name, double percentile);
+
+    double getMeanFanOut(String name);
+
+    /**
+     * @return the number of unchanged writes suppressed by the
+     *         {@link tools.vitruv.methodologisttemplate.consistency.guard.WriteGuard}
+     */
+    long getSavedPropagations();
+
+    /**
+     * @return the formatted snapshot of all metrics, see
+     *         {@link MetricsSnapshot#format()}
+     */
+    String dumpSnapshot();
+
+    void reset();
+}
@@ -0,0 +1,226 @@
+package tools.vitruv.methodologisttemplate.consistency.pairing;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.BrakeComponent;
+import brakesystem.BrakeDisk;
+import brakesystem.Brakesystem;
+import brakesystem.BrakesystemPackage;
+
+/**
+ * Incrementally maintained pairing of the brake disks and brake calipers of a
+ * {@link Brakesystem}. A disk and a caliper form a brake corner if they have
+ * the same {@link BrakeComponent#getFittingPosition() fitting position}; a
+ * corner is paired if it has exactly one disk and one caliper. Components
+ * without a fitting position form a corner of their own, so a brake system
+ * with a single disk and caliper is paired without any fitting positions;
+ * with several of them, they stay unpaired. The throat width reactions then
+ * only update a CShape corresponding to the disk itself, see
+ * {@link tools.vitruv.methodologisttemplate.consistency.ThroatWidthReactionsHelper#reportUnresolvedCShape}.
+ *
+ * The index is an EMF adapter attached to the brake system and to its disks
+ * and calipers, and updates only the affected corners when components are
+ * added or removed or change their fitting position. Use
+ * {@link #getIndex(Brakesystem)} to obtain the index of a brake system.
+ */
+public class BrakeCornerIndex extends AdapterImpl {
+
+    /**
+     * A brake corner, the components of a brake system sharing a fitting
+     * position.
+     *
+     * @param brakesystem     the brake system
+     * @param fittingPosition the fitting position, may be null
+     */
+    public record Corner(Brakesystem brakesystem, String fittingPosition) {
+    }
+
+    private final Map<String, Set<BrakeDisk>> disks = new HashMap<>();
+    private final Map<String, Set<BrakeCaliper>> calipers = new HashMap<>();
+    private final Map<BrakeComponent, String> indexedPositions = new HashMap<>();
+
+    private Brakesystem brakesystem;
+
+    private BrakeCornerIndex() {
+        // Created through getIndex
+    }
+
+    /**
+     * Returns the index attached to the given brake system. If the brake
+     * system has no index yet, one is created from its current contents and
+     * attached.
+     *
+     * @param brakesystem the brake system to index
+     * @return the index of the brake system
+     */
+    public static BrakeCornerIndex getIndex(Brakesystem brakesystem) {
+        for (Adapter adapter : brakesystem.eAdapters()) {
+            if (adapter instanceof BrakeCornerIndex index) {
+                return index;
+            }
+        }
+        BrakeCornerIndex index = new BrakeCornerIndex();
+        brakesystem.eAdapters().add(index);
+        return index;
+    }
+
+    /**
+     * @param disk a brake disk, may be null
+     * @return the caliper paired with the disk, or null if the disk is not
+     *         contained in a brake system or its corner is not paired
+     */
+    public static BrakeCaliper getPairedCaliper(BrakeDisk disk) {
+        if (disk == null || !(disk.eContainer() instanceof Brakesystem system)) {
+            return null;
+        }
+        BrakeCornerIndex index = getIndex(system);
+        String position = disk.getFittingPosition();
+        return index.disks.getOrDefault(position, Set.of()).size() == 1
+                ? single(index.calipers.get(position))
+                : null;
+    }
+
+    /**
+     * @param caliper a brake caliper, may be null
+     * @return the disk paired with the caliper, or null if the caliper is not
+     *         contained in a brake system or its corner is not paired
+     */
+    public static BrakeDisk getPairedDisk(BrakeCaliper caliper) {
+        if (caliper == null || !(caliper.eContainer() instanceof Brakesystem system)) {
+            return null;
+        }
+        BrakeCornerIndex index = getIndex(system);
+        String position = caliper.getFittingPosition();
+        return index.calipers.getOrDefault(position, Set.of()).size() == 1
+                ? single(index.disks.get(position))
+                : null;
+    }
+
+    /**
+     * Returns the brake corner of a model element. Brake components and their
+     * contents, e.g. the pads of a caliper, belong to the corner of the top
+     * level component. Other elements, such as CAD elements, form a corner of
+     * their own.
+     *
+     * @param element a model element
+     * @return the {@link Corner} of the element, or the element itself
+     */
+    public static Object cornerOf(EObject element) {
+        EObject component = element;
+        while (component != null && !(component.eContainer() instanceof Brakesystem)) {
+            component = component.eContainer();
+        }
+        return component instanceof BrakeComponent topLevel
+                ? new Corner((Brakesystem) topLevel.eContainer(), topLevel.getFittingPosition())
+                : element;
+    }
+
+    @Override
+    public boolean isAdapterForType(Object type) {
+        return type == BrakeCornerIndex.class;
+    }
+
+    @Override
+    public void setTarget(Notifier newTarget) {
+        // The same adapter instance is attached to the brake system and its disks
+        // and calipers; only the brake system is kept as target.
+        if (newTarget instanceof Brakesystem system && brakesystem == null) {
+            brakesystem = system;
+            system.getBrakeComponents().forEach(this::attach);
+        }
+    }
+
+    @Override
+    public void unsetTarget(Notifier oldTarget) {
+        if (oldTarget == brakesystem) {
+            List.copyOf(indexedPositions.keySet()).forEach(this::detach);
+            brakesystem = null;
+        }
+    }
+
+    @Override
+    public void notifyChanged(Notification notification) {
+        if (notification.isTouch() || notification.getEventType() == Notification.RESOLVE
+                || notification.getEventType() == Notification.REMOVING_ADAPTER) {
+            return;
+        }
+        Object feature = notification.getFeature();
+        if (feature == BrakesystemPackage.Literals.BRAKESYSTEM__BRAKE_COMPONENTS) {
+            switch (notification.getEventType()) {
+                case Notification.ADD -> attach(notification.getNewValue());
+                case Notification.ADD_MANY -> ((Collection<?>) notification.getNewValue()).forEach(this::attach);
+                case Notification.REMOVE -> detach(notification.getOldValue());
+                case Notification.REMOVE_MANY -> ((Collection<?>) notification.getOldValue()).forEach(this::detach);
+                case Notification.SET, Notification.UNSET -> {
+                    detach(notification.getOldValue());
+                    attach(notification.getNewValue());
+                }
+                default -> {
+                    // MOVE does not affect the pairing
+                }
+            }
+        } else if (feature == BrakesystemPackage.Literals.BRAKE_COMPONENT__FITTING_POSITION
+                && notification.getNotifier() instanceof BrakeComponent component
+                && indexedPositions.containsKey(component)) {
+            unindex(component);
+            index(component);
+        }
+    }
+
+    private void attach(Object value) {
+        if (value instanceof BrakeDisk || value instanceof BrakeCaliper) {
+            BrakeComponent component = (BrakeComponent) value;
+            if (!component.eAdapters().contains(this)) {
+                component.eAdapters().add(this);
+            }
+            index(component);
+        }
+    }
+
+    private void detach(Object value) {
+        if (value instanceof BrakeComponent component && indexedPositions.containsKey(component)) {
+            component.eAdapters().remove(this);
+            unindex(component);
+        }
+    }
+
+    private void index(BrakeComponent component) {
+        String position = component.getFittingPosition();
+        indexedPositions.put(component, position);
+        if (component instanceof BrakeDisk disk) {
+            disks.computeIfAbsent(position, p -> new LinkedHashSet<>()).add(disk);
+        } else if (component instanceof BrakeCaliper caliper) {
+            calipers.computeIfAbsent(position, p -> new LinkedHashSet<>()).add(caliper);
+        }
+    }
+
+    private void unindex(BrakeComponent component) {
+        String position = indexedPositions.remove(component);
+        Map<String, ? extends Set<? extends BrakeComponent>> corners = component instanceof BrakeDisk
+                ? disks
+                : calipers;
+        Set<? extends BrakeComponent> corner = corners.get(position);
+        if (corner != null) {
+            corner.remove(component);
+            if (corner.isEmpty()) {
+                corners.remove(position);
+            }
+        }
+    }
+
+    private static <T> T single(Set<T> components) {
+        return components != null && components.size() == 1 ? components.iterator().next() : null;
+    }
+}
@@ -0,0 +1,72 @@
+package tools.vitruv.methodologisttemplate.consistency.propagation;
+
+import java.util.List;
+
+import tools.vitruv.methodologisttemplate.consistency.formula.Formula;
+import tools.vitruv.stoex.stoex.NormalDistribution;
+import tools.vitruv.stoex.stoex.StoexFactory;
+
+/**
+ * Closed form propagation of independent normally distributed inputs through a
+ * {@link Formula} without sampling (delta method). The mean includes the second
+ * order correction {@code 1/2 * f''(mu) * sigma^2} of every input, which makes
+ * it exact for formulas that are quadratic in each input, such as the clamping
+ * force. The variance is the first order approximation
+ * {@code sum of f'(mu)^2 * sigma^2}, exact for affine formulas. Inputs bound
+ * to the same expression are not independent, the {@link UncertaintyPropagator}
+ * samples them instead.
+ */
+public class AnalyticPropagator {
+
+    private AnalyticPropagator() {
+        // Utility class
+    }
+
+    /**
+     * @param inputs the formula inputs
+     * @return whether all inputs are constants or normal distributions
+     */
+    public static boolean supports(List<InputDistribution> inputs) {
+        return inputs.stream().allMatch(input -> input instanceof InputDistribution.Constant
+                || input instanceof InputDistribution.Normal);
+    }
+
+    /**
+     * Propagates the given inputs through the formula. The output is
+     * approximated by a normal distribution.
+     *
+     * @param formula the formula to evaluate
+     * @param inputs  constant or normal inputs, in parameter order
+     * @return the propagated result
+     */
+    public static PropagationResult propagate(Formula formula, List<InputDistribution> inputs) {
+        if (!supports(inputs)) {
+            throw new IllegalArgumentException("Analytic propagation requires constant or normal inputs");
+        }
+        double[] means = inputs.stream().mapToDouble(InputDistribution::mean).toArray();
+        double mean = formula.evaluate(means);
+        double variance = 0;
+        double sigma = 0;
+        int stochasticInputs = 0;
+        for (int i = 0; i < means.length; i++) {
+            if (inputs.get(i).isDeterministic()) {
+                continue;
+            }
+            double[] derivatives = formula.differentiate(i, means);
+            double inputVariance = inputs.get(i).variance();
+            mean += 0.5 * derivatives[2] * inputVariance;
+            variance += derivatives[1] * derivatives[1] * inputVariance;
+            sigma = Math.abs(derivatives[1]) * ((InputDistribution.Normal) inputs.get(i)).sigma();
+            stochasticInputs++;
+        }
+        if (stochasticInputs != 1) {
+            // With a single input, sigma is scaled directly to avoid rounding
+            sigma = Math.sqrt(variance);
+        }
+
+        NormalDistribution distribution = StoexFactory.eINSTANCE.createNormalDistribution();
+        distribution.setMu(mean);
+        distribution.setSigma(sigma);
+        return new PropagationResult(distribution, mean, PropagationMethod.ANALYTIC);
+    }
+}
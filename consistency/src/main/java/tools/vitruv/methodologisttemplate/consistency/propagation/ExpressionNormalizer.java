@@ -0,0 +1,222 @@
+package tools.vitruv.methodologisttemplate.consistency.propagation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import tools.vitruv.stoex.stoex.DoubleLiteral;
+import tools.vitruv.stoex.stoex.Expression;
+import tools.vitruv.stoex.stoex.IntLiteral;
+import tools.vitruv.stoex.stoex.NegativeExpression;
+import tools.vitruv.stoex.stoex.NormalDistribution;
+import tools.vitruv.stoex.stoex.Parenthesis;
+import tools.vitruv.stoex.stoex.PowerExpression;
+import tools.vitruv.stoex.stoex.ProductExpression;
+import tools.vitruv.stoex.stoex.ProductOperations;
+import tools.vitruv.stoex.stoex.SampledDistribution;
+import tools.vitruv.stoex.stoex.StoexFactory;
+import tools.vitruv.stoex.stoex.TermExpression;
+import tools.vitruv.stoex.stoex.TermOperations;
+
+/**
+ * Simplifies StoEx expressions before they are stored, so that derived
+ * expressions do not grow when they are recomputed from other derived
+ * expressions, e.g. by the {@code throatWidth + newValue - oldValue} update of
+ * every extrusion change:
+ * <ul>
+ * <li>constant subexpressions are folded into a single literal,</li>
+ * <li>chains of additions and multiplications with constants around a single
+ * subexpression are collapsed into {@code a * x + b},</li>
+ * <li>a shifted and scaled normal or sampled distribution is replaced by the
+ * distribution with the transformed parameters or values.</li>
+ * </ul>
+ * Subexpressions combining several stochastic terms are kept, only their
+ * operands are simplified. Integer literals stay integers as long as only
+ * additions, subtractions and multiplications are folded.
+ */
+public final class ExpressionNormalizer {
+
+    private ExpressionNormalizer() {
+        // Utility class
+    }
+
+    /**
+     * The expression {@code scale * atom + offset}, or the constant
+     * {@code offset} if the atom is null.
+     *
+     * @param integral whether scale and offset were folded from integer
+     *                 literals only
+     */
+    private record Affine(double scale, Expression atom, double offset, boolean integral) {
+
+        static Affine constant(double value, boolean integral) {
+            return new Affine(0, null, value, integral);
+        }
+
+        static Affine of(Expression atom) {
+            return new Affine(1, atom, 0, true);
+        }
+
+        boolean isConstant() {
+            return atom == null;
+        }
+
+        Affine times(double factor, boolean integralFactor) {
+            if (isConstant() || factor == 0) {
+                return constant(isConstant() ? offset * factor : 0, integral && integralFactor);
+            }
+            return new Affine(scale * factor, atom, offset * factor, integral && integralFactor);
+        }
+
+        /**
+         * @return the sum, or null if both summands are stochastic
+         */
+        Affine plus(Affine other) {
+            if (!isConstant() && !other.isConstant()) {
+                return null;
+            }
+            Affine variable = isConstant() ? other : this;
+            return new Affine(variable.scale, variable.atom, offset + other.offset, integral && other.integral);
+        }
+    }
+
+    /**
+     * Normalises the given expression. The expression is copied if it is
+     * contained in another object, otherwise it may be reused as part of the
+     * result and must not be used afterwards.
+     *
+     * @param expression the expression to normalise, may be null
+     * @return the normalised expression, which is not contained in any object
+     */
+    public static Expression normalize(Expression expression) {
+        if (expression == null) {
+            return null;
+        }
+        Expression detached = expression.eContainer() == null ? expression : EcoreUtil.copy(expression);
+        return toExpression(reduce(detached));
+    }
+
+    private static Affine reduce(Expression expression) {
+        if (expression instanceof IntLiteral literal) {
+            return Affine.constant(literal.getValue(), true);
+        }
+        if (expression instanceof DoubleLiteral literal) {
+            return Affine.constant(literal.getValue(), false);
+        }
+        if (expression instanceof Parenthesis parenthesis) {
+            return reduce(parenthesis.getInnerExpression());
+        }
+        if (expression instanceof NegativeExpression negative) {
+            return reduce(negative.getInner()).times(-1, true);
+        }
+        if (expression instanceof TermExpression term) {
+            return reduceTerm(term);
+        }
+        if (expression instanceof ProductExpression product) {
+            return reduceProduct(product);
+        }
+        if (expression instanceof PowerExpression power) {
+            Affine base = reduce(power.getBase());
+            Affine exponent = reduce(power.getExponent());
+            if (base.isConstant() && exponent.isConstant()) {
+                return Affine.constant(Math.pow(base.offset(), exponent.offset()), false);
+            }
+            power.setBase(toExpression(base));
+            power.setExponent(toExpression(exponent));
+            return Affine.of(power);
+        }
+        return Affine.of(expression);
+    }
+
+    private static Affine reduceTerm(TermExpression term) {
+        Affine left = reduce(term.getLeft());
+        Affine right = reduce(term.getRight());
+        Affine sum = left.plus(term.getOperation() == TermOperations.SUB ? right.times(-1, true) : right);
+        if (sum != null) {
+            return sum;
+        }
+        term.setLeft(toExpression(left));
+        term.setRight(toExpression(right));
+        return Affine.of(term);
+    }
+
+    private static Affine reduceProduct(ProductExpression product) {
+        Affine left = reduce(product.getLeft());
+        Affine right = reduce(product.getRight());
+        ProductOperations operation = product.getOperation();
+        if (operation == ProductOperations.MULT && left.isConstant()) {
+            return right.times(left.offset(), left.integral());
+        }
+        if (operation == ProductOperations.MULT && right.isConstant()) {
+            return left.times(right.offset(), right.integral());
+        }
+        if (operation == ProductOperations.DIV && right.isConstant() && right.offset() != 0) {
+            return left.times(1 / right.offset(), false);
+        }
+        if (operation == ProductOperations.MOD && left.isConstant() && right.isConstant()) {
+            return Affine.constant(left.offset() % right.offset(), left.integral() && right.integral());
+        }
+        product.setLeft(toExpression(left));
+        product.setRight(toExpression(right));
+        return Affine.of(product);
+    }
+
+    private static Expression toExpression(Affine affine) {
+        if (affine.isConstant()) {
+            return literal(affine.offset(), affine.integral());
+        }
+        double scale = affine.scale();
+        double offset = affine.offset();
+        if (affine.atom() instanceof NormalDistribution normal) {
+            if (scale != 1 || offset != 0) {
+                normal.setMu(scale * normal.getMu() + offset);
+                normal.setSigma(Math.abs(scale) * normal.getSigma());
+            }
+            return normal;
+        }
+        if (affine.atom() instanceof SampledDistribution sampled) {
+            if (scale != 1 || offset != 0) {
+                List<Double> values = new ArrayList<>(sampled.getValues().size());
+                for (double value : sampled.getValues()) {
+                    values.add(scale * value + offset);
+                }
+                sampled.getValues().clear();
+                sampled.getValues().addAll(values);
+            }
+            return sampled;
+        }
+
+        Expression result = affine.atom();
+        if (scale == -1) {
+            NegativeExpression negative = StoexFactory.eINSTANCE.createNegativeExpression();
+            negative.setInner(result);
+            result = negative;
+        } else if (scale != 1) {
+            ProductExpression product = StoexFactory.eINSTANCE.createProductExpression();
+            product.setOperation(ProductOperations.MULT);
+            product.setLeft(literal(scale, affine.integral()));
+            product.setRight(result);
+            result = product;
+        }
+        if (offset != 0) {
+            TermExpression term = StoexFactory.eINSTANCE.createTermExpression();
+            term.setOperation(offset > 0 ? TermOperations.ADD : TermOperations.SUB);
+            term.setLeft(result);
+            term.setRight(literal(Math.abs(offset), affine.integral()));
+            result = term;
+        }
+        return result;
+    }
+
+    private static Expression literal(double value, boolean integral) {
+        if (integral && value == Math.rint(value) && Math.abs(value) <= Integer.MAX_VALUE) {
+            IntLiteral literal = StoexFactory.eINSTANCE.createIntLiteral();
+            literal.setValue((int) value);
+            return literal;
+        }
+        DoubleLiteral literal = StoexFactory.eINSTANCE.createDoubleLiteral();
+        literal.setValue(value);
+        return literal;
+    }
+}
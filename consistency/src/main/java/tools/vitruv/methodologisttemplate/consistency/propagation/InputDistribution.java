@@ -0,0 +1,198 @@
+package tools.vitruv.methodologisttemplate.consistency.propagation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import tools.vitruv.stoex.stoex.DoubleLiteral;
+import tools.vitruv.stoex.stoex.IntLiteral;
+import tools.vitruv.stoex.stoex.NormalDistribution;
+import tools.vitruv.stoex.stoex.SampledDistribution;
+
+/**
+ * Primitive representation of a formula input for uncertainty propagation.
+ * Inputs are either deterministic constants or one of the StoEx distributions
+ * the propagation engines support natively.
+ */
+public sealed interface InputDistribution {
+
+    /**
+     * @return the mean of the input
+     */
+    double mean();
+
+    /**
+     * @return the variance of the input
+     */
+    double variance();
+
+    /**
+     * Draws independent samples of this input.
+     *
+     * @param random the random number generator to draw from
+     * @param target receives the samples
+     * @param length the number of samples to draw
+     */
+    void sample(SplittableRandom random, double[] target, int length);
+
+    /**
+     * Inverts the distribution function of this input, which turns uniform
+     * probabilities into samples of this input.
+     *
+     * @param probability a probability in [0, 1]
+     * @return the smallest value whose cumulative probability is at least the
+     *         given one
+     */
+    double quantile(double probability);
+
+    /**
+     * @return whether the input is a deterministic constant
+     */
+    default boolean isDeterministic() {
+        return this instanceof Constant;
+    }
+
+    /**
+     * Converts a formula binding into an input distribution.
+     *
+     * @param value a {@link Number}, numeric literal, {@link NormalDistribution}
+     *              or {@link SampledDistribution}
+     * @return the input distribution, or null if the value is not supported
+     */
+    static InputDistribution of(Object value) {
+        if (value instanceof Number number) {
+            return new Constant(number.doubleValue());
+        }
+        if (value instanceof IntLiteral literal) {
+            return new Constant(literal.getValue());
+        }
+        if (value instanceof DoubleLiteral literal) {
+            return new Constant(literal.getValue());
+        }
+        if (value instanceof NormalDistribution normal) {
+            return new Normal(normal.getMu(), normal.getSigma());
+        }
+        if (value instanceof SampledDistribution sampled && !sampled.getValues().isEmpty()) {
+            return new Empirical(sampled.getValues().stream().mapToDouble(Double::doubleValue).toArray());
+        }
+        return null;
+    }
+
+    record Constant(double value) implements InputDistribution {
+        @Override
+        public double mean() {
+            return value;
+        }
+
+        @Override
+        public double variance() {
+            return 0;
+        }
+
+        @Override
+        public void sample(SplittableRandom random, double[] target, int length) {
+            Arrays.fill(target, 0, length, value);
+        }
+
+        @Override
+        public double quantile(double probability) {
+            return value;
+        }
+    }
+
+    record Normal(double mu, double sigma) implements InputDistribution {
+        @Override
+        public double mean() {
+            return mu;
+        }
+
+        @Override
+        public double variance() {
+            return sigma * sigma;
+        }
+
+        @Override
+        public void sample(SplittableRandom random, double[] target, int length) {
+            for (int i = 0; i < length; i++) {
+                target[i] = mu + sigma * random.nextGaussian();
+            }
+        }
+
+        @Override
+        public double quantile(double probability) {
+            return mu + sigma * standardQuantile(probability);
+        }
+
+        /**
+         * Approximates the quantile function of the standard normal distribution
+         * with a relative error below 1.2e-9 (P. J. Acklam's algorithm). The
+         * probability is clamped to the open interval (0, 1).
+         */
+        static double standardQuantile(double probability) {
+            double p = Math.min(Math.max(probability, Double.MIN_VALUE), 1 - 0x1p-53);
+            if (p < 0.02425) {
+                double q = Math.sqrt(-2 * Math.log(p));
+                return tail(q);
+            }
+            if (p > 1 - 0.02425) {
+                double q = Math.sqrt(-2 * Math.log(1 - p));
+                return -tail(q);
+            }
+            double q = p - 0.5;
+            double r = q * q;
+            return (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r - 2.759285104469687e+02) * r
+                    + 1.383577518672690e+02) * r - 3.066479806614716e+01) * r + 2.506628277459239e+00) * q
+                    / (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r - 1.556989798598866e+02) * r
+                            + 6.680131188771972e+01) * r - 1.328068155288572e+01) * r + 1);
+        }
+
+        private static double tail(double q) {
+            return (((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q - 2.400758277161838e+00) * q
+                    - 2.549732539343734e+00) * q + 4.374664141464968e+00) * q + 2.938163982698783e+00)
+                    / ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q + 2.445134137142996e+00) * q
+                            + 3.754408661907416e+00) * q + 1);
+        }
+    }
+
+    /**
+     * Discrete uniform distribution over the values of a
+     * {@link SampledDistribution}. The values are kept sorted.
+     */
+    record Empirical(double[] values) implements InputDistribution {
+
+        public Empirical {
+            values = values.clone();
+            Arrays.sort(values);
+        }
+
+        @Override
+        public double mean() {
+            double sum = 0;
+            for (double value : values) {
+                sum += value;
+            }
+            return sum / values.length;
+        }
+
+        @Override
+        public double variance() {
+            double mean = mean();
+            double sum = 0;
+            for (double value : values) {
+                sum += (value - mean) * (value - mean);
+            }
+            return sum / values.length;
+        }
+
+        @Override
+        public void sample(SplittableRandom random, double[] target, int length) {
+            for (int i = 0; i < length; i++) {
+                target[i] = values[random.nextInt(values.length)];
+            }
+        }
+
+        @Override
+        public double quantile(double probability) {
+            return values[Math.min(values.length - 1, Math.max(0, (int) (probability * values.length)))];
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package tools.vitruv.methodologisttemplate.consistency.propagation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import tools.vitruv.methodologisttemplate.consistency.formula.Formula;
+
+/**
+ * Monte Carlo propagation of uncertain inputs through a compiled
+ * {@link Formula}. Samples are kept in primitive arrays and the formula is
+ * evaluated over whole blocks of samples. Blocks are processed in parallel on
+ * a {@link ForkJoinPool}.
+ *
+ * Random streams are split deterministically along the fork-join tree, so a
+ * given seed and sample count always yield the same samples regardless of the
+ * number of worker threads. The {@link SamplingStrategy} decides how the
+ * samples of the inputs are drawn; with a target standard error, the engine
+ * picks the sample count itself.
+ */
+public final class MonteCarloEngine {
+
+    /**
+     * Default number of samples, can be overridden with the system property
+     * {@value #SAMPLE_COUNT_PROPERTY}.
+     */
+    public static final int DEFAULT_SAMPLE_COUNT = 10_000;
+
+    public static final String SAMPLE_COUNT_PROPERTY = "brakesystem.montecarlo.samples";
+
+    /**
+     * The sampling strategy of the default engine, one of the
+     * {@link SamplingStrategy} names, {@code LATIN_HYPERCUBE} by default.
+     */
+    public static final String SAMPLING_PROPERTY = "brakesystem.montecarlo.sampling";
+
+    /**
+     * The maximum number of samples drawn to reach a target standard error.
+     */
+    public static final int MAX_SAMPLE_COUNT = 1 << 20;
+
+    private static final int MIN_SAMPLE_COUNT = 64;
+    private static final int PILOT_SAMPLE_COUNT = 1_024;
+    private static final int REPLICATES = 8;
+
+    private static final long DEFAULT_SEED = 0x5EED_B4A4EL;
+    private static final long STRATA_SEED = 0x57_2A7AL;
+    private static final int BLOCK_SIZE = 1_024;
+
+    private static volatile MonteCarloEngine defaultEngine = new MonteCarloEngine(
+            Integer.getInteger(SAMPLE_COUNT_PROPERTY, DEFAULT_SAMPLE_COUNT), DEFAULT_SEED, ForkJoinPool.commonPool(),
+            SamplingStrategy.valueOf(System.getProperty(SAMPLING_PROPERTY, SamplingStrategy.LATIN_HYPERCUBE.name())));
+
+    private final int sampleCount;
+    private final long seed;
+    private final ForkJoinPool pool;
+    private final SamplingStrategy sampling;
+    private final double targetStandardError;
+
+    /**
+     * Creates an engine drawing plain random samples.
+     *
+     * @param sampleCount the number of samples drawn per propagation
+     * @param seed        the seed of the random streams
+     * @param pool        the pool the sample blocks are evaluated on
+     */
+    public MonteCarloEngine(int sampleCount, long seed, ForkJoinPool pool) {
+        this(sampleCount, seed, pool, SamplingStrategy.PLAIN);
+    }
+
+    /**
+     * @param sampleCount the number of samples drawn per propagation
+     * @param seed        the seed of the random streams
+     * @param pool        the pool the sample blocks are evaluated on
+     * @param sampling    the way the samples of the inputs are drawn
+     */
+    public MonteCarloEngine(int sampleCount, long seed, ForkJoinPool pool, SamplingStrategy sampling) {
+        this(sampleCount, seed, pool, sampling, 0);
+    }
+
+    private MonteCarloEngine(int sampleCount, long seed, ForkJoinPool pool, SamplingStrategy sampling,
+            double targetStandardError) {
+        if (sampleCount < 1) {
+            throw new IllegalArgumentException("Sample count must be positive but was " + sampleCount);
+        }
+        if (targetStandardError < 0) {
+            throw new IllegalArgumentException(
+                    "Target standard error must not be negative but was " + targetStandardError);
+        }
+        this.sampleCount = sampleCount;
+        this.seed = seed;
+        this.pool = pool;
+        this.sampling = sampling;
+        this.targetStandardError = targetStandardError;
+    }
+
+    /**
+     * @return the engine used by the consistency helpers
+     */
+    public static MonteCarloEngine getDefault() {
+        return defaultEngine;
+    }
+
+    /**
+     * Replaces the engine used by the consistency helpers, e.g. to change the
+     * sample count.
+     *
+     * @param engine the new default engine
+     */
+    public static void setDefault(MonteCarloEngine engine) {
+        defaultEngine = engine;
+    }
+
+    /**
+     * @param newSampleCount the number of samples of the new engine
+     * @return an engine with the same seed and pool but a different sample count
+     */
+    public MonteCarloEngine withSampleCount(int newSampleCount) {
+        return new MonteCarloEngine(newSampleCount, seed, pool, sampling, targetStandardError);
+    }
+
+    /**
+     * @param newSampling the sampling strategy of the new engine
+     * @return an engine that only differs in the sampling strategy
+     */
+    public MonteCarloEngine withSampling(SamplingStrategy newSampling) {
+        return new MonteCarloEngine(sampleCount, seed, pool, newSampling, targetStandardError);
+    }
+
+    /**
+     * Returns an engine that draws as few samples as needed for the given
+     * standard error of the mean, see {@link #propagateToAccuracy}, instead of
+     * a fixed number of samples.
+     *
+     * @param newTargetStandardError the standard error to reach, 0 to draw the
+     *                               fixed sample count
+     * @return an engine that only differs in the target standard error
+     */
+    public MonteCarloEngine withTargetStandardError(double newTargetStandardError) {
+        return new MonteCarloEngine(sampleCount, seed, pool, sampling, newTargetStandardError);
+    }
+
+    /**
+     * @return the number of samples drawn per propagation without a target
+     *         standard error
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return the way the samples of the inputs are drawn
+     */
+    public SamplingStrategy getSampling() {
+        return sampling;
+    }
+
+    /**
+     * @return the standard error the propagations reach, 0 if a fixed number
+     *         of samples is drawn
+     */
+    public double getTargetStandardError() {
+        return targetStandardError;
+    }
+
+    /**
+     * Propagates independent inputs through the formula.
+     *
+     * @param formula the formula to evaluate
+     * @param inputs  one input per formula parameter, in parameter order
+     * @return the output samples
+     */
+    public MonteCarloResult propagate(Formula formula, List<InputDistribution> inputs) {
+        int[] streams = new int[inputs.size()];
+        Arrays.setAll(streams, i -> i);
+        return propagate(formula, inputs, streams);
+    }
+
+    /**
+     * Propagates the given inputs through the formula. Each input is drawn
+     * from the random stream with the given index. Inputs sharing a stream are
+     * drawn at the same probabilities, so an uncertain value bound to several
+     * parameters is sampled consistently. As the streams do not depend on the
+     * other inputs, propagations of the same engine use common random numbers:
+     * the results before and after a change of one input differ by the effect
+     * of the change, not by independent sampling noise.
+     *
+     * @param formula the formula to evaluate
+     * @param inputs  one input per formula parameter, in parameter order
+     * @param streams the non-negative stream index of every input
+     * @return the output samples
+     */
+    public MonteCarloResult propagate(Formula formula, List<InputDistribution> inputs, int[] streams) {
+        if (targetStandardError > 0) {
+            return propagateToAccuracy(formula, inputs, streams, targetStandardError);
+        }
+        return sample(formula, inputs, streams, sampleCount);
+    }
+
+    /**
+     * Propagates the given inputs with the smallest number of samples whose
+     * standard error of the mean does not exceed the target. The sample count
+     * is estimated from a pilot run, as the standard error falls with the
+     * square root of the sample count; it is increased further if the
+     * estimate falls short. At most {@value #MAX_SAMPLE_COUNT} samples are
+     * drawn, so the result may miss a target that is too small.
+     *
+     * @param formula             the formula to evaluate
+     * @param inputs              one input per formula parameter, in parameter
+     *                            order
+     * @param streams             the stream index of every input, see
+     *                            {@link #propagate(Formula, List, int[])}
+     * @param targetStandardError the standard error of the mean to reach
+     * @return the output samples
+     */
+    public MonteCarloResult propagateToAccuracy(Formula formula, List<InputDistribution> inputs, int[] streams,
+            double targetStandardError) {
+        if (!(targetStandardError > 0)) {
+            throw new IllegalArgumentException(
+                    "Target standard error must be positive but was " + targetStandardError);
+        }
+        MonteCarloResult pilot = sample(formula, inputs, streams, PILOT_SAMPLE_COUNT);
+        int count = requiredSampleCount(pilot, targetStandardError);
+        MonteCarloResult result = count == PILOT_SAMPLE_COUNT ? pilot : sample(formula, inputs, streams, count);
+        while (result.getStandardError() > targetStandardError && count < MAX_SAMPLE_COUNT) {
+            count = Math.max(requiredSampleCount(result, targetStandardError),
+                    (int) Math.min(MAX_SAMPLE_COUNT, count + count / 4L));
+            result = sample(formula, inputs, streams, count);
+        }
+        return result;
+    }
+
+    private static int requiredSampleCount(MonteCarloResult result, double targetStandardError) {
+        double ratio = result.getStandardError() / targetStandardError;
+        double required = Math.ceil(result.getSampleCount() * ratio * ratio);
+        return (int) Math.min(MAX_SAMPLE_COUNT, Math.max(MIN_SAMPLE_COUNT, required));
+    }
+
+    private MonteCarloResult sample(Formula formula, List<InputDistribution> inputs, int[] streams, int count) {
+        if (inputs.size() != formula.getParameters().size()) {
+            throw new IllegalArgumentException("Formula '" + formula + "' expects "
+                    + formula.getParameters().size() + " inputs but got " + inputs.size());
+        }
+        if (streams.length != inputs.size() || Arrays.stream(streams).anyMatch(stream -> stream < 0)) {
+            throw new IllegalArgumentException("Expected a non-negative stream index for each of the "
+                    + inputs.size() + " inputs but got " + Arrays.toString(streams));
+        }
+        Plan plan = Plan.of(formula, inputs, streams, sampling, count, seed);
+        double[] samples = new double[count];
+        SampleBlockTask task = new SampleBlockTask(plan, samples, 0, count, new SplittableRandom(seed));
+        if (count <= BLOCK_SIZE) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return new MonteCarloResult(samples, plan.standardError(samples));
+    }
+
+    /**
+     * What every block of a propagation needs to draw its samples.
+     *
+     * @param streamCount the number of distinct random streams
+     * @param inverse     whether the inputs are sampled by inverting their
+     *                    distribution functions
+     * @param replicates  the number of independent Latin hypercube replicates
+     * @param strata      the stratum of every sample within its replicate, per
+     *                    stream, or null without Latin hypercube sampling
+     */
+    private record Plan(Formula formula, List<InputDistribution> inputs, int[] streams, int streamCount,
+            SamplingStrategy sampling, boolean inverse, int sampleCount, int replicates, int[][] strata) {
+
+        static Plan of(Formula formula, List<InputDistribution> inputs, int[] streams, SamplingStrategy sampling,
+                int sampleCount, long seed) {
+            int streamCount = Arrays.stream(streams).max().orElse(-1) + 1;
+            // Shared streams need common probabilities, which plain sampling
+            // does not draw
+            boolean shared = Arrays.stream(streams).distinct().count() < streams.length;
+            boolean inverse = sampling != SamplingStrategy.PLAIN || shared;
+            if (sampling != SamplingStrategy.LATIN_HYPERCUBE) {
+                return new Plan(formula, inputs, streams, streamCount, sampling, inverse, sampleCount, 1, null);
+            }
+            int replicates = Math.max(1, Math.min(REPLICATES, sampleCount / 2));
+            int[][] strata = new int[streamCount][];
+            SplittableRandom random = new SplittableRandom(seed ^ STRATA_SEED);
+            for (int stream = 0; stream < streamCount; stream++) {
+                SplittableRandom streamRandom = random.split();
+                strata[stream] = new int[sampleCount];
+                for (int replicate = 0; replicate < replicates; replicate++) {
+                    int from = start(replicate, replicates, sampleCount);
+                    shuffleStrata(strata[stream], from, start(replicate + 1, replicates, sampleCount),
+                            streamRandom);
+                }
+            }
+            return new Plan(formula, inputs, streams, streamCount, sampling, inverse, sampleCount, replicates,
+                    strata);
+        }
+
+        /**
+         * Draws the probabilities of one stream for the samples from the given
+         * index on.
+         */
+        double[] probabilities(int stream, SplittableRandom random, int from, int length) {
+            double[] probabilities = new double[length];
+            switch (sampling) {
+                case PLAIN -> {
+                    for (int i = 0; i < length; i++) {
+                        probabilities[i] = random.nextDouble();
+                    }
+                }
+                case ANTITHETIC -> {
+                    // Blocks start at even indices, so pairs never span blocks
+                    for (int i = 0; i < length; i += 2) {
+                        probabilities[i] = random.nextDouble();
+                        if (i + 1 < length) {
+                            probabilities[i + 1] = 1 - probabilities[i];
+                        }
+                    }
+                }
+                case LATIN_HYPERCUBE -> {
+                    for (int i = 0; i < length; i++) {
+                        int replicate = replicateOf(from + i);
+                        int size = start(replicate + 1, replicates, sampleCount)
+                                - start(replicate, replicates, sampleCount);
+                        probabilities[i] = (strata[stream][from + i] + random.nextDouble()) / size;
+                    }
+                }
+            }
+            return probabilities;
+        }
+
+        /**
+         * Estimates the standard error of the mean with the pairs of antithetic
+         * samples or the replicates of Latin hypercube samples as independent
+         * observations.
+         */
+        double standardError(double[] samples) {
+            if (sampling == SamplingStrategy.ANTITHETIC && samples.length >= 4) {
+                double[] pairMeans = new double[samples.length / 2];
+                for (int i = 0; i < pairMeans.length; i++) {
+                    pairMeans[i] = (samples[2 * i] + samples[2 * i + 1]) / 2;
+                }
+                return standardErrorOfMeans(pairMeans);
+            }
+            if (sampling == SamplingStrategy.LATIN_HYPERCUBE && replicates > 1) {
+                double[] replicateMeans = new double[replicates];
+                for (int replicate = 0; replicate < replicates; replicate++) {
+                    int from = start(replicate, replicates, sampleCount);
+                    int to = start(replicate + 1, replicates, sampleCount);
+                    double sum = 0;
+                    for (int i = from; i < to; i++) {
+                        sum += samples[i];
+                    }
+                    replicateMeans[replicate] = sum / (to - from);
+                }
+                return standardErrorOfMeans(replicateMeans);
+            }
+            return Double.NaN;
+        }
+
+        private int replicateOf(int index) {
+            return (int) (((index + 1L) * replicates - 1) / sampleCount);
+        }
+
+        private static int start(int replicate, int replicates, int sampleCount) {
+            return (int) ((long) replicate * sampleCount / replicates);
+        }
+
+        private static void shuffleStrata(int[] strata, int from, int to, SplittableRandom random) {
+            for (int i = from; i < to; i++) {
+                strata[i] = i - from;
+            }
+            for (int i = to - 1; i > from; i--) {
+                int j = from + random.nextInt(i - from + 1);
+                int stratum = strata[i];
+                strata[i] = strata[j];
+                strata[j] = stratum;
+            }
+        }
+
+        private static double standardErrorOfMeans(double[] means) {
+            double sum = 0;
+            for (double mean : means) {
+                sum += mean;
+            }
+            double mean = sum / means.length;
+            double squares = 0;
+            for (double value : means) {
+                squares += (value - mean) * (value - mean);
+            }
+            return Math.sqrt(squares / (means.length - 1) / means.length);
+        }
+    }
+
+    private static final class SampleBlockTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Plan plan;
+        private final double[] samples;
+        private final int from;
+        private final int to;
+        private final transient SplittableRandom random;
+
+        SampleBlockTask(Plan plan, double[] samples, int from, int to, SplittableRandom random) {
+            this.plan = plan;
+            this.samples = samples;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            int length = to - from;
+            if (length > BLOCK_SIZE) {
+                // Even block boundaries keep antithetic pairs within a block
+                int middle = from + (length / 2 & ~1);
+                // Split before forking so the streams only depend on the range
+                SplittableRandom rightRandom = random.split();
+                invokeAll(new SampleBlockTask(plan, samples, from, middle, random),
+                        new SampleBlockTask(plan, samples, middle, to, rightRandom));
+                return;
+            }
+            List<InputDistribution> inputs = plan.inputs();
+            double[][] columns = new double[inputs.size()][length];
+            if (!plan.inverse()) {
+                for (int i = 0; i < columns.length; i++) {
+                    inputs.get(i).sample(random, columns[i], length);
+                }
+            } else {
+                // The n-th split only depends on this block, not on the number of
+                // streams
+                double[][] probabilities = new double[plan.streamCount()][];
+                for (int stream = 0; stream < probabilities.length; stream++) {
+                    probabilities[stream] = plan.probabilities(stream, random.split(), from, length);
+                }
+                for (int i = 0; i < columns.length; i++) {
+                    InputDistribution input = inputs.get(i);
+                    double[] streamProbabilities = probabilities[plan.streams()[i]];
+                    for (int k = 0; k < length; k++) {
+                        columns[i][k] = input.quantile(streamProbabilities[k]);
+                    }
+                }
+            }
+            System.arraycopy(plan.formula().evaluate(columns, length), 0, samples, from, length);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package tools.vitruv.methodologisttemplate.consistency.propagation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import tools.vitruv.stoex.stoex.SampledDistribution;
+import tools.vitruv.stoex.stoex.StoexFactory;
+
+/**
+ * Samples of a formula output produced by the {@link MonteCarloEngine},
+ * together with their summary statistics.
+ */
+public final class MonteCarloResult {
+
+    /**
+     * The number of quantiles {@link #toExpression()} summarizes the samples by.
+     */
+    public static final int SUMMARY_QUANTILES = 100;
+
+    private final double[] samples;
+    private final double mean;
+    private final double variance;
+    private final double standardError;
+
+    MonteCarloResult(double[] samples) {
+        this(samples, Double.NaN);
+    }
+
+    /**
+     * @param samples       the output samples
+     * @param standardError the standard error of the mean estimated for the
+     *                      sampling strategy, NaN for independent samples
+     */
+    MonteCarloResult(double[] samples, double standardError) {
+        this.samples = samples;
+        double sum = 0;
+        for (double sample : samples) {
+            sum += sample;
+        }
+        this.mean = sum / samples.length;
+        double squares = 0;
+        for (double sample : samples) {
+            squares += (sample - mean) * (sample - mean);
+        }
+        this.variance = samples.length > 1 ? squares / (samples.length - 1) : 0;
+        this.standardError = Double.isNaN(standardError) ? Math.sqrt(variance / samples.length) : standardError;
+    }
+
+    /**
+     * @return the output samples; the array is not copied and must not be
+     *         modified
+     */
+    public double[] getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return the number of samples
+     */
+    public int getSampleCount() {
+        return samples.length;
+    }
+
+    /**
+     * @return the sample mean
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the unbiased sample variance
+     */
+    public double getVariance() {
+        return variance;
+    }
+
+    /**
+     * @return the standard error of the sample mean, which is lower than
+     *         {@code sqrt(variance / n)} if the samples were drawn with variance
+     *         reduction
+     */
+    public double getStandardError() {
+        return standardError;
+    }
+
+    /**
+     * Summarizes the samples by {@link #SUMMARY_QUANTILES} equally probable
+     * quantiles, so the size of the stored expression does not depend on the
+     * sample count. The quantiles are shifted to have the sample mean.
+     *
+     * @return a new StoEx {@link SampledDistribution} holding the quantiles
+     */
+    public SampledDistribution toExpression() {
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        int count = Math.min(SUMMARY_QUANTILES, sorted.length);
+        double[] quantiles = new double[count];
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            quantiles[i] = sorted[(int) ((i + 0.5) * sorted.length / count)];
+            sum += quantiles[i];
+        }
+        double shift = mean - sum / count;
+        List<Double> values = new ArrayList<>(count);
+        for (double quantile : quantiles) {
+            values.add(quantile + shift);
+        }
+        SampledDistribution distribution = StoexFactory.eINSTANCE.createSampledDistribution();
+        distribution.getValues().addAll(values);
+        return distribution;
+    }
+}
@@ -0,0 +1,13 @@
+package tools.vitruv.methodologisttemplate.consistency.propagation;
+
+/**
+ * The way a {@link PropagationResult} was obtained.
+ */
+public enum PropagationMethod {
+    /** Computed in closed form by the {@link AnalyticPropagator}. */
+    ANALYTIC,
+    /** Samples drawn and evaluated by the {@link MonteCarloEngine}. */
+    MONTE_CARLO,
+    /** Evaluated by the StoEx interpreter. */
+    INTERPRETER
+}
@@ -0,0 +1,13 @@
+package tools.vitruv.methodologisttemplate.consistency.propagation;
+
+import tools.vitruv.stoex.stoex.Expression;
+
+/**
+ * Result of propagating uncertain inputs through a formula.
+ *
+ * @param expression the StoEx expression describing the output
+ * @param mean       the mean of the output
+ * @param method     the way the result was computed
+ */
+public record PropagationResult(Expression expression, double mean, PropagationMethod method) {
+}
@@ -0,0 +1,24 @@
+package tools.vitruv.methodologisttemplate.consistency.propagation;
+
+/**
+ * The way the {@link MonteCarloEngine} draws the samples of its inputs.
+ * Except for {@link #PLAIN}, the samples are drawn by inverting the
+ * distribution function of each input at stratified or mirrored
+ * probabilities, which lowers the standard error of the mean for the same
+ * number of samples.
+ */
+public enum SamplingStrategy {
+    /** Independent random samples. */
+    PLAIN,
+    /**
+     * Pairs of samples at the probabilities {@code u} and {@code 1 - u}, whose
+     * errors cancel for formulas that are monotone in their inputs.
+     */
+    ANTITHETIC,
+    /**
+     * One sample per equally probable stratum of every input, with the strata
+     * of the inputs combined in random order. The samples are split into
+     * independent replicates to estimate the standard error.
+     */
+    LATIN_HYPERCUBE
+}
@@ -0,0 +1,144 @@
+package tools.vitruv.methodologisttemplate.consistency.propagation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import tools.vitruv.methodologisttemplate.consistency.formula.Formula;
+import tools.vitruv.methodologisttemplate.consistency.formula.FormulaRegistry;
+import tools.vitruv.stoex.stoex.Expression;
+
+/**
+ * Entry point for propagating uncertain parameter values through a derived
+ * parameter formula. Independent normal and constant inputs are propagated in
+ * closed form by the {@link AnalyticPropagator}, other inputs that the
+ * {@link MonteCarloEngine} supports are sampled natively and any other StoEx
+ * expression is left to the StoEx interpreter. A normal expression bound to
+ * several parameters makes them dependent, such inputs are sampled as well.
+ */
+public class UncertaintyPropagator {
+
+    private UncertaintyPropagator() {
+        // Utility class
+    }
+
+    /**
+     * Propagates the given values through the formula.
+     *
+     * @param formula the formula to evaluate
+     * @param values  the parameter values in parameter order, each either a
+     *                {@link Number} or a StoEx {@link Expression}
+     * @return the propagated result, {@link PropagationResult#method()} tells
+     *         which path was taken
+     */
+    public static PropagationResult propagate(Formula formula, Object... values) {
+        List<InputDistribution> inputs = toInputs(values);
+        if (inputs != null && inputs.stream().anyMatch(input -> !input.isDeterministic())) {
+            int[] streams = streams(values);
+            if (AnalyticPropagator.supports(inputs) && isIndependent(inputs, streams)) {
+                return AnalyticPropagator.propagate(formula, inputs);
+            }
+            return propagateMonteCarlo(formula, inputs, streams);
+        }
+        return propagateInterpreter(formula, values);
+    }
+
+    /**
+     * Propagates the given values through the formula with the StoEx
+     * interpreter.
+     *
+     * @param formula the formula to evaluate
+     * @param values  the parameter values in parameter order
+     * @return the propagated result
+     */
+    public static PropagationResult propagateInterpreter(Formula formula, Object... values) {
+        Expression result = formula.evaluateStochastic(values);
+        double mean = FormulaRegistry.interpreter().getMean(result).doubleValue();
+        return new PropagationResult(result, mean, PropagationMethod.INTERPRETER);
+    }
+
+    static PropagationResult propagateMonteCarlo(Formula formula, List<InputDistribution> inputs, int[] streams) {
+        MonteCarloResult result = MonteCarloEngine.getDefault().propagate(formula, inputs, streams);
+        return new PropagationResult(result.toExpression(), result.getMean(), PropagationMethod.MONTE_CARLO);
+    }
+
+    /**
+     * The same expression bound to several parameters is one uncertain value,
+     * so its samples are drawn from a shared random stream.
+     *
+     * @return the random stream index of every value
+     */
+    static int[] streams(Object... values) {
+        int[] streams = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            streams[i] = i;
+            for (int j = 0; j < i; j++) {
+                if (values[i] instanceof Expression && values[j] == values[i]) {
+                    streams[i] = streams[j];
+                    break;
+                }
+            }
+        }
+        return streams;
+    }
+
+    /**
+     * @return whether no stochastic input shares the random stream of another
+     *         input, which the {@link AnalyticPropagator} requires
+     */
+    private static boolean isIndependent(List<InputDistribution> inputs, int[] streams) {
+        for (int i = 0; i < streams.length; i++) {
+            if (streams[i] != i && !inputs.get(i).isDeterministic()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the expressions among the given values, so that they can be
+     * propagated on another thread while the model they are contained in
+     * changes. An expression bound to several parameters is copied once, so
+     * that its copies still share a random stream, see
+     * {@link #streams(Object...)}.
+     *
+     * @param values the parameter values, each either a {@link Number} or a
+     *               StoEx {@link Expression}
+     * @return the values with every expression replaced by its copy
+     */
+    public static Object[] copyValues(Object... values) {
+        Map<Expression, Expression> copies = new IdentityHashMap<>();
+        Object[] copied = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            copied[i] = values[i] instanceof Expression expression
+                    ? copies.computeIfAbsent(expression, EcoreUtil::copy)
+                    : values[i];
+        }
+        return copied;
+    }
+
+    /**
+     * Expressions that are no supported distribution are normalised first, a
+     * shifted or scaled distribution is then propagated like the distribution
+     * itself.
+     *
+     * @return the inputs, or null if one of the values is not supported
+     */
+    static List<InputDistribution> toInputs(Object... values) {
+        List<InputDistribution> inputs = new ArrayList<>(values.length);
+        for (Object value : values) {
+            InputDistribution input = InputDistribution.of(value);
+            if (input == null && value instanceof Expression expression) {
+                input = InputDistribution.of(ExpressionNormalizer.normalize(expression));
+            }
+            if (input == null) {
+                return null;
+            }
+            inputs.add(input);
+        }
+        return inputs;
+    }
+}
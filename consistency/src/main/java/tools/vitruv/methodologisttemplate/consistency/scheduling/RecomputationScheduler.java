@@ -0,0 +1,407 @@
+package tools.vitruv.methodologisttemplate.consistency.scheduling;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.eclipse.emf.ecore.EObject;
+
+import tools.vitruv.methodologisttemplate.consistency.pairing.BrakeCornerIndex;
+
+/**
+ * Dirty set of model elements whose derived values have to be recomputed.
+ * Reactions only mark an element as dirty; the recomputation runs once per
+ * element when the scheduler is flushed.
+ *
+ * Outside of {@link #coalesce(Runnable)} every mark is flushed immediately.
+ * In a VSUM, the specifications of
+ * {@link tools.vitruv.methodologisttemplate.consistency.lifecycle.BrakeSystemSpecifications}
+ * run every propagation step within {@link #coalesce(Runnable)}, so all
+ * recomputations marked by the reactions of one step are flushed once at its
+ * end, while the changes they write are still recorded and propagated.
+ * Recomputations marked with a fingerprint are skipped if the fingerprint
+ * equals the one of the last recomputation of that element, which coalesces
+ * e.g. a caliper that is marked again by the recomputations of its own flush
+ * with unchanged inputs into one recomputation. The fingerprints are only
+ * valid within one flush: undo, redo or changes outside of the VSUM may alter
+ * the derived values without passing the scheduler, so they are cleared when
+ * the outermost flush, and thereby the outermost {@link #coalesce(Runnable)},
+ * ends.
+ *
+ * Recomputations can be split into a resolution that reads the inputs from
+ * the model, a computation on these inputs and an application that writes
+ * its result. The computations of one flush are partitioned into independent
+ * groups, by default the brake corners of
+ * {@link BrakeCornerIndex#cornerOf(EObject)}, and the groups are computed
+ * concurrently on a {@link ForkJoinPool}. Resolutions and applications run
+ * on the flushing thread in the order the elements were marked, so the model
+ * changes are the same as with a sequential flush. Recomputations that are
+ * not split act as barriers: they run after all computations marked before
+ * them have been applied.
+ *
+ * Schedulers are confined to a thread, see {@link #current()}. Computations
+ * run on other threads and must not access the model, its indices or the
+ * scheduler: EMF models are not thread-safe, so a resolution has to copy
+ * everything its computation reads, e.g. expressions with
+ * {@link tools.vitruv.methodologisttemplate.consistency.propagation.UncertaintyPropagator#copyValues(Object...)}.
+ */
+public final class RecomputationScheduler {
+
+    private static final ThreadLocal<RecomputationScheduler> CURRENT = ThreadLocal
+            .withInitial(RecomputationScheduler::new);
+
+    private static final Object NO_FINGERPRINT = new Object();
+
+    private static volatile ForkJoinPool pool = Boolean.getBoolean("recomputation.sequential") ? null
+            : ForkJoinPool.commonPool();
+    private static volatile Function<EObject, Object> partition = BrakeCornerIndex::cornerOf;
+
+    private final Map<EObject, Recomputation> dirty = new LinkedHashMap<>();
+    private final Map<EObject, Object> lastFingerprints = new WeakHashMap<>();
+    private int depth;
+    private boolean flushing;
+
+    private long recomputations;
+    private long skipped;
+    private long coalesced;
+    private long parallelGroups;
+
+    private RecomputationScheduler() {
+    }
+
+    /**
+     * @return the scheduler of the current thread
+     */
+    public static RecomputationScheduler current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Sets the pool split computations are run on. Without a pool, or with a
+     * pool of parallelism one, they are computed sequentially. Defaults to the
+     * common pool unless the system property {@code recomputation.sequential}
+     * is set.
+     *
+     * @param newPool the pool, may be null
+     */
+    public static void setPool(ForkJoinPool newPool) {
+        pool = newPool;
+    }
+
+    /**
+     * Sets how the elements of split recomputations are partitioned into
+     * groups that can be computed independently. Elements mapped to equal keys
+     * are computed sequentially in one task.
+     *
+     * @param newPartition maps an element to the key of its group
+     */
+    public static void setPartition(Function<EObject, Object> newPartition) {
+        partition = Objects.requireNonNull(newPartition);
+    }
+
+    /**
+     * Marks the element as dirty. A later mark of the same element before the
+     * next flush replaces this one. The recomputation is skipped if the
+     * fingerprint equals the one of the last recomputation of the element in
+     * the current flush.
+     *
+     * @param element       the element whose derived values are outdated
+     * @param fingerprint   the inputs of the recomputation, see
+     *                      {@link StructuralFingerprint}
+     * @param recomputation recomputes the derived values of the element
+     */
+    public <E extends EObject> void markDirty(E element, Object fingerprint, Consumer<? super E> recomputation) {
+        mark(element, () -> {
+            if (Objects.equals(lastFingerprints.get(element), fingerprint)) {
+                skipped++;
+                return;
+            }
+            recomputation.accept(element);
+            lastFingerprints.put(element, fingerprint);
+            recomputations++;
+        });
+    }
+
+    /**
+     * Marks the element as dirty with a split recomputation, see
+     * {@link #markDirty(EObject, Object, Consumer)}. The computation may run
+     * concurrently with the computations of other groups and must only use
+     * the inputs resolved from the model; the application writes its result.
+     *
+     * @param element     the element whose derived values are outdated
+     * @param fingerprint the inputs of the recomputation
+     * @param resolution  reads the inputs of the computation from the model,
+     *                    runs on the flushing thread
+     * @param computation computes the derived values from the inputs without
+     *                    accessing the model
+     * @param application writes the computed values to the model, runs on the
+     *                    flushing thread
+     */
+    public <E extends EObject, I, R> void markDirty(E element, Object fingerprint,
+            Function<? super E, ? extends I> resolution, Function<? super I, ? extends R> computation,
+            BiConsumer<? super E, ? super R> application) {
+        mark(element, new SplitRecomputation<E, Object, I, R>(element, fingerprint, null,
+                (e, c) -> resolution.apply(e), computation, application));
+    }
+
+    /**
+     * Marks the element as dirty because of an incremental change. Changes of
+     * the same element before the next flush are merged into one.
+     *
+     * @param element       the element whose derived values are outdated
+     * @param change        the change to apply
+     * @param merge         merges an earlier pending change with a later one
+     * @param recomputation applies the merged change to the element
+     */
+    public <E extends EObject, T> void markDirty(E element, T change, BinaryOperator<T> merge,
+            BiConsumer<? super E, ? super T> recomputation) {
+        Recomputation pending = dirty.get(element);
+        T merged = pending instanceof IncrementalRecomputation<?, ?> incremental
+                ? merge.apply(incremental.<T>change(), change)
+                : change;
+        mark(element, new IncrementalRecomputation<>(element, merged, (e, c) -> {
+            recomputation.accept(e, c);
+            recomputations++;
+        }));
+    }
+
+    /**
+     * Marks the element as dirty because of an incremental change, with a
+     * split recomputation, see
+     * {@link #markDirty(EObject, Object, BinaryOperator, BiConsumer)} and
+     * {@link #markDirty(EObject, Object, Function, BiConsumer)}.
+     *
+     * @param element     the element whose derived values are outdated
+     * @param change      the change to apply
+     * @param merge       merges an earlier pending change with a later one
+     * @param resolution  reads the inputs of the computation for the merged
+     *                    change from the model, runs on the flushing thread
+     * @param computation computes the derived values from the inputs without
+     *                    accessing the model
+     * @param application writes the computed values to the model, runs on the
+     *                    flushing thread
+     */
+    public <E extends EObject, T, I, R> void markDirty(E element, T change, BinaryOperator<T> merge,
+            BiFunction<? super E, ? super T, ? extends I> resolution, Function<? super I, ? extends R> computation,
+            BiConsumer<? super E, ? super R> application) {
+        Recomputation pending = dirty.get(element);
+        T merged = pending instanceof SplitRecomputation<?, ?, ?, ?> split && split.fingerprint == NO_FINGERPRINT
+                ? merge.apply(split.<T>change(), change)
+                : change;
+        mark(element, new SplitRecomputation<E, T, I, R>(element, NO_FINGERPRINT, merged, resolution, computation,
+                application));
+    }
+
+    private void mark(EObject element, Recomputation recomputation) {
+        if (dirty.put(element, recomputation) != null) {
+            coalesced++;
+        }
+        if (depth == 0 && !flushing) {
+            flush();
+        }
+    }
+
+    /**
+     * Executes the given changes and defers all recomputations they mark until
+     * the changes are done. Calls may be nested, the outermost call flushes.
+     *
+     * @param changes the model changes to execute
+     */
+    public void coalesce(Runnable changes) {
+        depth++;
+        try {
+            changes.run();
+        } finally {
+            depth--;
+        }
+        if (depth == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Runs the pending recomputations in the order the elements were first
+     * marked. Consecutive split recomputations are resolved, computed
+     * group-wise in parallel and then applied. Elements marked by a recomputation are
+     * processed in the same flush.
+     */
+    public void flush() {
+        if (flushing) {
+            return;
+        }
+        flushing = true;
+        try {
+            while (!dirty.isEmpty()) {
+                List<Recomputation> pending = new ArrayList<>(dirty.values());
+                dirty.clear();
+                List<SplitRecomputation<?, ?, ?, ?>> splits = new ArrayList<>();
+                for (Recomputation recomputation : pending) {
+                    if (recomputation instanceof SplitRecomputation<?, ?, ?, ?> split) {
+                        splits.add(split);
+                    } else {
+                        runSplits(splits);
+                        splits.clear();
+                        recomputation.run();
+                    }
+                }
+                runSplits(splits);
+            }
+        } finally {
+            flushing = false;
+            if (depth == 0) {
+                lastFingerprints.clear();
+            }
+        }
+    }
+
+    private void runSplits(List<SplitRecomputation<?, ?, ?, ?>> splits) {
+        List<SplitRecomputation<?, ?, ?, ?>> outdated = new ArrayList<>(splits.size());
+        for (SplitRecomputation<?, ?, ?, ?> split : splits) {
+            if (split.fingerprint != NO_FINGERPRINT
+                    && Objects.equals(lastFingerprints.get(split.element), split.fingerprint)) {
+                skipped++;
+            } else {
+                outdated.add(split);
+            }
+        }
+        if (outdated.isEmpty()) {
+            return;
+        }
+        // The model is only read here and written below, both on this thread
+        outdated.forEach(SplitRecomputation::resolve);
+        Map<Object, List<SplitRecomputation<?, ?, ?, ?>>> groups = new LinkedHashMap<>();
+        for (SplitRecomputation<?, ?, ?, ?> split : outdated) {
+            groups.computeIfAbsent(partition.apply(split.element), key -> new ArrayList<>()).add(split);
+        }
+        ForkJoinPool computationPool = pool;
+        if (groups.size() > 1 && computationPool != null && computationPool.getParallelism() > 1) {
+            List<ForkJoinTask<?>> tasks = groups.values().stream()
+                    .<ForkJoinTask<?>>map(group -> ForkJoinTask.adapt(() -> group.forEach(SplitRecomputation::compute)))
+                    .toList();
+            computationPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            parallelGroups += groups.size();
+        } else {
+            outdated.forEach(SplitRecomputation::compute);
+        }
+        for (SplitRecomputation<?, ?, ?, ?> split : outdated) {
+            split.run();
+            if (split.fingerprint != NO_FINGERPRINT) {
+                lastFingerprints.put(split.element, split.fingerprint);
+            }
+            recomputations++;
+        }
+    }
+
+    /**
+     * Forgets the fingerprints of all elements, so that their next
+     * recomputation is executed even if their inputs are unchanged.
+     */
+    public void clearFingerprints() {
+        lastFingerprints.clear();
+    }
+
+    /**
+     * @return the number of elements waiting for recomputation
+     */
+    public int getPendingCount() {
+        return dirty.size();
+    }
+
+    /**
+     * @return the number of executed recomputations
+     */
+    public long getRecomputationCount() {
+        return recomputations;
+    }
+
+    /**
+     * @return the number of recomputations skipped because of unchanged inputs
+     */
+    public long getSkippedCount() {
+        return skipped;
+    }
+
+    /**
+     * @return the number of marks merged into an already pending recomputation
+     */
+    public long getCoalescedCount() {
+        return coalesced;
+    }
+
+    /**
+     * @return the number of groups whose computations ran in parallel
+     */
+    public long getParallelGroupCount() {
+        return parallelGroups;
+    }
+
+    private interface Recomputation extends Runnable {
+    }
+
+    private static final class SplitRecomputation<E extends EObject, T, I, R> implements Recomputation {
+
+        private final E element;
+        private final Object fingerprint;
+        private final T pendingChange;
+        private final BiFunction<? super E, ? super T, ? extends I> resolution;
+        private final Function<? super I, ? extends R> computation;
+        private final BiConsumer<? super E, ? super R> application;
+        private I inputs;
+        private R result;
+
+        SplitRecomputation(E element, Object fingerprint, T pendingChange,
+                BiFunction<? super E, ? super T, ? extends I> resolution,
+                Function<? super I, ? extends R> computation,
+                BiConsumer<? super E, ? super R> application) {
+            this.element = element;
+            this.fingerprint = fingerprint;
+            this.pendingChange = pendingChange;
+            this.resolution = resolution;
+            this.computation = computation;
+            this.application = application;
+        }
+
+        @SuppressWarnings("unchecked")
+        <C> C change() {
+            return (C) pendingChange;
+        }
+
+        void resolve() {
+            inputs = resolution.apply(element, pendingChange);
+        }
+
+        void compute() {
+            result = computation.apply(inputs);
+            inputs = null;
+        }
+
+        @Override
+        public void run() {
+            application.accept(element, result);
+        }
+    }
+
+    private record IncrementalRecomputation<E extends EObject, T>(E element, T pendingChange,
+            BiConsumer<E, T> recomputation) implements Recomputation {
+
+        @SuppressWarnings("unchecked")
+        <C> C change() {
+            return (C) pendingChange;
+        }
+
+        @Override
+        public void run() {
+            recomputation.accept(element, pendingChange);
+        }
+    }
+}
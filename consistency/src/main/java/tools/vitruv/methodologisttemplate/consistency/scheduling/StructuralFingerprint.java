@@ -0,0 +1,92 @@
+package tools.vitruv.methodologisttemplate.consistency.scheduling;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * Snapshot of the inputs of a derived value. Model elements are copied when
+ * the fingerprint is taken and compared structurally with
+ * {@link EcoreUtil#equals(EObject, EObject)}, so later in-place modifications
+ * of an input are detected. All other parts are compared with
+ * {@link Object#equals(Object)}.
+ */
+public final class StructuralFingerprint {
+
+    private final List<Object> parts;
+    private final int hash;
+
+    private StructuralFingerprint(List<Object> parts) {
+        this.parts = parts;
+        this.hash = hash(parts);
+    }
+
+    /**
+     * @param parts the inputs; model elements and collections of model elements
+     *              are copied
+     * @return the fingerprint of the given inputs
+     */
+    public static StructuralFingerprint of(Object... parts) {
+        List<Object> snapshot = new ArrayList<>(parts.length);
+        for (Object part : parts) {
+            snapshot.add(snapshot(part));
+        }
+        return new StructuralFingerprint(snapshot);
+    }
+
+    private static Object snapshot(Object part) {
+        if (part instanceof EObject eObject) {
+            return EcoreUtil.copy(eObject);
+        }
+        if (part instanceof Collection<?> collection) {
+            return collection.stream().map(StructuralFingerprint::snapshot).toList();
+        }
+        return part;
+    }
+
+    private static int hash(Object part) {
+        if (part instanceof EObject eObject) {
+            return eObject.eClass().hashCode();
+        }
+        if (part instanceof List<?> list) {
+            int result = 1;
+            for (Object element : list) {
+                result = 31 * result + hash(element);
+            }
+            return result;
+        }
+        return Objects.hashCode(part);
+    }
+
+    private static boolean partEquals(Object left, Object right) {
+        if (left instanceof EObject leftObject && right instanceof EObject rightObject) {
+            return EcoreUtil.equals(leftObject, rightObject);
+        }
+        if (left instanceof List<?> leftList && right instanceof List<?> rightList) {
+            if (leftList.size() != rightList.size()) {
+                return false;
+            }
+            for (int i = 0; i < leftList.size(); i++) {
+                if (!partEquals(leftList.get(i), rightList.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return Objects.equals(left, right);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof StructuralFingerprint other && hash == other.hash && partEquals(parts, other.parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,317 @@
+package tools.vitruv.methodologisttemplate.consistency.trace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+/**
+ * Records the causal chain of the change propagation as NDJSON, one
+ * {@link TraceEvent} per line.
+ *
+ * The propagation steps of the specifications and their reactions to each
+ * atomic change report their start and end through the
+ * {@link tools.vitruv.methodologisttemplate.consistency.metrics.PropagationMetrics}
+ * samples. Changes are observed with a content adapter on the resource set of
+ * the models, which is attached when the first reaction runs or explicitly
+ * with {@link #observe(ResourceSet)}. A change made while reactions or a step
+ * run is recorded as produced by them; any other change is an original change
+ * of a commit, and the first original change after a reaction starts a new
+ * commit. A reaction is linked to the last change of its triggering element
+ * and feature, so chains across the models of the VSUM, e.g. a disk thickness
+ * change bouncing through brakesystem2cad and cad2brakesystem, are followed
+ * hop by hop.
+ *
+ * Only one trace is active at a time. While no trace is active, the samples
+ * cost a single volatile read.
+ *
+ * <pre>
+ * try (PropagationTrace trace = PropagationTrace.start(Path.of("propagation.ndjson"))) {
+ *     view.commitChanges();
+ * }
+ * </pre>
+ */
+public final class PropagationTrace implements AutoCloseable {
+
+    private static final int MAX_VALUE_LENGTH = 80;
+    private static volatile PropagationTrace active;
+
+    private final Writer writer;
+    private final AtomicLong sequences = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final ThreadLocal<ThreadState> state = ThreadLocal.withInitial(ThreadState::new);
+    private final Set<ResourceSet> observed = Collections.newSetFromMap(new WeakHashMap<>());
+    private final ChangeObserver observer = new ChangeObserver();
+
+    private PropagationTrace(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Starts tracing to the given file, replacing a running trace.
+     *
+     * @param file the NDJSON file to write, overwritten if it exists
+     * @return the started trace
+     */
+    public static PropagationTrace start(Path file) {
+        try {
+            return start(Files.newBufferedWriter(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Starts tracing to the given writer, replacing a running trace.
+     *
+     * @param writer the writer for the NDJSON lines, closed with the trace
+     * @return the started trace
+     */
+    public static PropagationTrace start(Writer writer) {
+        PropagationTrace previous = active;
+        if (previous != null) {
+            previous.close();
+        }
+        PropagationTrace trace = new PropagationTrace(
+                writer instanceof BufferedWriter ? writer : new BufferedWriter(writer));
+        active = trace;
+        return trace;
+    }
+
+    /**
+     * @return the running trace or null
+     */
+    public static PropagationTrace active() {
+        return active;
+    }
+
+    /**
+     * Observes the changes of all models in the resource set.
+     */
+    public synchronized void observe(ResourceSet resourceSet) {
+        if (resourceSet != null && observed.add(resourceSet)) {
+            resourceSet.eAdapters().add(observer);
+        }
+    }
+
+    /**
+     * Records the start of the reactions of a specification to a change.
+     *
+     * @param name    the specification and the kind of the change
+     * @param element the element the triggering change affected
+     * @param feature the feature the triggering change affected, may be null
+     * @return the started event, to be passed to
+     *         {@link #stopped(TraceEvent, long)}
+     */
+    public TraceEvent reactionStarted(String name, EObject element, Object feature) {
+        if (element != null && element.eResource() != null) {
+            observe(element.eResource().getResourceSet());
+        }
+        ThreadState thread = state.get();
+        thread.reactionsRan = true;
+        TraceEvent cause = thread.lastChanges.get(new ChangeKey(element, feature));
+        boolean cycle = false;
+        for (TraceEvent ancestor = cause; ancestor != null; ancestor = thread.events.get(ancestor.parent())) {
+            if (ancestor.type() == TraceEvent.Type.REACTION && ancestor.name().equals(name)
+                    && Objects.equals(ancestor.element(), label(element))) {
+                cycle = true;
+                break;
+            }
+        }
+        TraceEvent event = new TraceEvent(thread.commit, sequences.incrementAndGet(),
+                cause == null ? -1 : cause.sequence(), cause == null ? 0 : cause.depth() + 1,
+                TraceEvent.Type.REACTION, name, label(element), featureName(feature), null, null,
+                System.nanoTime(), 0, cycle);
+        thread.started(event);
+        return event;
+    }
+
+    /**
+     * Records the start of a propagation step of a specification. The changes
+     * flushed at the end of the step are recorded as produced by it.
+     *
+     * @param name the name of the specification
+     * @return the started event, to be passed to
+     *         {@link #stopped(TraceEvent, long)}
+     */
+    public TraceEvent stepStarted(String name) {
+        ThreadState thread = state.get();
+        TraceEvent parent = thread.running.peek();
+        TraceEvent event = new TraceEvent(thread.commit, sequences.incrementAndGet(),
+                parent == null ? -1 : parent.sequence(), parent == null ? 0 : parent.depth(),
+                TraceEvent.Type.STEP, name, null, null, null, null, System.nanoTime(), 0, false);
+        thread.started(event);
+        return event;
+    }
+
+    /**
+     * Records the end of a reaction or step and writes its event.
+     */
+    public void stopped(TraceEvent event, long durationNanos) {
+        ThreadState thread = state.get();
+        if (thread.running.contains(event)) {
+            while (thread.running.pop() != event) {
+                // Discard events of reactions aborted by an exception
+            }
+        }
+        write(event.withDuration(durationNanos));
+    }
+
+    /**
+     * Stops tracing, detaches from all observed resource sets and closes the
+     * writer.
+     */
+    @Override
+    public synchronized void close() {
+        if (active == this) {
+            active = null;
+        }
+        for (ResourceSet resourceSet : observed) {
+            resourceSet.eAdapters().remove(observer);
+        }
+        observed.clear();
+        try {
+            synchronized (writer) {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void changed(Notification notification) {
+        if (notification.isTouch() || notification.getNotifier() instanceof ResourceSet
+                || notification.getNotifier() instanceof Resource
+                        && notification.getFeatureID(Resource.class) != Resource.RESOURCE__CONTENTS) {
+            return;
+        }
+        ThreadState thread = state.get();
+        TraceEvent parent = thread.running.peek();
+        if (parent == null && thread.reactionsRan) {
+            thread.nextCommit(commits.incrementAndGet());
+        }
+        Object feature = notification.getFeature();
+        TraceEvent event = new TraceEvent(thread.commit, sequences.incrementAndGet(),
+                parent == null ? -1 : parent.sequence(), parent == null ? 0 : parent.depth(),
+                parent == null ? TraceEvent.Type.CHANGE : TraceEvent.Type.PRODUCED,
+                eventTypeName(notification.getEventType()), label(notification.getNotifier()),
+                featureName(feature), label(notification.getOldValue()), label(notification.getNewValue()),
+                System.nanoTime(), 0, false);
+        thread.events.put(event.sequence(), event);
+        thread.lastChanges.put(new ChangeKey(notification.getNotifier(), feature), event);
+        // Insertions and removals also trigger reactions on the element itself
+        registerElements(thread, notification.getNewValue(), event);
+        if (notification.getEventType() == Notification.REMOVE
+                || notification.getEventType() == Notification.REMOVE_MANY) {
+            registerElements(thread, notification.getOldValue(), event);
+        }
+        write(event);
+    }
+
+    private static void registerElements(ThreadState thread, Object value, TraceEvent event) {
+        if (value instanceof EObject element) {
+            thread.lastChanges.put(new ChangeKey(element, null), event);
+        } else if (value instanceof Collection<?> values) {
+            for (Object it : values) {
+                registerElements(thread, it, event);
+            }
+        }
+    }
+
+    private void write(TraceEvent event) {
+        try {
+            synchronized (writer) {
+                writer.write(event.toJson());
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String label(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof EObject element) {
+            return element.eClass().getName() + "@" + Integer.toHexString(System.identityHashCode(element));
+        }
+        if (value instanceof Resource resource) {
+            return "Resource@" + resource.getURI();
+        }
+        if (value instanceof Collection<?> values) {
+            return "[" + values.size() + " values]";
+        }
+        String text = String.valueOf(value);
+        return text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text;
+    }
+
+    private static String featureName(Object feature) {
+        return feature instanceof EStructuralFeature structuralFeature ? structuralFeature.getName() : null;
+    }
+
+    private static String eventTypeName(int eventType) {
+        return switch (eventType) {
+            case Notification.SET -> "SET";
+            case Notification.UNSET -> "UNSET";
+            case Notification.ADD -> "ADD";
+            case Notification.REMOVE -> "REMOVE";
+            case Notification.ADD_MANY -> "ADD_MANY";
+            case Notification.REMOVE_MANY -> "REMOVE_MANY";
+            case Notification.MOVE -> "MOVE";
+            default -> "EVENT_" + eventType;
+        };
+    }
+
+    private record ChangeKey(Object element, Object feature) {
+    }
+
+    private static final class ThreadState {
+
+        private long commit;
+        private boolean reactionsRan;
+        private final Deque<TraceEvent> running = new ArrayDeque<>();
+        private final Map<Long, TraceEvent> events = new HashMap<>();
+        private final Map<ChangeKey, TraceEvent> lastChanges = new HashMap<>();
+
+        void started(TraceEvent event) {
+            events.put(event.sequence(), event);
+            running.push(event);
+        }
+
+        void nextCommit(long commit) {
+            this.commit = commit;
+            reactionsRan = false;
+            events.clear();
+            lastChanges.clear();
+        }
+    }
+
+    private final class ChangeObserver extends EContentAdapter {
+
+        @Override
+        public void notifyChanged(Notification notification) {
+            super.notifyChanged(notification);
+            changed(notification);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package tools.vitruv.methodologisttemplate.consistency.trace;
+
+/**
+ * One entry of a {@link PropagationTrace}. Events of one commit share the
+ * commit number; {@code parent} links an event to its cause, so following the
+ * parents of a reaction leads back to the original change of the commit.
+ *
+ * @param commit        the number of the commit the event belongs to
+ * @param sequence      unique and increasing number of the event
+ * @param parent        sequence of the causing event, or -1 for original
+ *                      changes and reactions whose trigger was not observed
+ * @param depth         number of reaction hops from the original change
+ * @param type          the kind of event
+ * @param name          the specification and the kind of the triggering change
+ *                      for reactions, the specification for steps, or the
+ *                      kind of the EMF notification for changes
+ * @param element       the affected or triggering element
+ * @param feature       the affected or triggering feature, may be null
+ * @param oldValue      the old value of a change, may be null
+ * @param newValue      the new value of a change, may be null
+ * @param startNanos    the {@link System#nanoTime()} at the start
+ * @param durationNanos the duration of a reaction or step, 0 for changes
+ * @param cycle         whether the same reaction already ran for the same
+ *                      element earlier in the causal chain
+ */
+public record TraceEvent(long commit, long sequence, long parent, int depth, Type type, String name,
+        String element, String feature, String oldValue, String newValue, long startNanos, long durationNanos,
+        boolean cycle) {
+
+    /**
+     * The kind of a trace event.
+     */
+    public enum Type {
+        /** A change applied outside of any reaction, i.e. by the commit. */
+        CHANGE,
+        /** The reactions of a specification triggered by a change. */
+        REACTION,
+        /** A propagation step of a specification. */
+        STEP,
+        /** A change made by reactions or a step. */
+        PRODUCED
+    }
+
+    TraceEvent withDuration(long durationNanos) {
+        return new TraceEvent(commit, sequence, parent, depth, type, name, element, feature, oldValue, newValue,
+                startNanos, durationNanos, cycle);
+    }
+
+    /**
+     * @return the event as a single-line JSON object, omitting null values
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"commit\":").append(commit)
+                .append(",\"seq\":").append(sequence)
+                .append(",\"parent\":").append(parent)
+                .append(",\"depth\":").append(depth)
+                .append(",\"type\":\"").append(type).append('"');
+        appendString(json, "name", name);
+        appendString(json, "element", element);
+        appendString(json, "feature", feature);
+        appendString(json, "old", oldValue);
+        appendString(json, "new", newValue);
+        json.append(",\"start\":").append(startNanos);
+        if (durationNanos > 0) {
+            json.append(",\"duration\":").append(durationNanos);
+        }
+        if (cycle) {
+            json.append(",\"cycle\":true");
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder json, String key, String value) {
+        if (value == null) {
+            return;
+        }
+        json.append(",\"").append(key).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,57 @@
+package tools.vitruv.methodologisttemplate.viewtype;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+
+/**
+ * A filter stage that is applied to each committed {@link EChange} on its own.
+ * Consecutive stages registered at a {@link ChangeTransformingViewType} are
+ * fused into a single pass over the changes of a commit, and a new list of
+ * changes is only created if a stage drops or rewrites a change.
+ *
+ * Stages must not modify the changes they are given: a stage returns the
+ * given change to keep it, a rewritten copy to replace it, or null to drop
+ * it. Use {@link #rewrite(Predicate, Consumer)} to modify a copy of a change.
+ */
+@FunctionalInterface
+public interface ChangeFilterStage {
+
+  /**
+   * @param change the committed change, must not be modified
+   * @return the given change, a replacement, or null to drop the change
+   */
+  EChange<HierarchicalId> apply(EChange<HierarchicalId> change);
+
+  /**
+   * @param predicate selects the changes to keep
+   * @return a stage dropping all changes not matching the predicate
+   */
+  static ChangeFilterStage filter(Predicate<? super EChange<HierarchicalId>> predicate) {
+    return change -> predicate.test(change) ? change : null;
+  }
+
+  /**
+   * Creates a stage modifying the selected changes. Only the selected changes
+   * are copied, the modification is applied to the copy.
+   *
+   * @param selector selects the changes to rewrite
+   * @param rewriter modifies the copy of a selected change
+   * @return a stage replacing the selected changes by modified copies
+   */
+  static ChangeFilterStage rewrite(Predicate<? super EChange<HierarchicalId>> selector,
+      Consumer<? super EChange<HierarchicalId>> rewriter) {
+    return change -> {
+      if (!selector.test(change)) {
+        return change;
+      }
+      EChange<HierarchicalId> copy = EcoreUtil.copy(change);
+      rewriter.accept(copy);
+      return copy;
+    };
+  }
+}
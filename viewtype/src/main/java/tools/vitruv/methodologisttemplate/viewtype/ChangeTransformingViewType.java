@@ -14,10 +14,22 @@ import tools.vitruv.framework.views.impl.IdentityMappingViewType;
  * Extends the {@link IdentityMappingViewType} by
  * additionally providing the functionality to add filters which filter lists of
  * {@link EChange} that are used to commit changes to a view. The filters may,
- * e.g., chose to omit certain kinds of changes.
+ * e.g., chose to omit certain kinds of changes. Filters can also be given as
+ * {@link ChangeFilterStage}s, which are applied to each change on its own and
+ * avoid copying the changes of a commit.
+ * 
+ * Filters are applied in ascending order of their priority, and filters with
+ * the same priority in registration order. Filters may be registered and
+ * unregistered while views commit concurrently; each commit uses the filters
+ * registered when it started.
  */
 public abstract class ChangeTransformingViewType extends IdentityMappingViewType {
 
+  /**
+   * The priority of filters registered without an explicit priority.
+   */
+  public static final int DEFAULT_PRIORITY = 0;
+
   /**
    * 
    * @param name the name of the viewtype
@@ -34,6 +46,18 @@ public abstract class ChangeTransformingViewType extends IdentityMappingViewType
    */
   public abstract boolean registerFilter(Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter);
 
+  /**
+   * Registers the given filter with the given priority. Filters with a lower
+   * priority are applied first.
+   * 
+   * @param filter   the filter to register to this
+   *                 {@link ChangeTransformingView}
+   * @param priority the priority of the filter
+   * @return whether the register operation was successful.
+   */
+  public abstract boolean registerFilter(Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter,
+      int priority);
+
   /**
    * Unregisters the given filter which will no longer be applied to changes on
    * the view.
@@ -44,6 +68,68 @@ public abstract class ChangeTransformingViewType extends IdentityMappingViewType
    */
   public abstract boolean unregisterFilter(Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter);
 
+  /**
+   * Registers the given filter stage which is applied to each change on this
+   * View. Consecutive filter stages are applied in a single pass over the
+   * changes.
+   * 
+   * @param stage the filter stage to register to this
+   *              {@link ChangeTransformingView}
+   * @return whether the register operation was successful.
+   */
+  public abstract boolean registerFilterStage(ChangeFilterStage stage);
+
+  /**
+   * Registers the given filter stage with the given priority. Filters with a
+   * lower priority are applied first.
+   * 
+   * @param stage    the filter stage to register to this
+   *                 {@link ChangeTransformingView}
+   * @param priority the priority of the filter stage
+   * @return whether the register operation was successful.
+   */
+  public abstract boolean registerFilterStage(ChangeFilterStage stage, int priority);
+
+  /**
+   * Unregisters the given filter stage which will no longer be applied to
+   * changes on the view.
+   * 
+   * @param stage the filter stage to unregister from this
+   *              {@link ChangeTransformingView}
+   * @return whether the unregister operation was successful.
+   */
+  public abstract boolean unregisterFilterStage(ChangeFilterStage stage);
+
+  /**
+   * Registers the given validator which checks the filtered changes of each
+   * commit before they are propagated.
+   * 
+   * @param validator the validator to register to this
+   *                  {@link ChangeTransformingView}
+   * @return whether the register operation was successful.
+   */
+  public abstract boolean registerValidator(ChangeValidator validator);
+
+  /**
+   * Unregisters the given validator which will no longer check commits to the
+   * view.
+   * 
+   * @param validator the validator to unregister from this
+   *                  {@link ChangeTransformingView}
+   * @return whether the unregister operation was successful.
+   */
+  public abstract boolean unregisterValidator(ChangeValidator validator);
+
+  /**
+   * Returns the outcome of the last commit to a view of this view type made by
+   * the current thread, so that concurrent view sessions each see the outcome
+   * of their own commit.
+   * 
+   * @return the outcome of the last commit of the current thread, or null if
+   *         the thread did not commit yet
+   */
+  public abstract CommitOutcome getLastCommitOutcome();
+
   /**
    * Builds and returns a new {@link ChangeTransformingView} without any filters
    * added. The created View is a {@link ChangeDerivingView}.
@@ -0,0 +1,29 @@
+package tools.vitruv.methodologisttemplate.viewtype;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.eclipse.emf.ecore.EObject;
+
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.methodologisttemplate.viewtype.CommitOutcome.Violation;
+
+/**
+ * Validates the changes of a commit to a {@link ChangeTransformingViewType}
+ * before they are propagated to the view source. Validators are applied after
+ * all filters, and a violation rejects the whole commit: the hierarchical ids
+ * of the other changes may depend on the violating ones, so the commit cannot
+ * be propagated without them.
+ */
+@FunctionalInterface
+public interface ChangeValidator {
+
+  /**
+   * @param changes  the changes of the commit, must not be modified
+   * @param resolver resolves a hierarchical id to the element of the view
+   *                 source before the commit, or to null if there is none
+   * @return the violations found, empty if the changes are valid
+   */
+  List<Violation> validate(List<EChange<HierarchicalId>> changes, Function<HierarchicalId, EObject> resolver);
+}
@@ -0,0 +1,56 @@
+package tools.vitruv.methodologisttemplate.viewtype;
+
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+
+/**
+ * The result of validating a commit to a {@link ChangeTransformingViewType}
+ * with its registered {@link ChangeValidator}s.
+ *
+ * @param status            whether the changes were committed or rejected
+ * @param violations        the violations found by the validators
+ * @param propagatedChanges the number of changes propagated to the view source
+ */
+public record CommitOutcome(Status status, List<Violation> violations, int propagatedChanges) {
+
+  /**
+   * How a commit was handled.
+   */
+  public enum Status {
+    /** All changes were propagated. */
+    COMMITTED,
+    /** No changes were propagated. */
+    REJECTED
+  }
+
+  /**
+   * A violation found by a {@link ChangeValidator}.
+   *
+   * @param reason  a description of the violation
+   * @param element the element affected by the violation in the view source,
+   *                may be null
+   * @param changes the changes forming the violating operation
+   */
+  public record Violation(String reason, EObject element, List<EChange<HierarchicalId>> changes) {
+  }
+
+  public CommitOutcome {
+    violations = List.copyOf(violations);
+  }
+
+  /**
+   * @param propagatedChanges the number of propagated changes
+   * @return the outcome of a commit without violations
+   */
+  public static CommitOutcome committed(int propagatedChanges) {
+    return new CommitOutcome(Status.COMMITTED, List.of(), propagatedChanges);
+  }
+
+  public boolean isRejected() {
+    return status == Status.REJECTED;
+  }
+}
@@ -1,10 +1,23 @@
 package tools.vitruv.methodologisttemplate.viewtype.impl;
 
+import tools.vitruv.methodologisttemplate.viewtype.ChangeFilterStage;
 import tools.vitruv.methodologisttemplate.viewtype.ChangeTransformingViewType;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeValidator;
+import tools.vitruv.methodologisttemplate.viewtype.CommitOutcome;
+import tools.vitruv.methodologisttemplate.viewtype.CommitOutcome.Violation;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 
 import tools.vitruv.change.atomic.EChange;
 import tools.vitruv.change.atomic.hid.HierarchicalId;
@@ -13,29 +26,240 @@ import tools.vitruv.change.composite.description.VitruviusChangeFactory;
 import tools.vitruv.framework.views.impl.ModifiableView;
 
 public class ChangeTransformingViewTypeImpl extends ChangeTransformingViewType {
-  private List<Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>>> filters;
+  // Immutable snapshot of the registered filters, replaced on every
+  // registration so that commits never lock or see a partial update
+  private volatile FilterChain chain = FilterChain.EMPTY;
+  private final Object registrationLock = new Object();
+  private long nextSequence;
+  private final ThreadLocal<CommitOutcome> lastOutcome = new ThreadLocal<>();
+
+  /**
+   * A registered list filter, filter stage or validation.
+   */
+  private record Registration(Object filter, int priority, long sequence) {
+    private static final Comparator<Registration> ORDER = Comparator.comparingInt(Registration::priority)
+        .thenComparingLong(Registration::sequence);
+  }
+
+  /**
+   * A registered validator.
+   */
+  private record Validation(ChangeValidator validator) {
+  }
+
+  /**
+   * The registered filters in application order, followed by the validators.
+   * Consecutive filter stages are grouped into arrays, which are applied in a
+   * single pass.
+   */
+  private record FilterChain(List<Registration> registrations, List<Object> steps, List<Validation> validations) {
+    private static final FilterChain EMPTY = new FilterChain(List.of(), List.of(), List.of());
+
+    static FilterChain of(List<Registration> registrations) {
+      List<Registration> ordered = new ArrayList<>(registrations);
+      ordered.sort(Registration.ORDER);
+      List<Object> steps = new ArrayList<>();
+      List<Validation> validations = new ArrayList<>();
+      List<ChangeFilterStage> stages = new ArrayList<>();
+      for (Registration registration : ordered) {
+        if (registration.filter() instanceof Validation validation) {
+          validations.add(validation);
+        } else if (registration.filter() instanceof ChangeFilterStage stage) {
+          stages.add(stage);
+        } else {
+          if (!stages.isEmpty()) {
+            steps.add(stages.toArray(new ChangeFilterStage[0]));
+            stages.clear();
+          }
+          steps.add(registration.filter());
+        }
+      }
+      if (!stages.isEmpty()) {
+        steps.add(stages.toArray(new ChangeFilterStage[0]));
+      }
+      return new FilterChain(List.copyOf(ordered), List.copyOf(steps), List.copyOf(validations));
+    }
+  }
 
   public ChangeTransformingViewTypeImpl(String name) {
     super(name);
-    this.filters = new ArrayList<>();
   }
 
   @Override
   public void commitViewChanges(ModifiableView view, VitruviusChange<HierarchicalId> viewChange) {
-    var modifiedChange = viewChange.copy().getEChanges();
-    for (Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter : filters) {
-      modifiedChange = filter.apply(modifiedChange);
+    FilterChain chain = this.chain;
+    List<EChange<HierarchicalId>> changes = transform(viewChange, chain).getEChanges();
+    CommitOutcome outcome = validate(view, changes, chain.validations());
+    lastOutcome.set(outcome);
+    if (outcome.isRejected()) {
+      return;
+    }
+    super.commitViewChanges(view, changes == viewChange.getEChanges() ? viewChange
+        : VitruviusChangeFactory.getInstance().createTransactionalChange(changes));
+  }
+
+  @Override
+  public CommitOutcome getLastCommitOutcome() {
+    return lastOutcome.get();
+  }
+
+  /**
+   * Applies the registered filters to the given change. Consecutive filter
+   * stages are applied in a single pass; the changes are only copied before the
+   * first list filter, which may modify them in place. Filters registered or
+   * unregistered during the transformation do not affect it.
+   *
+   * @param viewChange the change committed to the view, is not modified
+   * @return the filtered change, or the given change if no filter dropped or
+   *         rewrote any of its changes
+   */
+  public VitruviusChange<HierarchicalId> transform(VitruviusChange<HierarchicalId> viewChange) {
+    return transform(viewChange, chain);
+  }
+
+  private static VitruviusChange<HierarchicalId> transform(VitruviusChange<HierarchicalId> viewChange,
+      FilterChain chain) {
+    List<EChange<HierarchicalId>> original = viewChange.getEChanges();
+    List<EChange<HierarchicalId>> changes = original;
+    boolean copied = false;
+    for (Object step : chain.steps()) {
+      if (step instanceof ChangeFilterStage[] stages) {
+        changes = applyStages(changes, stages);
+      } else {
+        if (!copied) {
+          changes = new ArrayList<>(EcoreUtil.copyAll(changes));
+          copied = true;
+        }
+        changes = applyFilter(step, changes);
+      }
+    }
+    return changes == original ? viewChange : VitruviusChangeFactory.getInstance().createTransactionalChange(changes);
+  }
+
+  /**
+   * Applies the given validators to the changes of a commit. Any violation
+   * rejects the commit.
+   */
+  private static CommitOutcome validate(ModifiableView view, List<EChange<HierarchicalId>> changes,
+      List<Validation> validations) {
+    if (validations.isEmpty()) {
+      return CommitOutcome.committed(changes.size());
+    }
+    Function<HierarchicalId, EObject> resolver = sourceResolver(view);
+    List<Violation> violations = new ArrayList<>();
+    for (Validation validation : validations) {
+      violations.addAll(validation.validator().validate(changes, resolver));
+    }
+    if (violations.isEmpty()) {
+      return CommitOutcome.committed(changes.size());
+    }
+    return new CommitOutcome(CommitOutcome.Status.REJECTED, violations, 0);
+  }
+
+  /**
+   * Resolves hierarchical ids against the models of the view source, which
+   * still have their state before the commit.
+   */
+  private static Function<HierarchicalId, EObject> sourceResolver(ModifiableView view) {
+    Map<URI, Resource> resources = new HashMap<>();
+    return id -> {
+      if (resources.isEmpty()) {
+        view.getViewSource().getViewSourceModels().forEach(resource -> resources.put(resource.getURI(), resource));
+      }
+      URI uri = URI.createURI(id.getId());
+      Resource resource = resources.get(uri.trimFragment());
+      return resource == null || uri.fragment() == null ? null : resource.getEObject(uri.fragment());
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<EChange<HierarchicalId>> applyFilter(Object filter, List<EChange<HierarchicalId>> changes) {
+    return ((Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>>) filter).apply(changes);
+  }
+
+  private static List<EChange<HierarchicalId>> applyStages(List<EChange<HierarchicalId>> changes,
+      ChangeFilterStage[] stages) {
+    // Only allocated once a stage drops or rewrites a change
+    List<EChange<HierarchicalId>> result = null;
+    for (int i = 0; i < changes.size(); i++) {
+      EChange<HierarchicalId> change = changes.get(i);
+      EChange<HierarchicalId> transformed = change;
+      for (int stage = 0; stage < stages.length && transformed != null; stage++) {
+        transformed = stages[stage].apply(transformed);
+      }
+      if (transformed != change && result == null) {
+        result = new ArrayList<>(changes.size());
+        result.addAll(changes.subList(0, i));
+      }
+      if (result != null && transformed != null) {
+        result.add(transformed);
+      }
     }
-    super.commitViewChanges(view, VitruviusChangeFactory.getInstance().createTransactionalChange(modifiedChange));
+    return result == null ? changes : result;
   }
 
+  @Override
   public boolean registerFilter(Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter) {
-    return this.filters.add(filter);
+    return register(filter, DEFAULT_PRIORITY);
+  }
+
+  @Override
+  public boolean registerFilter(Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter,
+      int priority) {
+    return register(filter, priority);
   }
 
   @Override
   public boolean unregisterFilter(Function<List<EChange<HierarchicalId>>, List<EChange<HierarchicalId>>> filter) {
-    return this.filters.remove(filter);
+    return unregister(filter::equals);
+  }
+
+  @Override
+  public boolean registerFilterStage(ChangeFilterStage stage) {
+    return register(stage, DEFAULT_PRIORITY);
+  }
+
+  @Override
+  public boolean registerFilterStage(ChangeFilterStage stage, int priority) {
+    return register(stage, priority);
+  }
+
+  @Override
+  public boolean unregisterFilterStage(ChangeFilterStage stage) {
+    return unregister(stage::equals);
+  }
+
+  @Override
+  public boolean registerValidator(ChangeValidator validator) {
+    return register(new Validation(validator), DEFAULT_PRIORITY);
+  }
+
+  @Override
+  public boolean unregisterValidator(ChangeValidator validator) {
+    return unregister(filter -> filter instanceof Validation validation && validation.validator().equals(validator));
+  }
+
+  private boolean register(Object filter, int priority) {
+    synchronized (registrationLock) {
+      List<Registration> registrations = new ArrayList<>(chain.registrations());
+      registrations.add(new Registration(filter, priority, nextSequence++));
+      chain = FilterChain.of(registrations);
+      return true;
+    }
+  }
+
+  private boolean unregister(Predicate<Object> matches) {
+    synchronized (registrationLock) {
+      List<Registration> registrations = new ArrayList<>(chain.registrations());
+      for (int i = 0; i < registrations.size(); i++) {
+        if (matches.test(registrations.get(i).filter())) {
+          registrations.remove(i);
+          chain = FilterChain.of(registrations);
+          return true;
+        }
+      }
+      return false;
+    }
   }
 
 }
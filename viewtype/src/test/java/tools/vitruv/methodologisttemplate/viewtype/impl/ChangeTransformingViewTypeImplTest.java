@@ -0,0 +1,280 @@
+package tools.vitruv.methodologisttemplate.viewtype.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.feature.attribute.ReplaceSingleValuedEAttribute;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.composite.description.TransactionalChange;
+import tools.vitruv.change.composite.description.VitruviusChange;
+import tools.vitruv.change.composite.description.VitruviusChangeResolverFactory;
+import tools.vitruv.change.composite.recording.ChangeRecorder;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeFilterStage;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeTransformingViewType;
+
+/**
+ * Checks how the {@link ChangeTransformingViewTypeImpl} applies filter stages
+ * and list filters to the changes of a view commit, and in which order
+ * registered filters are applied. The commit renames three classes of a
+ * package to untrimmed names and changes the namespace prefix of the package
+ * between the first and the second rename.
+ */
+public class ChangeTransformingViewTypeImplTest {
+
+  private ChangeTransformingViewTypeImpl viewType;
+  private VitruviusChange<HierarchicalId> viewChange;
+  private List<EChange<HierarchicalId>> committed;
+
+  @BeforeEach
+  void setup() {
+    viewType = new ChangeTransformingViewTypeImpl("filtered");
+    viewChange = recordChanges();
+    committed = List.copyOf(viewChange.getEChanges());
+  }
+
+  @Test
+  @DisplayName("Consecutive stages are applied to each change in a single pass")
+  void stagesAreFused() {
+    List<String> applications = new ArrayList<>();
+    viewType.registerFilterStage(change -> {
+      applications.add("first");
+      return change;
+    });
+    viewType.registerFilterStage(change -> {
+      applications.add("second");
+      return change;
+    });
+
+    assertSame(viewChange, viewType.transform(viewChange));
+    List<String> expected = new ArrayList<>();
+    committed.forEach(change -> expected.addAll(List.of("first", "second")));
+    assertEquals(expected, applications);
+  }
+
+  @Test
+  @DisplayName("A rewriting stage replaces a change by a copy and leaves the committed change untouched")
+  void rewriteCopiesChange() {
+    viewType.registerFilterStage(ChangeFilterStage.rewrite(ChangeTransformingViewTypeImplTest::isRename,
+        ChangeTransformingViewTypeImplTest::trim));
+
+    List<EChange<HierarchicalId>> transformed = viewType.transform(viewChange).getEChanges();
+
+    assertEquals(List.of("first", "prefix", "second", "third"), newValues(transformed));
+    assertEquals(List.of(" first ", "prefix", " second ", " third "), newValues(committed));
+    assertEquals(committed, viewChange.getEChanges());
+    assertSame(committed.get(1), transformed.get(1));
+    for (int i : new int[] { 0, 2, 3 }) {
+      assertNotSame(committed.get(i), transformed.get(i));
+    }
+  }
+
+  @Test
+  @DisplayName("A dropped change is removed before later stages see it")
+  void dropRemovesChange() {
+    List<EChange<HierarchicalId>> seen = new ArrayList<>();
+    viewType.registerFilterStage(ChangeFilterStage.filter(ChangeTransformingViewTypeImplTest::isRename));
+    viewType.registerFilterStage(change -> {
+      seen.add(change);
+      return change;
+    });
+
+    List<EChange<HierarchicalId>> expected = List.of(committed.get(0), committed.get(2), committed.get(3));
+    assertEquals(expected, viewType.transform(viewChange).getEChanges());
+    assertEquals(expected, seen);
+    assertEquals(committed, viewChange.getEChanges());
+  }
+
+  @Test
+  @DisplayName("Stages and list filters are applied in registration order, list filters to copies")
+  void stagesMixWithListFilters() {
+    List<List<EChange<HierarchicalId>>> filtered = new ArrayList<>();
+    viewType.registerFilterStage(ChangeFilterStage.filter(ChangeTransformingViewTypeImplTest::isRename));
+    viewType.registerFilter(changes -> {
+      filtered.add(List.copyOf(changes));
+      changes.forEach(ChangeTransformingViewTypeImplTest::trim);
+      return changes;
+    });
+    viewType.registerFilterStage(ChangeFilterStage.filter(change -> !"second".equals(newValue(change))));
+
+    List<EChange<HierarchicalId>> transformed = viewType.transform(viewChange).getEChanges();
+
+    // The last stage only drops the second rename after the list filter trimmed it
+    assertEquals(List.of("first", "third"), newValues(transformed));
+    assertEquals(3, filtered.get(0).size());
+    for (EChange<HierarchicalId> change : filtered.get(0)) {
+      assertEquals(-1, committed.indexOf(change));
+    }
+    assertEquals(List.of(" first ", "prefix", " second ", " third "), newValues(committed));
+  }
+
+  @Test
+  @DisplayName("Filters are applied in ascending order of their priority")
+  void filtersApplyInPriorityOrder() {
+    List<String> applications = new ArrayList<>();
+    viewType.registerFilterStage(logging("high", applications), 5);
+    viewType.registerFilter(changes -> {
+      applications.add("list");
+      return changes;
+    }, 2);
+    viewType.registerFilterStage(logging("low", applications), -1);
+    viewType.registerFilterStage(logging("default", applications));
+
+    viewType.transform(viewChange);
+
+    List<String> expected = new ArrayList<>();
+    committed.forEach(change -> expected.addAll(List.of("low", "default")));
+    expected.add("list");
+    committed.forEach(change -> expected.add("high"));
+    assertEquals(expected, applications);
+  }
+
+  @Test
+  @DisplayName("Filters with equal priority are applied in registration order")
+  void equalPrioritiesKeepRegistrationOrder() {
+    List<String> applications = new ArrayList<>();
+    ChangeFilterStage first = logging("first", applications);
+    viewType.registerFilterStage(first);
+    viewType.registerFilterStage(logging("second", applications), ChangeTransformingViewType.DEFAULT_PRIORITY);
+    viewType.registerFilterStage(logging("third", applications));
+    viewType.registerFilterStage(logging("other", applications), 1);
+    // Registering a filter again puts it behind the filters of its priority
+    assertTrue(viewType.unregisterFilterStage(first));
+    viewType.registerFilterStage(first);
+
+    viewType.transform(viewChange);
+
+    List<String> expected = new ArrayList<>();
+    committed.forEach(change -> expected.addAll(List.of("second", "third", "first", "other")));
+    assertEquals(expected, applications);
+  }
+
+  @Test
+  @DisplayName("A filter registered while a commit runs applies from the next commit on")
+  void registerDuringCommit() throws Exception {
+    CountDownLatch inCommit = new CountDownLatch(1);
+    CountDownLatch registered = new CountDownLatch(1);
+    List<String> applications = Collections.synchronizedList(new ArrayList<>());
+    viewType.registerFilterStage(change -> {
+      if (inCommit.getCount() > 0) {
+        inCommit.countDown();
+        await(registered);
+      }
+      applications.add("early");
+      return change;
+    });
+
+    ExecutorService committer = Executors.newSingleThreadExecutor();
+    try {
+      Future<VitruviusChange<HierarchicalId>> commit = committer.submit(() -> viewType.transform(viewChange));
+      await(inCommit);
+      // Registration must neither wait for the commit nor change the filters it applies
+      assertTrue(viewType.registerFilterStage(logging("late", applications)));
+      registered.countDown();
+      assertSame(viewChange, commit.get(10, TimeUnit.SECONDS));
+    } finally {
+      committer.shutdownNow();
+    }
+    assertEquals(Collections.nCopies(committed.size(), "early"), applications);
+
+    applications.clear();
+    viewType.transform(viewChange);
+    List<String> expected = new ArrayList<>();
+    committed.forEach(change -> expected.addAll(List.of("early", "late")));
+    assertEquals(expected, applications);
+  }
+
+  /**
+   * @return a stage keeping every change and logging its application
+   */
+  private static ChangeFilterStage logging(String name, List<String> applications) {
+    return change -> {
+      applications.add(name);
+      return change;
+    };
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Records renaming the three classes of a package, with a change of the
+   * namespace prefix of the package after the first rename.
+   */
+  private static VitruviusChange<HierarchicalId> recordChanges() {
+    ResourceSet resourceSet = new ResourceSetImpl();
+    Resource resource = new ResourceImpl(URI.createURI("test.ecore"));
+    resourceSet.getResources().add(resource);
+    EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    List<EClass> classes = new ArrayList<>();
+    for (String name : List.of("A", "B", "C")) {
+      EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+      eClass.setName(name);
+      ePackage.getEClassifiers().add(eClass);
+      classes.add(eClass);
+    }
+    resource.getContents().add(ePackage);
+
+    try (ChangeRecorder recorder = new ChangeRecorder(resourceSet)) {
+      recorder.addToRecording(resource);
+      recorder.beginRecording();
+      classes.get(0).setName(" first ");
+      ePackage.setNsPrefix("prefix");
+      classes.get(1).setName(" second ");
+      classes.get(2).setName(" third ");
+      TransactionalChange<EObject> change = recorder.endRecording();
+      return VitruviusChangeResolverFactory.forHierarchicalIds(resourceSet).assignIds(change);
+    }
+  }
+
+  private static boolean isRename(EChange<HierarchicalId> change) {
+    return change instanceof ReplaceSingleValuedEAttribute<?, ?> replace
+        && replace.getAffectedFeature() == EcorePackage.Literals.ENAMED_ELEMENT__NAME;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void trim(EChange<HierarchicalId> change) {
+    ReplaceSingleValuedEAttribute<HierarchicalId, Object> replace =
+        (ReplaceSingleValuedEAttribute<HierarchicalId, Object>) change;
+    replace.setNewValue(((String) replace.getNewValue()).strip());
+  }
+
+  private static Object newValue(EChange<HierarchicalId> change) {
+    return ((ReplaceSingleValuedEAttribute<?, ?>) change).getNewValue();
+  }
+
+  private static List<Object> newValues(List<EChange<HierarchicalId>> changes) {
+    return changes.stream().map(ChangeTransformingViewTypeImplTest::newValue).toList();
+  }
+}
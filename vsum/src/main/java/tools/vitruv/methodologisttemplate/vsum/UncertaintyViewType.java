@@ -0,0 +1,31 @@
+package tools.vitruv.methodologisttemplate.vsum;
+
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeTransformingViewType;
+import tools.vitruv.methodologisttemplate.vsum.validation.RestrictedDeletionValidator;
+
+/**
+ * The view type for editing uncertainties. Commits deleting an uncertainty
+ * whose {@link uncertainty.OnDeleteMode#RESTRICT RESTRICT} delete mode
+ * prohibits it are rejected before propagation, see
+ * {@link RestrictedDeletionValidator}.
+ */
+public class UncertaintyViewType {
+
+  public static final String NAME = "uncertainty";
+
+  private UncertaintyViewType() {
+    // Utility class
+  }
+
+  /**
+   * @param vsum the virtual model the views of the view type are created from
+   * @return a new view type validating the commits to its views against the
+   *         correspondences of the virtual model
+   */
+  public static ChangeTransformingViewType create(InternalVirtualModel vsum) {
+    ChangeTransformingViewType viewType = ChangeTransformingViewType.create(NAME);
+    viewType.registerValidator(new RestrictedDeletionValidator(vsum.getCorrespondenceModel()));
+    return viewType;
+  }
+}
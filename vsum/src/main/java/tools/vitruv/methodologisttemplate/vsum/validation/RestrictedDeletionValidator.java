@@ -0,0 +1,117 @@
+package tools.vitruv.methodologisttemplate.vsum.validation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import org.eclipse.emf.ecore.EObject;
+
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.eobject.DeleteEObject;
+import tools.vitruv.change.atomic.eobject.EObjectExistenceEChange;
+import tools.vitruv.change.atomic.feature.FeatureEChange;
+import tools.vitruv.change.atomic.feature.reference.RemoveEReference;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.correspondence.view.CorrespondenceModelView;
+import tools.vitruv.methodologisttemplate.consistency.UncertaintyReactionsHelper;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeValidator;
+import tools.vitruv.methodologisttemplate.viewtype.CommitOutcome.Violation;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyPackage;
+
+/**
+ * Finds deletions of uncertainties that are prohibited by their
+ * {@link uncertainty.OnDeleteMode#RESTRICT RESTRICT} delete mode, so that their
+ * commit is rejected before propagation instead of being undone by the
+ * uncertainty2uncertainty reactions.
+ *
+ * The corresponding uncertainties are looked up like the reactions do, in the
+ * correspondence model of the virtual model: the view source the removed
+ * uncertainties are resolved against is the virtual model itself, so they are
+ * the elements the correspondences refer to.
+ */
+public class RestrictedDeletionValidator implements ChangeValidator {
+  private final Function<Uncertainty, Collection<Uncertainty>> correspondingUncertainties;
+
+  /**
+   * @param correspondenceModel the correspondence model of the virtual model the
+   *                            validated views are committed to
+   */
+  public RestrictedDeletionValidator(CorrespondenceModelView<?> correspondenceModel) {
+    this(uncertainty -> findCorrespondingUncertainties(correspondenceModel, uncertainty));
+  }
+
+  /**
+   * @param correspondingUncertainties returns the uncertainties corresponding to
+   *                                   an uncertainty of the view source
+   */
+  public RestrictedDeletionValidator(Function<Uncertainty, Collection<Uncertainty>> correspondingUncertainties) {
+    this.correspondingUncertainties = correspondingUncertainties;
+  }
+
+  @Override
+  public List<Violation> validate(List<EChange<HierarchicalId>> changes, Function<HierarchicalId, EObject> resolver) {
+    List<Violation> violations = new ArrayList<>();
+    for (int i = 0; i < changes.size(); i++) {
+      if (changes.get(i) instanceof RemoveEReference<HierarchicalId> remove
+          && remove.getAffectedFeature() == UncertaintyPackage.Literals.UNCERTAINTY_ANNOTATION_REPOSITORY__UNCERTAINTIES
+          && resolver.apply(remove.getOldValue()) instanceof Uncertainty uncertainty
+          && UncertaintyReactionsHelper.isDeletionRestricted(uncertainty,
+              correspondingUncertainties.apply(uncertainty))) {
+        List<EChange<HierarchicalId>> deletion = findDeletion(changes, i, remove.getOldValue().getId());
+        if (!deletion.isEmpty()) {
+          violations.add(new Violation("Deletion of uncertainty " + uncertainty.getId()
+              + " is restricted by corresponding uncertainties", uncertainty, deletion));
+        }
+      }
+    }
+    return violations;
+  }
+
+  /**
+   * Returns the changes deleting the removed uncertainty: its removal, the
+   * changes to it and its contents, and its deletion. Returns an empty list if
+   * the uncertainty is not deleted, e.g., because it is moved.
+   */
+  private static List<EChange<HierarchicalId>> findDeletion(List<EChange<HierarchicalId>> changes, int removal,
+      String id) {
+    List<EChange<HierarchicalId>> deletion = new ArrayList<>();
+    deletion.add(changes.get(removal));
+    for (int i = removal + 1; i < changes.size(); i++) {
+      EChange<HierarchicalId> change = changes.get(i);
+      String affectedId = affectedId(change);
+      if (affectedId != null && (affectedId.equals(id) || affectedId.startsWith(id + "/"))) {
+        deletion.add(change);
+        if (change instanceof DeleteEObject<?> && affectedId.equals(id)) {
+          return deletion;
+        }
+      }
+    }
+    return List.of();
+  }
+
+  private static String affectedId(EChange<HierarchicalId> change) {
+    if (change instanceof FeatureEChange<HierarchicalId, ?> featureChange) {
+      return featureChange.getAffectedElement().getId();
+    }
+    if (change instanceof EObjectExistenceEChange<HierarchicalId> existenceChange) {
+      return existenceChange.getAffectedElement().getId();
+    }
+    return null;
+  }
+
+  /**
+   * Returns the uncertainties corresponding to the given one, as retrieved by
+   * the uncertainty2uncertainty reactions on its deletion.
+   */
+  private static Collection<Uncertainty> findCorrespondingUncertainties(CorrespondenceModelView<?> correspondenceModel,
+      Uncertainty uncertainty) {
+    return correspondenceModel.getCorrespondingEObjects(List.of(uncertainty)).stream()
+        .flatMap(List::stream)
+        .filter(Uncertainty.class::isInstance)
+        .map(Uncertainty.class::cast)
+        .distinct()
+        .toList();
+  }
+}
@@ -0,0 +1,72 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import tools.vitruv.methodologisttemplate.consistency.formula.Formula;
+import tools.vitruv.methodologisttemplate.consistency.formula.FormulaRegistry;
+import tools.vitruv.methodologisttemplate.consistency.propagation.InputDistribution;
+import tools.vitruv.methodologisttemplate.consistency.propagation.MonteCarloEngine;
+import tools.vitruv.methodologisttemplate.consistency.propagation.MonteCarloResult;
+import tools.vitruv.methodologisttemplate.consistency.propagation.PropagationMethod;
+import tools.vitruv.methodologisttemplate.consistency.propagation.PropagationResult;
+import tools.vitruv.methodologisttemplate.consistency.propagation.SamplingStrategy;
+import tools.vitruv.methodologisttemplate.consistency.propagation.UncertaintyPropagator;
+import tools.vitruv.stoex.stoex.NormalDistribution;
+import tools.vitruv.stoex.stoex.SampledDistribution;
+import tools.vitruv.stoex.stoex.StoexFactory;
+
+/**
+ * Checks the choice of the propagation method by the
+ * {@link UncertaintyPropagator} and compares the closed form propagation of
+ * the clamping force formula with Monte Carlo sampling.
+ */
+public class AnalyticPropagationTest {
+
+    private static final Formula CLAMPING_FORCE = FormulaRegistry
+            .compile("PI * ( (d * 0.001) / 2 ) ^ 2 * p * 10 ^ 2", "d", "p");
+
+    @Test
+    @DisplayName("Normal and constant inputs are propagated analytically like Monte Carlo")
+    void normalInputsMatchMonteCarlo() {
+        PropagationResult analytic = UncertaintyPropagator.propagate(CLAMPING_FORCE, normal(50, 2), 80);
+        MonteCarloResult sampled = new MonteCarloEngine(100_000, 1, ForkJoinPool.commonPool(),
+                SamplingStrategy.LATIN_HYPERCUBE).propagate(CLAMPING_FORCE,
+                        List.of(new InputDistribution.Normal(50, 2), new InputDistribution.Constant(80)));
+
+        assertEquals(PropagationMethod.ANALYTIC, analytic.method());
+        NormalDistribution distribution = assertInstanceOf(NormalDistribution.class, analytic.expression());
+        assertEquals(sampled.getMean(), analytic.mean(), 4 * sampled.getStandardError());
+        assertEquals(sampled.getVariance(), distribution.getSigma() * distribution.getSigma(),
+                0.02 * sampled.getVariance());
+    }
+
+    @Test
+    @DisplayName("A normal expression bound to several parameters is sampled")
+    void sharedNormalInputIsSampled() {
+        NormalDistribution diameter = normal(50, 2);
+
+        PropagationResult result = UncertaintyPropagator.propagate(FormulaRegistry.compile("a - b", "a", "b"),
+                diameter, diameter);
+
+        // Independent inputs would give a variance of 8, the shared input cancels out
+        assertEquals(PropagationMethod.MONTE_CARLO, result.method());
+        assertEquals(0, result.mean());
+        SampledDistribution distribution = assertInstanceOf(SampledDistribution.class, result.expression());
+        for (double value : distribution.getValues()) {
+            assertEquals(0, value);
+        }
+    }
+
+    private static NormalDistribution normal(double mu, double sigma) {
+        NormalDistribution distribution = StoexFactory.eINSTANCE.createNormalDistribution();
+        distribution.setMu(mu);
+        distribution.setSigma(sigma);
+        return distribution;
+    }
+}
@@ -277,6 +277,37 @@ public class BrakeCaliperBridgeGapTest {
                 .findFirst().orElseThrow();
     }
 
+    @Test
+    @DisplayName("An unpaired brake disk leaves the throat widths of all CShapes unchanged")
+    void unpairedDiskSkipsThroatWidthUpdate(@TempDir Path tempDir) {
+        VirtualModel vsum = UncertaintyTestUtil.createDefaultVirtualModel(tempDir);
+        UncertaintyTestUtil.registerRootObjects(vsum, tempDir);
+        // Two brake corners without fitting positions, so no disk is paired with a caliper
+        CommittableView CADview = UncertaintyTestUtil.getDefaultView(vsum, List.of(CADRepository.class))
+                .withChangeRecordingTrait();
+        modifyView(CADview, view -> {
+            createCShapeAndCircle(view);
+            createCShapeAndCircle(view);
+        });
+
+        CommittableView brakeSysCommittableView = UncertaintyTestUtil.getDefaultView(vsum,
+                List.of(Brakesystem.class)).withChangeRecordingTrait();
+        modifyView(brakeSysCommittableView, this::changeBrakeDiskThickness);
+
+        View updatedCADView = UncertaintyTestUtil.getDefaultView(vsum, List.of(CADRepository.class));
+        List<CShape> cShapes = updatedCADView.getRootObjects(CADRepository.class).iterator().next()
+                .getCadElements().stream()
+                .filter(CShape.class::isInstance)
+                .map(CShape.class::cast)
+                .toList();
+        assertEquals(2, cShapes.size());
+        for (CShape cShape : cShapes) {
+            assertEquals(42, cShape.getThroatWidth());
+        }
+        View updatedBrakeSystemView = UncertaintyTestUtil.getDefaultView(vsum, List.of(Brakesystem.class));
+        assertEquals(30, getBrakeDiskFromView(updatedBrakeSystemView).getBrakeDiskThicknessInMM());
+    }
+
     private void changeBrakeDiskThickness(CommittableView view) {
         BrakeDisk brakeDisk = view.getRootObjects(Brakesystem.class).iterator().next().getBrakeComponents()
                 .stream()
@@ -0,0 +1,116 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.BrakeDisk;
+import brakesystem.Brakesystem;
+import brakesystem.BrakesystemFactory;
+import tools.vitruv.methodologisttemplate.consistency.pairing.BrakeCornerIndex;
+
+/**
+ * Checks the pairing of brake disks and calipers by fitting position for a
+ * brake system with four corners.
+ */
+public class BrakeCornerIndexTest {
+
+    private static final String[] FITTING_POSITIONS = { "FL", "FR", "RL", "RR" };
+
+    @Test
+    @DisplayName("Disks and calipers are paired by fitting position")
+    void pairsByFittingPosition() {
+        Brakesystem brakesystem = BrakesystemFactory.eINSTANCE.createBrakesystem();
+        BrakeDisk[] disks = new BrakeDisk[FITTING_POSITIONS.length];
+        BrakeCaliper[] calipers = new BrakeCaliper[FITTING_POSITIONS.length];
+        for (int i = 0; i < FITTING_POSITIONS.length; i++) {
+            disks[i] = createDisk(brakesystem, FITTING_POSITIONS[i]);
+        }
+        // Calipers in reverse order, so the pairing does not depend on the order
+        for (int i = FITTING_POSITIONS.length - 1; i >= 0; i--) {
+            calipers[i] = createCaliper(brakesystem, FITTING_POSITIONS[i]);
+        }
+
+        for (int i = 0; i < FITTING_POSITIONS.length; i++) {
+            assertSame(calipers[i], BrakeCornerIndex.getPairedCaliper(disks[i]));
+            assertSame(disks[i], BrakeCornerIndex.getPairedDisk(calipers[i]));
+        }
+    }
+
+    @Test
+    @DisplayName("Pairing follows fitting position changes and removals")
+    void pairingFollowsChanges() {
+        Brakesystem brakesystem = BrakesystemFactory.eINSTANCE.createBrakesystem();
+        BrakeDisk frontLeft = createDisk(brakesystem, "FL");
+        BrakeDisk frontRight = createDisk(brakesystem, "FR");
+        BrakeCaliper caliper = createCaliper(brakesystem, "FL");
+        assertSame(caliper, BrakeCornerIndex.getPairedCaliper(frontLeft));
+        assertNull(BrakeCornerIndex.getPairedCaliper(frontRight));
+
+        caliper.setFittingPosition("FR");
+        assertNull(BrakeCornerIndex.getPairedCaliper(frontLeft));
+        assertSame(caliper, BrakeCornerIndex.getPairedCaliper(frontRight));
+
+        // A second caliper at the same position makes the corner ambiguous
+        BrakeCaliper second = createCaliper(brakesystem, "FR");
+        assertNull(BrakeCornerIndex.getPairedCaliper(frontRight));
+        brakesystem.getBrakeComponents().remove(second);
+        assertSame(caliper, BrakeCornerIndex.getPairedCaliper(frontRight));
+
+        brakesystem.getBrakeComponents().remove(frontRight);
+        assertNull(BrakeCornerIndex.getPairedDisk(caliper));
+    }
+
+    @Test
+    @DisplayName("A single disk and caliper are paired without fitting positions")
+    void pairsSingleCornerWithoutFittingPositions() {
+        Brakesystem brakesystem = BrakesystemFactory.eINSTANCE.createBrakesystem();
+        BrakeDisk disk = createDisk(brakesystem, null);
+        BrakeCaliper caliper = createCaliper(brakesystem, null);
+        assertSame(caliper, BrakeCornerIndex.getPairedCaliper(disk));
+    }
+
+    @Test
+    @DisplayName("Several disks and calipers without fitting positions stay unpaired until positioned")
+    void severalUnpositionedComponentsAreNotPaired() {
+        Brakesystem brakesystem = BrakesystemFactory.eINSTANCE.createBrakesystem();
+        BrakeDisk[] disks = new BrakeDisk[FITTING_POSITIONS.length];
+        BrakeCaliper[] calipers = new BrakeCaliper[FITTING_POSITIONS.length];
+        for (int i = 0; i < FITTING_POSITIONS.length; i++) {
+            disks[i] = createDisk(brakesystem, null);
+            calipers[i] = createCaliper(brakesystem, null);
+        }
+        BrakeDisk positioned = createDisk(brakesystem, "spare");
+        BrakeCaliper positionedCaliper = createCaliper(brakesystem, "spare");
+
+        for (int i = 0; i < FITTING_POSITIONS.length; i++) {
+            assertNull(BrakeCornerIndex.getPairedCaliper(disks[i]));
+            assertNull(BrakeCornerIndex.getPairedDisk(calipers[i]));
+        }
+        assertSame(positionedCaliper, BrakeCornerIndex.getPairedCaliper(positioned));
+
+        for (int i = 0; i < FITTING_POSITIONS.length - 1; i++) {
+            disks[i].setFittingPosition(FITTING_POSITIONS[i]);
+            calipers[i].setFittingPosition(FITTING_POSITIONS[i]);
+        }
+        for (int i = 0; i < FITTING_POSITIONS.length; i++) {
+            assertSame(calipers[i], BrakeCornerIndex.getPairedCaliper(disks[i]));
+        }
+    }
+
+    private static BrakeDisk createDisk(Brakesystem brakesystem, String fittingPosition) {
+        BrakeDisk disk = BrakesystemFactory.eINSTANCE.createBrakeDisk();
+        disk.setFittingPosition(fittingPosition);
+        brakesystem.getBrakeComponents().add(disk);
+        return disk;
+    }
+
+    private static BrakeCaliper createCaliper(Brakesystem brakesystem, String fittingPosition) {
+        BrakeCaliper caliper = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+        caliper.setFittingPosition(fittingPosition);
+        brakesystem.getBrakeComponents().add(caliper);
+        return caliper;
+    }
+}
@@ -0,0 +1,222 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+
+import brakesystem.BrakeDisk;
+import brakesystem.Brakesystem;
+import cad.CADRepository;
+import cad.CadFactory;
+import cad.Circle;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.views.View;
+import tools.vitruv.framework.vsum.VirtualModel;
+import tools.vitruv.methodologisttemplate.consistency.UncertaintyReactionsHelper;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestFactory;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestUtil;
+import uncertainty.OnDeleteMode;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+import uncertainty.UncertaintyLocationType;
+
+/**
+ * Checks the bulk deletion of source uncertainties with their copies according
+ * to the delete modes of the sources, and the deletion of an uncertainty in a
+ * view together with the copy the reactions derived from it, without running
+ * the reactions to the deletion of the removed copies.
+ */
+public class CascadeDeletionTest {
+
+    @BeforeAll
+    static void setup() {
+        Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put("*",
+                new XMIResourceFactoryImpl());
+    }
+
+    @Test
+    @DisplayName("Bulk deletion applies the delete mode of each source")
+    void bulkDeletionAppliesDeleteModes() {
+        UncertaintyAnnotationRepository repository = UncertaintyFactory.eINSTANCE
+                .createUncertaintyAnnotationRepository();
+        Uncertainty cascading = createSource(repository, OnDeleteMode.CASCADE);
+        Uncertainty derived = createCopy(repository, cascading, false);
+        Uncertainty derivedOfDerived = createCopy(repository, derived, false);
+        Uncertainty manual = createCopy(repository, cascading, true);
+        Uncertainty noAction = createSource(repository, OnDeleteMode.NO_ACTION);
+        Uncertainty noActionCopy = createCopy(repository, noAction, false);
+        Uncertainty restricted = createSource(repository, OnDeleteMode.RESTRICT);
+        Uncertainty restrictedCopy = createCopy(repository, restricted, false);
+        // An uncertainty with the id of a source is no copy unless it is derived from the source
+        Uncertainty sameId = EcoreUtil.copy(cascading);
+        repository.getUncertainties().add(sameId);
+
+        Set<Uncertainty> deleted = UncertaintyReactionsHelper
+                .deleteCascading(List.of(cascading, noAction, restricted));
+
+        assertEquals(Set.of(cascading, derived, derivedOfDerived, noAction), deleted);
+        assertEquals(List.of(manual, noActionCopy, restricted, restrictedCopy, sameId),
+                repository.getUncertainties());
+        assertNull(derivedOfDerived.eContainer());
+        assertNull(manual.getDerivedFrom());
+        assertNull(noActionCopy.getDerivedFrom());
+        assertSame(restricted, restrictedCopy.getDerivedFrom());
+    }
+
+    @Test
+    @DisplayName("The cascade of corresponding uncertainties skips manually set ones")
+    void cascadeSkipsManualUncertainties() {
+        UncertaintyAnnotationRepository repository = UncertaintyFactory.eINSTANCE
+                .createUncertaintyAnnotationRepository();
+        Uncertainty source = createSource(repository, OnDeleteMode.CASCADE);
+        Uncertainty derived = createCopy(repository, source, false);
+        Uncertainty manual = createCopy(repository, source, true);
+        repository.getUncertainties().remove(source);
+
+        Set<Uncertainty> cascade = UncertaintyReactionsHelper.collectCascade(List.of(derived, manual));
+
+        assertEquals(Set.of(derived), cascade);
+        assertEquals(1, UncertaintyReactionsHelper.removeUncertainties(cascade));
+        assertSame(manual, repository.getUncertainties().get(0));
+        assertEquals(1, repository.getUncertainties().size());
+    }
+
+    @Test
+    @DisplayName("Deleting an uncertainty in a view deletes the copy derived from it")
+    void viewDeletionCascadesToCopy(@TempDir Path tempDir) {
+        VirtualModel vsum = createVirtualModelWithCopy(tempDir);
+        View initial = getView(vsum);
+        Uncertainty copy = getUncertainty(initial, Circle.class);
+        assertSame(getUncertainty(initial, BrakeDisk.class), copy.getDerivedFrom());
+        assertNotEquals(copy.getDerivedFrom().getId(), copy.getId());
+
+        CommittableView view = getView(vsum).withChangeRecordingTrait();
+        view.getRootObjects(UncertaintyAnnotationRepository.class).iterator().next().getUncertainties()
+                .remove(getUncertainty(view, BrakeDisk.class));
+        view.commitChanges();
+
+        assertTrue(getView(vsum).getRootObjects(UncertaintyAnnotationRepository.class).iterator().next()
+                .getUncertainties().isEmpty());
+    }
+
+    @Test
+    @DisplayName("A manually set copy outlives the uncertainty it was derived from in a view")
+    void viewDeletionDetachesManualCopy(@TempDir Path tempDir) {
+        VirtualModel vsum = createVirtualModelWithCopy(tempDir);
+        CommittableView manualView = getView(vsum).withChangeRecordingTrait();
+        getUncertainty(manualView, Circle.class).setSetManually(true);
+        manualView.commitChanges();
+
+        CommittableView view = getView(vsum).withChangeRecordingTrait();
+        view.getRootObjects(UncertaintyAnnotationRepository.class).iterator().next().getUncertainties()
+                .remove(getUncertainty(view, BrakeDisk.class));
+        view.commitChanges();
+
+        List<Uncertainty> uncertainties = getView(vsum).getRootObjects(UncertaintyAnnotationRepository.class)
+                .iterator().next().getUncertainties();
+        assertEquals(1, uncertainties.size());
+        assertTrue(uncertainties.get(0).isSetManually());
+        assertNull(uncertainties.get(0).getDerivedFrom());
+    }
+
+    @Test
+    @DisplayName("The reactions to the deletion of a deep cascade run only for its source")
+    void deepCascadeSkipsReactionsOfRemovedCopies(@TempDir Path tempDir) {
+        int depth = 5;
+        VirtualModel vsum = createVirtualModelWithCopy(tempDir);
+        CommittableView chainView = getView(vsum).withChangeRecordingTrait();
+        UncertaintyAnnotationRepository chainRepository = chainView
+                .getRootObjects(UncertaintyAnnotationRepository.class).iterator().next();
+        Uncertainty last = getUncertainty(chainView, Circle.class);
+        for (int i = 1; i < depth; i++) {
+            last = createCopy(chainRepository, last, false);
+        }
+        chainView.commitChanges();
+        assertEquals(depth + 1, getView(vsum).getRootObjects(UncertaintyAnnotationRepository.class).iterator()
+                .next().getUncertainties().size());
+
+        UncertaintyReactionsHelper.resetSkippedDeletions();
+        CommittableView view = getView(vsum).withChangeRecordingTrait();
+        view.getRootObjects(UncertaintyAnnotationRepository.class).iterator().next().getUncertainties()
+                .remove(getUncertainty(view, BrakeDisk.class));
+        view.commitChanges();
+
+        assertEquals(depth, UncertaintyReactionsHelper.getSkippedDeletions());
+        assertTrue(getView(vsum).getRootObjects(UncertaintyAnnotationRepository.class).iterator().next()
+                .getUncertainties().isEmpty());
+    }
+
+    /**
+     * Creates a virtual model with a circle corresponding to the brake disk and
+     * a cascading uncertainty of the brake disk, which the reactions copy to
+     * the circle.
+     */
+    private static VirtualModel createVirtualModelWithCopy(Path tempDir) {
+        VirtualModel vsum = UncertaintyTestUtil.createDefaultVirtualModel(tempDir);
+        UncertaintyTestUtil.registerRootObjects(vsum, tempDir);
+        CommittableView cadView = UncertaintyTestUtil.getDefaultView(vsum, List.of(CADRepository.class))
+                .withChangeRecordingTrait();
+        Circle circle = CadFactory.eINSTANCE.createCircle();
+        circle.setExtrusion(20);
+        circle.setRadius(100);
+        cadView.getRootObjects(CADRepository.class).iterator().next().getCadElements().add(circle);
+        cadView.commitChanges();
+
+        CommittableView brakeSystemView = UncertaintyTestUtil.getDefaultView(vsum,
+                List.of(Brakesystem.class, UncertaintyAnnotationRepository.class)).withChangeRecordingTrait();
+        BrakeDisk brakeDisk = (BrakeDisk) brakeSystemView.getRootObjects(Brakesystem.class).iterator().next()
+                .getBrakeComponents().get(0);
+        Uncertainty source = UncertaintyTestFactory.createUncertainty(Optional.of(UncertaintyTestFactory
+                .createUncertaintyLocation(List.of(brakeDisk), UncertaintyLocationType.PARAMETER,
+                        "brakeDiskThicknessInMM")));
+        source.setOnDelete(OnDeleteMode.CASCADE);
+        brakeSystemView.getRootObjects(UncertaintyAnnotationRepository.class).iterator().next().getUncertainties()
+                .add(source);
+        brakeSystemView.commitChanges();
+        return vsum;
+    }
+
+    private static View getView(VirtualModel vsum) {
+        return UncertaintyTestUtil.getDefaultView(vsum,
+                List.of(Brakesystem.class, CADRepository.class, UncertaintyAnnotationRepository.class));
+    }
+
+    private static Uncertainty getUncertainty(View view, Class<?> componentType) {
+        return view.getRootObjects(UncertaintyAnnotationRepository.class).iterator().next()
+                .getUncertainties().stream()
+                .filter(u -> u.getUncertaintyLocation().getReferencedComponents().stream()
+                        .anyMatch(componentType::isInstance))
+                .findFirst().orElseThrow();
+    }
+
+    private static Uncertainty createSource(UncertaintyAnnotationRepository repository, OnDeleteMode onDelete) {
+        Uncertainty uncertainty = UncertaintyTestFactory.createUncertainty(Optional.empty());
+        uncertainty.setOnDelete(onDelete);
+        repository.getUncertainties().add(uncertainty);
+        return uncertainty;
+    }
+
+    private static Uncertainty createCopy(UncertaintyAnnotationRepository repository, Uncertainty original,
+            boolean setManually) {
+        Uncertainty copy = UncertaintyReactionsHelper.copyUncertainty(original, repository);
+        copy.setSetManually(setManually);
+        repository.getUncertainties().add(copy);
+        return copy;
+    }
+}
@@ -16,9 +16,11 @@ import org.junit.jupiter.api.io.TempDir;
 import brakesystem.BrakeCaliper;
 import brakesystem.Brakesystem;
 import brakesystem.BrakesystemFactory;
+import brakesystem.BrakesystemPackage;
 import tools.vitruv.framework.views.CommittableView;
 import tools.vitruv.framework.views.View;
 import tools.vitruv.framework.vsum.VirtualModel;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintyQuery;
 import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestFactory;
 import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestUtil;
 import tools.vitruv.stoex.interpreter.StoexEvaluator;
@@ -93,17 +95,12 @@ public class ClampingForceUncertaintyTest {
 
 		View uncertaintyAssertionView = UncertaintyTestUtil.getDefaultView(vsum,
 				List.of(UncertaintyAnnotationRepository.class));
-		Uncertainty clampingForceUncertainty = uncertaintyAssertionView
+		Uncertainty clampingForceUncertainty = UncertaintyQuery.on(uncertaintyAssertionView
 				.getRootObjects(UncertaintyAnnotationRepository.class)
-				.iterator().next()
-				.getUncertainties().stream()
-				.filter(u -> u.getUncertaintyLocation()
-						.getReferencedComponents().stream()
-						.anyMatch(c -> c instanceof BrakeCaliper))
-				.filter(u -> u.getUncertaintyLocation()
-						.getLocation() == UncertaintyLocationType.PARAMETER)
-				.filter(u -> u.getUncertaintyLocation().getParameterLocation()
-						.equals("clampingForceInN"))
+				.iterator().next())
+				.referencing(BrakesystemPackage.Literals.BRAKE_CALIPER)
+				.locationType(UncertaintyLocationType.PARAMETER)
+				.parameterLocation("clampingForceInN")
 				.findFirst().orElseThrow();
 		StoexEvaluator helper = new StoexEvaluator();
 		Double mean = helper.getMean(clampingForceUncertainty.getEffect().getExpression()).doubleValue();
@@ -128,17 +125,12 @@ public class ClampingForceUncertaintyTest {
 		assertEquals(15.31526419, brakeCaliper.getClampingForceInN(), 0.1);
 		View uncertaintyAssertionView = UncertaintyTestUtil.getDefaultView(vsum,
 				List.of(UncertaintyAnnotationRepository.class));
-		Uncertainty clampingForceUncertainty = uncertaintyAssertionView
+		Uncertainty clampingForceUncertainty = UncertaintyQuery.on(uncertaintyAssertionView
 				.getRootObjects(UncertaintyAnnotationRepository.class)
-				.iterator().next()
-				.getUncertainties().stream()
-				.filter(u -> u.getUncertaintyLocation()
-						.getReferencedComponents().stream()
-						.anyMatch(c -> c instanceof BrakeCaliper))
-				.filter(u -> u.getUncertaintyLocation()
-						.getLocation() == UncertaintyLocationType.PARAMETER)
-				.filter(u -> u.getUncertaintyLocation().getParameterLocation()
-						.equals("clampingForceInN"))
+				.iterator().next())
+				.referencing(BrakesystemPackage.Literals.BRAKE_CALIPER)
+				.locationType(UncertaintyLocationType.PARAMETER)
+				.parameterLocation("clampingForceInN")
 				.findFirst().orElseThrow();
 		StoexEvaluator helper = new StoexEvaluator();
 		Double mean = helper.getMean(clampingForceUncertainty.getEffect().getExpression()).doubleValue();
@@ -147,6 +139,28 @@ public class ClampingForceUncertaintyTest {
 		assertEquals(15.31526419, mean, 0.1);
 	}
 
+	@Test
+	@DisplayName("Recompute Clamping Force on Hydraulic Pressure Change")
+	void recomputeClampingForceOnPressureChangeTest(@TempDir Path tempDir) {
+		// SETUP VSUM
+		VirtualModel vsum = UncertaintyTestUtil.createDefaultVirtualModel(tempDir);
+		UncertaintyTestUtil.registerRootObjects(vsum, tempDir);
+
+		CommittableView brakeSystemView = UncertaintyTestUtil.getDefaultView(vsum, List.of(Brakesystem.class))
+				.withChangeRecordingTrait();
+		modifyView(brakeSystemView, this::createBrakeCaliper);
+
+		CommittableView changeView = UncertaintyTestUtil.getDefaultView(vsum, List.of(Brakesystem.class))
+				.withChangeRecordingTrait();
+		modifyView(changeView, view -> getBrakeCaliperFromView(view).setHydraulicPressureInBar(100));
+
+		View brakeSystemAssertionView = UncertaintyTestUtil.getDefaultView(vsum,
+				List.of(Brakesystem.class));
+		BrakeCaliper brakeCaliper = getBrakeCaliperFromView(brakeSystemAssertionView);
+		// PI * (50 * 0.001/2)^2 * 100 * 10^2 = 19.634954085
+		assertEquals(19.634954085, brakeCaliper.getClampingForceInN(), 0.0001);
+	}
+
 	private void createBrakeCaliper(CommittableView view) {
 		Brakesystem brakeSystem = view.getRootObjects(Brakesystem.class).iterator().next();
 		BrakeCaliper brakeCaliper = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
@@ -0,0 +1,104 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import brakesystem.BrakeDisk;
+import brakesystem.BrakesystemFactory;
+import brakesystem.BrakesystemPackage;
+import cad.CShape;
+import cad.CadFactory;
+import cad.CadPackage;
+import cad.Circle;
+import tools.vitruv.methodologisttemplate.consistency.graph.DerivationContext;
+import tools.vitruv.methodologisttemplate.consistency.graph.DerivationGraph;
+import tools.vitruv.methodologisttemplate.consistency.graph.ParameterChange;
+
+/**
+ * Checks that the {@link DerivationGraph} ignores the echo of a value it wrote
+ * only within the propagation that wrote it.
+ */
+public class DerivationGraphEchoTest {
+
+    private final BrakeDisk disk = BrakesystemFactory.eINSTANCE.createBrakeDisk();
+    private final Circle circle = CadFactory.eINSTANCE.createCircle();
+    private final CShape cShape = CadFactory.eINSTANCE.createCShape();
+    private final AtomicInteger throatWidthRecomputations = new AtomicInteger();
+    private DerivationGraph graph;
+
+    @BeforeEach
+    void buildGraph() {
+        graph = DerivationGraph.builder()
+                .derive(CadPackage.Literals.CAD_ELEMENT__EXTRUSION,
+                        List.of(BrakesystemPackage.Literals.BRAKE_DISK__BRAKE_DISK_THICKNESS_IN_MM),
+                        (source, context) -> circle,
+                        (target, causes, context) -> circle.setExtrusion((Integer) causes.get(0).newValue()))
+                .derive(CadPackage.Literals.C_SHAPE__THROAT_WIDTH,
+                        List.of(CadPackage.Literals.CAD_ELEMENT__EXTRUSION),
+                        (source, context) -> cShape,
+                        (target, causes, context) -> {
+                            throatWidthRecomputations.incrementAndGet();
+                            cShape.setThroatWidth(cShape.getThroatWidth() + 1);
+                        })
+                .build();
+    }
+
+    @Test
+    @DisplayName("The echo of a derived value is ignored within its propagation")
+    void echoIsIgnoredWithinPropagation() {
+        graph.propagationStarted();
+        try {
+            changeThickness(30);
+            assertEquals(1, throatWidthRecomputations.get());
+
+            assertEquals(List.of(), graph.propagate(extrusionChange(30), new DerivationContext(null)));
+            assertEquals(1, throatWidthRecomputations.get());
+        } finally {
+            graph.propagationFinished();
+        }
+    }
+
+    @Test
+    @DisplayName("A later change to the value written by an earlier propagation is propagated")
+    void echoDoesNotOutliveItsPropagation() {
+        graph.propagationStarted();
+        try {
+            changeThickness(30);
+        } finally {
+            graph.propagationFinished();
+        }
+
+        graph.propagationStarted();
+        try {
+            graph.propagate(extrusionChange(30), new DerivationContext(null));
+        } finally {
+            graph.propagationFinished();
+        }
+        assertEquals(2, throatWidthRecomputations.get());
+    }
+
+    @Test
+    @DisplayName("Outside of a propagation no echo is kept")
+    void noEchoOutsidePropagation() {
+        changeThickness(30);
+        graph.propagate(extrusionChange(30), new DerivationContext(null));
+
+        assertEquals(2, throatWidthRecomputations.get());
+    }
+
+    private void changeThickness(int thickness) {
+        int oldThickness = disk.getBrakeDiskThicknessInMM();
+        disk.setBrakeDiskThicknessInMM(thickness);
+        graph.propagate(new ParameterChange(disk, BrakesystemPackage.Literals.BRAKE_DISK__BRAKE_DISK_THICKNESS_IN_MM,
+                oldThickness, thickness), new DerivationContext(null));
+    }
+
+    private ParameterChange extrusionChange(int extrusion) {
+        return new ParameterChange(circle, CadPackage.Literals.CAD_ELEMENT__EXTRUSION, 0, extrusion);
+    }
+}
@@ -0,0 +1,144 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.Brakesystem;
+import brakesystem.BrakesystemFactory;
+import brakesystem.BrakesystemPackage;
+import tools.vitruv.methodologisttemplate.consistency.ClampingForceHelper;
+import tools.vitruv.methodologisttemplate.consistency.DerivedUncertaintyHelper;
+import tools.vitruv.methodologisttemplate.consistency.guard.WriteGuard;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintyIndex;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestFactory;
+import tools.vitruv.stoex.stoex.Expression;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+import uncertainty.UncertaintyLocationType;
+
+/**
+ * Checks the lifecycle of derived uncertainties. Repeatedly edits the piston
+ * diameter of an uncertain caliper and recomputes the clamping force directly
+ * through the {@link ClampingForceHelper}, outside of a VSUM. The derived
+ * clamping force uncertainty is updated in place, so the repository size and
+ * the size of the derived expression have to stay constant over all edits.
+ */
+public class DerivedUncertaintyGrowthTest {
+
+    private static final int EDITS = 10_000;
+    private static final int BLOCK_SIZE = 1_000;
+
+    @Test
+    @DisplayName("Derived clamping force uncertainty does not grow over 10k edits")
+    void derivedUncertaintyStaysFlatOverEdits() {
+        Brakesystem brakeSystem = BrakesystemFactory.eINSTANCE.createBrakesystem();
+        BrakeCaliper brakeCaliper = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+        brakeCaliper.setPistonDiameterInMM(50);
+        brakeCaliper.setHydraulicPressureInBar(80);
+        brakeSystem.getBrakeComponents().add(brakeCaliper);
+
+        UncertaintyAnnotationRepository repo = UncertaintyFactory.eINSTANCE.createUncertaintyAnnotationRepository();
+        repo.getUncertainties().add(createParameterUncertainty(brakeCaliper, "pistonDiameterInMM"));
+        repo.getUncertainties().add(createParameterUncertainty(brakeCaliper, "hydraulicPressureInBar"));
+        int inputUncertainties = repo.getUncertainties().size();
+
+        int expressionSize = -1;
+        for (int i = 1; i <= EDITS; i++) {
+            brakeCaliper.setPistonDiameterInMM(40 + i % 20);
+            ClampingForceHelper.recomputeClampingForce(brakeCaliper, repo);
+            UncertaintyIndex.getIndex(repo).getUncertainties(brakeCaliper, UncertaintyLocationType.PARAMETER,
+                    "clampingForceInN");
+
+            if (i % BLOCK_SIZE == 0) {
+                assertEquals(inputUncertainties + 1, repo.getUncertainties().size(),
+                        "repository grew after " + i + " edits");
+                int size = size(DerivedUncertaintyHelper
+                        .findDerivedUncertainty(repo, brakeCaliper, "clampingForceInN").getEffect().getExpression());
+                if (expressionSize < 0) {
+                    expressionSize = size;
+                }
+                assertEquals(expressionSize, size, "derived expression grew after " + i + " edits");
+            }
+        }
+
+        Uncertainty derived = DerivedUncertaintyHelper.findDerivedUncertainty(repo, brakeCaliper,
+                "clampingForceInN");
+        assertTrue(derived != null);
+
+        // Without input uncertainties the derived one is removed
+        repo.getUncertainties().removeIf(u -> u != derived);
+        ClampingForceHelper.recomputeClampingForce(brakeCaliper, repo);
+        assertTrue(repo.getUncertainties().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Recomputing unchanged inputs does not write to the caliper")
+    void unchangedRecomputationReachesFixpoint() {
+        Brakesystem brakeSystem = BrakesystemFactory.eINSTANCE.createBrakesystem();
+        BrakeCaliper brakeCaliper = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+        brakeCaliper.setPistonDiameterInMM(50);
+        brakeCaliper.setHydraulicPressureInBar(80);
+        brakeSystem.getBrakeComponents().add(brakeCaliper);
+
+        UncertaintyAnnotationRepository repo = UncertaintyFactory.eINSTANCE.createUncertaintyAnnotationRepository();
+        repo.getUncertainties().add(createParameterUncertainty(brakeCaliper, "pistonDiameterInMM"));
+        ClampingForceHelper.recomputeClampingForce(brakeCaliper, repo);
+
+        List<Notification> notifications = new ArrayList<>();
+        brakeCaliper.eAdapters().add(new AdapterImpl() {
+            @Override
+            public void notifyChanged(Notification notification) {
+                notifications.add(notification);
+            }
+        });
+        long saved = WriteGuard.getSavedPropagations();
+        ClampingForceHelper.recomputeClampingForce(brakeCaliper, repo);
+
+        assertTrue(notifications.isEmpty(), "unchanged clamping force was written again");
+        assertTrue(WriteGuard.getSavedPropagations() > saved);
+    }
+
+    @Test
+    @DisplayName("Batch writes count only the unchanged elements as saved")
+    void batchWriteIgnoresNullElements() {
+        BrakeCaliper unchanged = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+        unchanged.setPistonDiameterInMM(50);
+        BrakeCaliper changed = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+        changed.setPistonDiameterInMM(40);
+        long saved = WriteGuard.getSavedPropagations();
+
+        int written = WriteGuard.setAll(Arrays.asList(unchanged, null, changed, null),
+                BrakesystemPackage.Literals.BRAKE_CALIPER__PISTON_DIAMETER_IN_MM, 50);
+
+        assertEquals(1, written);
+        assertEquals(50, changed.getPistonDiameterInMM());
+        assertEquals(1, WriteGuard.getSavedPropagations() - saved);
+    }
+
+    private static int size(Expression expression) {
+        int size = 1;
+        for (TreeIterator<EObject> contents = expression.eAllContents(); contents.hasNext(); contents.next()) {
+            size++;
+        }
+        return size;
+    }
+
+    private static Uncertainty createParameterUncertainty(BrakeCaliper brakeCaliper, String parameter) {
+        return UncertaintyTestFactory.createUncertainty(Optional.of(UncertaintyTestFactory
+                .createUncertaintyLocation(List.of(brakeCaliper), UncertaintyLocationType.PARAMETER, parameter)));
+    }
+}
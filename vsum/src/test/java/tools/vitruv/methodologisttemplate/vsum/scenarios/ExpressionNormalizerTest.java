@@ -0,0 +1,124 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+
+import tools.vitruv.methodologisttemplate.consistency.propagation.ExpressionNormalizer;
+import tools.vitruv.stoex.stoex.DoubleLiteral;
+import tools.vitruv.stoex.stoex.Expression;
+import tools.vitruv.stoex.stoex.IntLiteral;
+import tools.vitruv.stoex.stoex.NormalDistribution;
+import tools.vitruv.stoex.stoex.PowerExpression;
+import tools.vitruv.stoex.stoex.ProductExpression;
+import tools.vitruv.stoex.stoex.ProductOperations;
+import tools.vitruv.stoex.stoex.SampledDistribution;
+import tools.vitruv.stoex.stoex.StoexFactory;
+import tools.vitruv.stoex.stoex.TermExpression;
+import tools.vitruv.stoex.stoex.TermOperations;
+
+/**
+ * Checks that the {@link ExpressionNormalizer} folds constants, collapses
+ * affine chains and keeps repeatedly updated expressions bounded.
+ */
+public class ExpressionNormalizerTest {
+
+    private static final StoexFactory STOEX = StoexFactory.eINSTANCE;
+
+    @Test
+    @DisplayName("Constant subexpressions are folded into one literal")
+    void foldsConstants() {
+        Expression folded = ExpressionNormalizer.normalize(
+                term(TermOperations.ADD, product(ProductOperations.MULT, intLiteral(3), intLiteral(4)),
+                        intLiteral(1)));
+        assertEquals(13, assertInstanceOf(IntLiteral.class, folded).getValue());
+
+        Expression divided = ExpressionNormalizer.normalize(
+                product(ProductOperations.DIV, intLiteral(1), intLiteral(2)));
+        assertEquals(0.5, assertInstanceOf(DoubleLiteral.class, divided).getValue());
+    }
+
+    @Test
+    @DisplayName("A shifted and scaled distribution becomes a single distribution")
+    void reducesShiftedDistributions() {
+        NormalDistribution normal = STOEX.createNormalDistribution();
+        normal.setMu(10);
+        normal.setSigma(2);
+        Expression shifted = ExpressionNormalizer.normalize(term(TermOperations.SUB,
+                product(ProductOperations.MULT, intLiteral(-3), term(TermOperations.ADD, normal, intLiteral(5))),
+                intLiteral(1)));
+
+        NormalDistribution result = assertInstanceOf(NormalDistribution.class, shifted);
+        assertEquals(-46, result.getMu(), 1e-9);
+        assertEquals(6, result.getSigma(), 1e-9);
+
+        SampledDistribution sampled = STOEX.createSampledDistribution();
+        sampled.getValues().addAll(List.of(1.0, 2.0, 3.0));
+        Expression shiftedSamples = ExpressionNormalizer
+                .normalize(term(TermOperations.ADD, sampled, intLiteral(2)));
+        assertEquals(List.of(3.0, 4.0, 5.0), assertInstanceOf(SampledDistribution.class, shiftedSamples).getValues());
+    }
+
+    @Test
+    @DisplayName("Repeated affine updates of an expression do not grow it")
+    void affineChainsStayBounded() {
+        NormalDistribution base = STOEX.createNormalDistribution();
+        base.setMu(4);
+        base.setSigma(1);
+        PowerExpression square = STOEX.createPowerExpression();
+        square.setBase(base);
+        square.setExponent(intLiteral(2));
+
+        Expression throatWidth = ExpressionNormalizer.normalize(square);
+        int size = size(throatWidth);
+        for (int i = 0; i < 100; i++) {
+            // throatWidth + newValue - oldValue
+            throatWidth = ExpressionNormalizer.normalize(
+                    term(TermOperations.SUB, term(TermOperations.ADD, throatWidth, intLiteral(i + 2)),
+                            intLiteral(i + 1)));
+        }
+
+        TermExpression result = assertInstanceOf(TermExpression.class, throatWidth);
+        assertSame(TermOperations.ADD, result.getOperation());
+        assertInstanceOf(PowerExpression.class, result.getLeft());
+        assertEquals(100, assertInstanceOf(IntLiteral.class, result.getRight()).getValue());
+        assertEquals(size + 2, size(throatWidth));
+    }
+
+    private static int size(Expression expression) {
+        int size = 1;
+        for (TreeIterator<EObject> contents = expression.eAllContents(); contents.hasNext(); contents.next()) {
+            size++;
+        }
+        return size;
+    }
+
+    private static IntLiteral intLiteral(int value) {
+        IntLiteral literal = STOEX.createIntLiteral();
+        literal.setValue(value);
+        return literal;
+    }
+
+    private static TermExpression term(TermOperations operation, Expression left, Expression right) {
+        TermExpression term = STOEX.createTermExpression();
+        term.setOperation(operation);
+        term.setLeft(left);
+        term.setRight(right);
+        return term;
+    }
+
+    private static ProductExpression product(ProductOperations operation, Expression left, Expression right) {
+        ProductExpression product = STOEX.createProductExpression();
+        product.setOperation(operation);
+        product.setLeft(left);
+        product.setRight(right);
+        return product;
+    }
+}
@@ -0,0 +1,101 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.nio.file.Path;
+
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tools.vitruv.framework.vsum.VirtualModel;
+import tools.vitruv.methodologisttemplate.consistency.metrics.PropagationMetrics;
+import tools.vitruv.methodologisttemplate.consistency.trace.PropagationTrace;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.LargeModelGenerator;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.LargeModelGenerator.DistributionType;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.LargeModelGenerator.GenerationReport;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestUtil;
+
+/**
+ * Generates models with many brake components and uncertainties in a VSUM and
+ * checks that their heap and storage footprint stays within a bound per
+ * element. Half of the components are brake disks, the other half calipers,
+ * and there is one uncertainty per component.
+ * Only the 1k run is executed by default, larger runs are enabled with
+ * {@code -Dscale.maxComponents=100000}. With {@code -Dscale.traceFolder=<dir>}
+ * the causal chain of every commit is written to an NDJSON file per run.
+ */
+public class LargeModelScaleTest {
+
+    private static final int MAX_COMPONENTS = Integer.getInteger("scale.maxComponents", 1_000);
+    private static final String TRACE_FOLDER = System.getProperty("scale.traceFolder");
+    // Generous bounds that catch a model or propagation state growing
+    // superlinearly, not a precise footprint
+    private static final long MAX_HEAP_BYTES_PER_ELEMENT = 64 * 1024;
+    private static final long MAX_STORAGE_BYTES_PER_ELEMENT = 16 * 1024;
+
+    @BeforeAll
+    static void setup() {
+        Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put("*",
+                new XMIResourceFactoryImpl());
+    }
+
+    @Test
+    @DisplayName("Generate 1k components with uncertainties")
+    void generate1kComponents(@TempDir Path tempDir) {
+        generateAndReport(1_000, tempDir);
+    }
+
+    @Test
+    @DisplayName("Generate 10k components with uncertainties")
+    void generate10kComponents(@TempDir Path tempDir) {
+        generateAndReport(10_000, tempDir);
+    }
+
+    @Test
+    @DisplayName("Generate 100k components with uncertainties")
+    void generate100kComponents(@TempDir Path tempDir) {
+        generateAndReport(100_000, tempDir);
+    }
+
+    private void generateAndReport(int components, Path tempDir) {
+        assumeTrue(components <= MAX_COMPONENTS, "Run with -Dscale.maxComponents=" + components);
+
+        PropagationMetrics.reset();
+        VirtualModel vsum = UncertaintyTestUtil.createDefaultVirtualModel(tempDir);
+        UncertaintyTestUtil.registerRootObjects(vsum, tempDir);
+
+        PropagationTrace trace = TRACE_FOLDER == null ? null
+                : PropagationTrace.start(Path.of(TRACE_FOLDER, "scale-" + components + ".ndjson"));
+        GenerationReport report;
+        try {
+            report = new LargeModelGenerator()
+                    .withBrakeDisks(components / 2)
+                    .withBrakeCalipers(components - components / 2)
+                    .withUncertainties(components)
+                    .withDistribution(DistributionType.MIXED)
+                    .generate(vsum, tempDir);
+        } finally {
+            if (trace != null) {
+                trace.close();
+            }
+        }
+
+        assertEquals(components, report.brakeComponents());
+        // Every brake disk has a corresponding circle
+        assertTrue(report.cadElements() >= components / 2);
+        // The disk uncertainties are copied to the corresponding circles
+        assertTrue(report.uncertainties() >= components);
+        assertTrue(report.storageBytes() > 0);
+        assertTrue(report.storageBytes() < (long) report.elements() * MAX_STORAGE_BYTES_PER_ELEMENT,
+                "storage of " + report.storageBytes() + " bytes for " + report.elements() + " elements");
+        assertTrue(report.heapGrowthBytes() < (long) report.elements() * MAX_HEAP_BYTES_PER_ELEMENT,
+                "heap growth of " + report.heapGrowthBytes() + " bytes for " + report.elements() + " elements");
+        assertFalse(PropagationMetrics.snapshot().entries().isEmpty());
+    }
+}
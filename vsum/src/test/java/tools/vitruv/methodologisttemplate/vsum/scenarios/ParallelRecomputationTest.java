@@ -0,0 +1,171 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.Brakesystem;
+import brakesystem.BrakesystemFactory;
+import tools.vitruv.methodologisttemplate.consistency.ClampingForceHelper;
+import tools.vitruv.methodologisttemplate.consistency.propagation.UncertaintyPropagator;
+import tools.vitruv.methodologisttemplate.consistency.scheduling.RecomputationScheduler;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestFactory;
+import tools.vitruv.stoex.stoex.Expression;
+import tools.vitruv.stoex.stoex.NormalDistribution;
+import tools.vitruv.stoex.stoex.SampledDistribution;
+import tools.vitruv.stoex.stoex.StoexFactory;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+import uncertainty.UncertaintyLocationType;
+
+/**
+ * Recomputes the clamping forces of a brake system with eight corners in one
+ * flush and checks that the parallel computation yields the same model as a
+ * sequential one and that only the flushing thread accesses the model.
+ */
+public class ParallelRecomputationTest {
+
+    private static final String[] FITTING_POSITIONS = { "FL", "FR", "ML", "MR", "RL", "RR", "TL", "TR" };
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void restoreDefaultPool() {
+        RecomputationScheduler.setPool(ForkJoinPool.commonPool());
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Parallel recomputation of brake corners matches sequential recomputation")
+    void parallelMatchesSequential() {
+        RecomputationScheduler.setPool(null);
+        UncertaintyAnnotationRepository sequential = recomputeAllCorners();
+
+        RecomputationScheduler.setPool(pool);
+        long parallelGroups = RecomputationScheduler.current().getParallelGroupCount();
+        UncertaintyAnnotationRepository parallel = recomputeAllCorners();
+
+        assertEquals(FITTING_POSITIONS.length,
+                RecomputationScheduler.current().getParallelGroupCount() - parallelGroups);
+        assertEquals(sequential.getUncertainties().size(), parallel.getUncertainties().size());
+        for (int i = 0; i < sequential.getUncertainties().size(); i++) {
+            Uncertainty expected = sequential.getUncertainties().get(i);
+            Uncertainty actual = parallel.getUncertainties().get(i);
+            assertEquals(expected.getUncertaintyLocation().getParameterLocation(),
+                    actual.getUncertaintyLocation().getParameterLocation());
+            assertTrue(EcoreUtil.equals(expected.getEffect().getExpression(), actual.getEffect().getExpression()));
+        }
+    }
+
+    @Test
+    @DisplayName("Inputs are resolved and results applied on the flushing thread")
+    void onlyFlushingThreadAccessesModel() {
+        RecomputationScheduler.setPool(pool);
+        RecomputationScheduler scheduler = RecomputationScheduler.current();
+        long parallelGroups = scheduler.getParallelGroupCount();
+        List<BrakeCaliper> calipers = createCorners();
+        List<Thread> modelThreads = Collections.synchronizedList(new ArrayList<>());
+
+        scheduler.coalesce(() -> calipers.forEach(caliper -> scheduler.markDirty(caliper,
+                caliper.getPistonDiameterInMM(),
+                c -> {
+                    modelThreads.add(Thread.currentThread());
+                    return c.getPistonDiameterInMM();
+                },
+                diameter -> 2 * diameter,
+                (c, doubled) -> {
+                    modelThreads.add(Thread.currentThread());
+                    c.setClampingForceInN(doubled);
+                })));
+
+        assertEquals(FITTING_POSITIONS.length, scheduler.getParallelGroupCount() - parallelGroups);
+        assertEquals(2 * calipers.size(), modelThreads.size());
+        assertTrue(modelThreads.stream().allMatch(Thread.currentThread()::equals));
+        for (BrakeCaliper caliper : calipers) {
+            assertEquals(2.0 * caliper.getPistonDiameterInMM(), caliper.getClampingForceInN());
+        }
+    }
+
+    @Test
+    @DisplayName("Copied inputs keep sharing an expression bound to several parameters")
+    void copiesKeepSharedExpressions() {
+        NormalDistribution shared = StoexFactory.eINSTANCE.createNormalDistribution();
+        shared.setMu(50);
+        shared.setSigma(2);
+
+        Object[] copies = UncertaintyPropagator.copyValues(shared, 80, shared);
+
+        assertNotSame(shared, copies[0]);
+        assertSame(copies[0], copies[2]);
+        assertEquals(80, copies[1]);
+        assertTrue(EcoreUtil.equals(shared, (NormalDistribution) copies[0]));
+    }
+
+    /**
+     * @return the uncertainty repository after the clamping forces of all
+     *         corners were recomputed in one flush
+     */
+    private static UncertaintyAnnotationRepository recomputeAllCorners() {
+        UncertaintyAnnotationRepository repo = UncertaintyFactory.eINSTANCE.createUncertaintyAnnotationRepository();
+        List<BrakeCaliper> calipers = createCorners();
+        for (int i = 0; i < FITTING_POSITIONS.length; i++) {
+            BrakeCaliper caliper = calipers.get(i);
+            NormalDistribution piston = StoexFactory.eINSTANCE.createNormalDistribution();
+            piston.setMu(40 + i);
+            piston.setSigma(2);
+            repo.getUncertainties().add(createParameterUncertainty(caliper, "pistonDiameterInMM", piston));
+            // Sampled inputs take the Monte Carlo path
+            SampledDistribution pressure = StoexFactory.eINSTANCE.createSampledDistribution();
+            pressure.getValues().addAll(List.of(70.0, 75.0, 80.0 + i, 85.0, 90.0));
+            repo.getUncertainties().add(createParameterUncertainty(caliper, "hydraulicPressureInBar", pressure));
+        }
+
+        RecomputationScheduler.current().coalesce(
+                () -> calipers.forEach(caliper -> ClampingForceHelper.scheduleClampingForce(caliper, repo)));
+
+        for (BrakeCaliper caliper : calipers) {
+            assertTrue(caliper.getClampingForceInN() > 0);
+        }
+        return repo;
+    }
+
+    /**
+     * @return a caliper with piston diameter {@code 40 + i} and hydraulic
+     *         pressure 80 in each corner of a brake system
+     */
+    private static List<BrakeCaliper> createCorners() {
+        Brakesystem brakeSystem = BrakesystemFactory.eINSTANCE.createBrakesystem();
+        List<BrakeCaliper> calipers = new ArrayList<>();
+        for (int i = 0; i < FITTING_POSITIONS.length; i++) {
+            BrakeCaliper caliper = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+            caliper.setFittingPosition(FITTING_POSITIONS[i]);
+            caliper.setPistonDiameterInMM(40 + i);
+            caliper.setHydraulicPressureInBar(80);
+            brakeSystem.getBrakeComponents().add(caliper);
+            calipers.add(caliper);
+        }
+        return calipers;
+    }
+
+    private static Uncertainty createParameterUncertainty(BrakeCaliper brakeCaliper, String parameter,
+            Expression expression) {
+        Uncertainty uncertainty = UncertaintyTestFactory.createUncertainty(Optional.of(UncertaintyTestFactory
+                .createUncertaintyLocation(List.of(brakeCaliper), UncertaintyLocationType.PARAMETER, parameter)));
+        uncertainty.getEffect().setExpression(expression);
+        return uncertainty;
+    }
+}
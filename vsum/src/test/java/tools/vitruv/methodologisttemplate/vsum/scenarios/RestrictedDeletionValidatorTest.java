@@ -0,0 +1,200 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+
+import brakesystem.BrakeDisk;
+import brakesystem.Brakesystem;
+import cad.CADRepository;
+import cad.CadFactory;
+import cad.Circle;
+import tools.vitruv.change.atomic.EChange;
+import tools.vitruv.change.atomic.hid.HierarchicalId;
+import tools.vitruv.change.composite.description.VitruviusChangeResolverFactory;
+import tools.vitruv.change.composite.recording.ChangeRecorder;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
+import tools.vitruv.methodologisttemplate.consistency.UncertaintyReactionsHelper;
+import tools.vitruv.methodologisttemplate.viewtype.ChangeTransformingViewType;
+import tools.vitruv.methodologisttemplate.viewtype.CommitOutcome;
+import tools.vitruv.methodologisttemplate.viewtype.CommitOutcome.Violation;
+import tools.vitruv.methodologisttemplate.vsum.UncertaintyViewType;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestFactory;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestUtil;
+import tools.vitruv.methodologisttemplate.vsum.validation.RestrictedDeletionValidator;
+import uncertainty.OnDeleteMode;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+import uncertainty.UncertaintyLocationType;
+
+/**
+ * Checks that the {@link RestrictedDeletionValidator} finds deletions of
+ * uncertainties restricted by corresponding uncertainties in recorded changes,
+ * and that the {@link UncertaintyViewType} rejects commits with such deletions.
+ */
+public class RestrictedDeletionValidatorTest {
+
+    private static final URI MODEL_URI = URI.createURI("test.uncertainty");
+
+    @BeforeAll
+    static void setup() {
+        Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put("*",
+                new XMIResourceFactoryImpl());
+    }
+
+    @Test
+    @DisplayName("Deletion of a restricted uncertainty with a derived copy is a violation")
+    void restrictedDeletionIsViolation() {
+        UncertaintyAnnotationRepository repository = UncertaintyFactory.eINSTANCE
+                .createUncertaintyAnnotationRepository();
+        Uncertainty restricted = createUncertainty(repository, OnDeleteMode.RESTRICT);
+        Uncertainty derived = createCopy(repository, restricted, false);
+        Uncertainty cascading = createUncertainty(repository, OnDeleteMode.CASCADE);
+
+        Resource source = createResource(EcoreUtil.copy(repository));
+        List<EChange<HierarchicalId>> changes = recordDeletions(repository, restricted, cascading);
+        List<Violation> violations = new RestrictedDeletionValidator(correspondences(restricted, derived))
+                .validate(changes, id -> resolve(source, id));
+
+        assertEquals(1, violations.size());
+        assertEquals(restricted.getId(), ((Uncertainty) violations.get(0).element()).getId());
+        assertTrue(violations.get(0).changes().size() >= 2);
+        assertTrue(changes.containsAll(violations.get(0).changes()));
+    }
+
+    @Test
+    @DisplayName("Deletion of a restricted uncertainty with only manual copies is valid")
+    void manualCopiesDoNotRestrict() {
+        UncertaintyAnnotationRepository repository = UncertaintyFactory.eINSTANCE
+                .createUncertaintyAnnotationRepository();
+        Uncertainty restricted = createUncertainty(repository, OnDeleteMode.RESTRICT);
+        Uncertainty manual = createCopy(repository, restricted, true);
+
+        Resource source = createResource(EcoreUtil.copy(repository));
+        List<EChange<HierarchicalId>> changes = recordDeletions(repository, restricted);
+
+        assertTrue(new RestrictedDeletionValidator(correspondences(restricted, manual))
+                .validate(changes, id -> resolve(source, id)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A view of the uncertainty view type rejects deleting a restricted uncertainty with a derived copy")
+    void restrictedDeletionIsRejected(@TempDir Path tempDir) {
+        InternalVirtualModel vsum = UncertaintyTestUtil.createDefaultVirtualModel(tempDir);
+        UncertaintyTestUtil.registerRootObjects(vsum, tempDir);
+        CommittableView cadView = UncertaintyTestUtil.getDefaultView(vsum, List.of(CADRepository.class))
+                .withChangeRecordingTrait();
+        Circle circle = CadFactory.eINSTANCE.createCircle();
+        circle.setExtrusion(20);
+        circle.setRadius(100);
+        cadView.getRootObjects(CADRepository.class).iterator().next().getCadElements().add(circle);
+        cadView.commitChanges();
+        // The reactions copy the uncertainty of the brake disk to the corresponding circle
+        CommittableView brakeSystemView = UncertaintyTestUtil.getDefaultView(vsum,
+                List.of(Brakesystem.class, UncertaintyAnnotationRepository.class)).withChangeRecordingTrait();
+        BrakeDisk brakeDisk = (BrakeDisk) brakeSystemView.getRootObjects(Brakesystem.class).iterator().next()
+                .getBrakeComponents().get(0);
+        Uncertainty restricted = UncertaintyTestFactory.createUncertainty(Optional.of(UncertaintyTestFactory
+                .createUncertaintyLocation(List.of(brakeDisk), UncertaintyLocationType.PARAMETER,
+                        "brakeDiskThicknessInMM")));
+        restricted.setOnDelete(OnDeleteMode.RESTRICT);
+        brakeSystemView.getRootObjects(UncertaintyAnnotationRepository.class).iterator().next().getUncertainties()
+                .add(restricted);
+        brakeSystemView.commitChanges();
+
+        ChangeTransformingViewType viewType = UncertaintyViewType.create(vsum);
+        var selector = vsum.createSelector(viewType);
+        selector.getSelectableElements().forEach(element -> selector.setSelected(element, true));
+        CommittableView view = selector.createView().withChangeRecordingTrait();
+        UncertaintyAnnotationRepository viewRepository = view.getRootObjects(UncertaintyAnnotationRepository.class)
+                .iterator().next();
+        int uncertainties = viewRepository.getUncertainties().size();
+        EcoreUtil.delete(viewRepository.getUncertainties().stream()
+                .filter(u -> restricted.getId().equals(u.getId())).findFirst().orElseThrow());
+        view.commitChanges();
+
+        assertEquals(CommitOutcome.Status.REJECTED, viewType.getLastCommitOutcome().status());
+        assertEquals(1, viewType.getLastCommitOutcome().violations().size());
+        UncertaintyAnnotationRepository repository = UncertaintyTestUtil
+                .getDefaultView(vsum, List.of(UncertaintyAnnotationRepository.class))
+                .getRootObjects(UncertaintyAnnotationRepository.class).iterator().next();
+        assertEquals(uncertainties, repository.getUncertainties().size());
+        assertTrue(repository.getUncertainties().stream().anyMatch(u -> restricted.getId().equals(u.getId())));
+    }
+
+    private static Uncertainty createUncertainty(UncertaintyAnnotationRepository repository, OnDeleteMode onDelete) {
+        Uncertainty uncertainty = UncertaintyTestFactory.createUncertainty(Optional.empty());
+        uncertainty.setOnDelete(onDelete);
+        repository.getUncertainties().add(uncertainty);
+        return uncertainty;
+    }
+
+    /**
+     * Creates a copy of the original as the reactions do, with a new id.
+     */
+    private static Uncertainty createCopy(UncertaintyAnnotationRepository repository, Uncertainty original,
+            boolean setManually) {
+        Uncertainty copy = UncertaintyReactionsHelper.deepCopyUncertainty(original);
+        copy.setSetManually(setManually);
+        repository.getUncertainties().add(copy);
+        return copy;
+    }
+
+    /**
+     * @return a lookup of the uncertainties corresponding to the uncertainty in
+     *         the view source with the id of the given one
+     */
+    private static Function<Uncertainty, Collection<Uncertainty>> correspondences(Uncertainty uncertainty,
+            Uncertainty... corresponding) {
+        return u -> uncertainty.getId().equals(u.getId()) ? List.of(corresponding) : List.of();
+    }
+
+    private static Resource createResource(EObject root) {
+        Resource resource = new ResourceImpl(MODEL_URI);
+        new ResourceSetImpl().getResources().add(resource);
+        resource.getContents().add(root);
+        return resource;
+    }
+
+    /**
+     * Records the deletion of the given uncertainties and assigns hierarchical
+     * ids to the recorded changes.
+     */
+    private static List<EChange<HierarchicalId>> recordDeletions(UncertaintyAnnotationRepository repository,
+            Uncertainty... uncertainties) {
+        Resource resource = createResource(repository);
+        try (ChangeRecorder recorder = new ChangeRecorder(resource.getResourceSet())) {
+            recorder.addToRecording(resource);
+            recorder.beginRecording();
+            for (Uncertainty uncertainty : uncertainties) {
+                EcoreUtil.delete(uncertainty);
+            }
+            return VitruviusChangeResolverFactory.forHierarchicalIds(resource.getResourceSet())
+                    .assignIds(recorder.endRecording()).getEChanges();
+        }
+    }
+
+    private static EObject resolve(Resource resource, HierarchicalId id) {
+        URI uri = URI.createURI(id.getId());
+        return uri.trimFragment().equals(resource.getURI()) ? resource.getEObject(uri.fragment()) : null;
+    }
+}
@@ -0,0 +1,116 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.Brakesystem;
+import brakesystem.BrakesystemFactory;
+import tools.vitruv.methodologisttemplate.consistency.compaction.CompactionReport;
+import tools.vitruv.methodologisttemplate.consistency.compaction.UncertaintyCompactor;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestFactory;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+import uncertainty.UncertaintyLocationType;
+
+/**
+ * Checks that the {@link UncertaintyCompactor} removes orphaned and superseded
+ * uncertainties and keeps the ones still annotating the model.
+ */
+public class UncertaintyCompactorTest {
+
+    private Brakesystem brakesystem;
+    private UncertaintyAnnotationRepository repository;
+
+    @BeforeEach
+    void setup() {
+        brakesystem = BrakesystemFactory.eINSTANCE.createBrakesystem();
+        repository = UncertaintyFactory.eINSTANCE.createUncertaintyAnnotationRepository();
+    }
+
+    @Test
+    @DisplayName("Uncertainties of removed components are removed, others are pruned")
+    void removesOrphansAndPrunesDanglingReferences() {
+        BrakeCaliper removed = createCaliper();
+        BrakeCaliper kept = createCaliper();
+        Uncertainty orphan = annotate(List.of(removed), "pistonDiameterInMM", true);
+        Uncertainty shared = annotate(List.of(removed, kept), "pistonDiameterInMM", true);
+        Uncertainty unplaced = annotate(List.of(), "pistonDiameterInMM", true);
+        brakesystem.getBrakeComponents().remove(removed);
+
+        CompactionReport report = new UncertaintyCompactor(repository).compact();
+
+        assertEquals(List.of(shared, unplaced), repository.getUncertainties());
+        assertEquals(List.of(kept), shared.getUncertaintyLocation().getReferencedComponents());
+        assertEquals(1, report.removedUncertainties());
+        assertEquals(1, report.prunedReferences());
+        assertTrue(report.reclaimedObjects() > 1);
+        assertTrue(report.reclaimedBytes() > 0);
+        assertTrue(report.passCompleted());
+        assertFalse(repository.getUncertainties().contains(orphan));
+    }
+
+    @Test
+    @DisplayName("Duplicates of a derived uncertainty are superseded")
+    void removesSupersededDerivedUncertainties() {
+        BrakeCaliper caliper = createCaliper();
+        Uncertainty derived = annotate(List.of(caliper), "clampingForceInN", false);
+        Uncertainty duplicate = EcoreUtil.copy(derived);
+        repository.getUncertainties().add(duplicate);
+        Uncertainty input = annotate(List.of(caliper), "pistonDiameterInMM", false);
+
+        CompactionReport report = new UncertaintyCompactor(repository).compact();
+
+        assertEquals(List.of(derived, input), repository.getUncertainties());
+        assertEquals(1, report.removedUncertainties());
+    }
+
+    @Test
+    @DisplayName("Small steps complete a pass over the repository")
+    void stepsCompleteAPass() {
+        BrakeCaliper removed = createCaliper();
+        for (int i = 0; i < 10; i++) {
+            annotate(List.of(removed), "pistonDiameterInMM", true);
+            annotate(List.of(createCaliper()), "pistonDiameterInMM", true);
+        }
+        brakesystem.getBrakeComponents().remove(removed);
+        UncertaintyCompactor compactor = new UncertaintyCompactor(repository);
+
+        int steps = 0;
+        CompactionReport report;
+        do {
+            report = compactor.compactStep(3);
+            steps++;
+        } while (!report.passCompleted());
+
+        assertEquals(7, steps);
+        assertEquals(10, repository.getUncertainties().size());
+        assertEquals(20, compactor.getTotal().scanned());
+        assertEquals(10, compactor.getTotal().removedUncertainties());
+    }
+
+    private BrakeCaliper createCaliper() {
+        BrakeCaliper caliper = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+        brakesystem.getBrakeComponents().add(caliper);
+        return caliper;
+    }
+
+    private Uncertainty annotate(List<EObject> components, String parameterLocation, boolean setManually) {
+        Uncertainty uncertainty = UncertaintyTestFactory.createUncertainty(Optional.of(UncertaintyTestFactory
+                .createUncertaintyLocation(components, UncertaintyLocationType.PARAMETER, parameterLocation)));
+        uncertainty.setSetManually(setManually);
+        repository.getUncertainties().add(uncertainty);
+        return uncertainty;
+    }
+}
@@ -0,0 +1,213 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+
+import brakesystem.BrakeDisk;
+import brakesystem.Brakesystem;
+import cad.CADRepository;
+import cad.Circle;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.views.View;
+import tools.vitruv.framework.vsum.VirtualModel;
+import tools.vitruv.methodologisttemplate.consistency.UncertaintyReactionsHelper;
+import tools.vitruv.methodologisttemplate.consistency.descriptor.UncertaintyDescriptors;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestFactory;
+import tools.vitruv.methodologisttemplate.vsum.uncertainty.UncertaintyTestUtil;
+import uncertainty.PatternType;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyDescriptor;
+import uncertainty.UncertaintyFactory;
+import uncertainty.UncertaintyLocationType;
+import uncertainty.UncertaintyPackage;
+
+/**
+ * Checks that flyweight uncertainties share interned descriptors and that
+ * edits of a flyweight, of a shared descriptor and of a materialized
+ * uncertainty only change what they are meant to.
+ */
+public class UncertaintyDescriptorsTest {
+
+    @BeforeAll
+    static void setup() {
+        Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put("*",
+                new XMIResourceFactoryImpl());
+    }
+
+    @Test
+    @DisplayName("Flyweights of equal uncertainties share a descriptor and get new ids")
+    void createSharesDescriptor() {
+        UncertaintyAnnotationRepository repository = UncertaintyFactory.eINSTANCE
+                .createUncertaintyAnnotationRepository();
+        Uncertainty original = UncertaintyTestFactory.createUncertainty(Optional.empty());
+
+        Uncertainty first = addFlyweight(repository, original);
+        Uncertainty second = addFlyweight(repository, original);
+
+        assertSame(first.getDescriptor(), second.getDescriptor());
+        assertEquals(List.of(first.getDescriptor()), repository.getDescriptors());
+        assertNull(first.getEffect());
+        assertEquals(original.getEffect().getStochasticity(),
+                UncertaintyDescriptors.getEffect(first).getStochasticity());
+        assertNotEquals(original.getId(), first.getId());
+        assertNotEquals(first.getId(), second.getId());
+    }
+
+    @Test
+    @DisplayName("Editing a flyweight switches its descriptor without changing the shared one")
+    void editFlyweightKeepsSharedDescriptor() {
+        UncertaintyAnnotationRepository repository = UncertaintyFactory.eINSTANCE
+                .createUncertaintyAnnotationRepository();
+        Uncertainty original = UncertaintyTestFactory.createUncertainty(Optional.empty());
+        Uncertainty edited = addFlyweight(repository, original);
+        Uncertainty other = addFlyweight(repository, original);
+        UncertaintyDescriptor shared = other.getDescriptor();
+
+        assertTrue(UncertaintyDescriptors.setPartAttribute(edited, UncertaintyPackage.Literals.UNCERTAINTY__PATTERN,
+                UncertaintyPackage.Literals.PATTERN__PATTERN_TYPE, PatternType.PERIODIC));
+
+        assertNotSame(shared, edited.getDescriptor());
+        assertEquals(PatternType.PERIODIC, UncertaintyDescriptors.getPattern(edited).getPatternType());
+        assertEquals(PatternType.PERSISTENT, UncertaintyDescriptors.getPattern(other).getPatternType());
+        assertSame(shared, addFlyweight(repository, original).getDescriptor());
+    }
+
+    @Test
+    @DisplayName("An edited descriptor is re-keyed and merged into an equal one")
+    void editDescriptorRekeysPool() {
+        UncertaintyAnnotationRepository repository = UncertaintyFactory.eINSTANCE
+                .createUncertaintyAnnotationRepository();
+        Uncertainty original = UncertaintyTestFactory.createUncertainty(Optional.empty());
+        Uncertainty periodicOriginal = UncertaintyTestFactory.createUncertainty(Optional.empty());
+        periodicOriginal.getPattern().setPatternType(PatternType.PERIODIC);
+        Uncertainty first = addFlyweight(repository, original);
+        Uncertainty second = addFlyweight(repository, original);
+        UncertaintyDescriptor edited = first.getDescriptor();
+
+        edited.getEffect().setSpecification("edited");
+        assertEquals(List.of(first, second), UncertaintyDescriptors.descriptorChanged(edited));
+
+        Uncertainty unedited = addFlyweight(repository, original);
+        assertNotSame(edited, unedited.getDescriptor());
+        assertNull(UncertaintyDescriptors.getEffect(unedited).getSpecification());
+
+        Uncertainty periodic = addFlyweight(repository, periodicOriginal);
+        periodic.getDescriptor().getPattern().setPatternType(PatternType.PERSISTENT);
+        UncertaintyDescriptors.descriptorChanged(periodic.getDescriptor());
+        assertSame(unedited.getDescriptor(), periodic.getDescriptor());
+        assertEquals(1, UncertaintyDescriptors.removeUnused(repository));
+    }
+
+    @Test
+    @DisplayName("A descriptor edited without notification is not handed out for its former data")
+    void internDetectsStaleDescriptor() {
+        UncertaintyAnnotationRepository repository = UncertaintyFactory.eINSTANCE
+                .createUncertaintyAnnotationRepository();
+        Uncertainty original = UncertaintyTestFactory.createUncertainty(Optional.empty());
+        UncertaintyDescriptor stale = addFlyweight(repository, original).getDescriptor();
+
+        stale.getPerspective().setSpecification("edited");
+
+        assertNotSame(stale, addFlyweight(repository, original).getDescriptor());
+    }
+
+    @Test
+    @DisplayName("A materialized flyweight owns copies of the descriptor parts")
+    void materializeCopiesParts() {
+        UncertaintyAnnotationRepository repository = UncertaintyFactory.eINSTANCE
+                .createUncertaintyAnnotationRepository();
+        Uncertainty original = UncertaintyTestFactory.createUncertainty(Optional.empty());
+        Uncertainty materialized = addFlyweight(repository, original);
+        Uncertainty other = addFlyweight(repository, original);
+        UncertaintyDescriptor shared = other.getDescriptor();
+
+        assertSame(materialized, UncertaintyDescriptors.materialize(materialized));
+        materialized.getEffect().setSpecification("own");
+
+        assertNull(materialized.getDescriptor());
+        assertNotSame(shared.getEffect(), materialized.getEffect());
+        assertNotNull(materialized.getPattern());
+        assertNotNull(materialized.getPerspective());
+        assertNull(UncertaintyDescriptors.getEffect(other).getSpecification());
+        assertEquals(0, UncertaintyDescriptors.removeUnused(repository));
+        assertEquals(List.of(shared), repository.getDescriptors());
+    }
+
+    @Test
+    @DisplayName("An edit of a shared descriptor in a view reaches the source uncertainty")
+    void descriptorEditPropagates(@TempDir Path tempDir) {
+        UncertaintyReactionsHelper.setFlyweight(true);
+        try {
+            VirtualModel vsum = UncertaintyTestUtil.createDefaultVirtualModel(tempDir);
+            UncertaintyTestUtil.registerRootObjects(vsum, tempDir);
+            modifyView(UncertaintyTestUtil.getDefaultView(vsum, List.of(CADRepository.class))
+                    .withChangeRecordingTrait(), view -> {
+                        Circle circle = cad.CadFactory.eINSTANCE.createCircle();
+                        circle.setExtrusion(20);
+                        circle.setRadius(100);
+                        view.getRootObjects(CADRepository.class).iterator().next().getCadElements().add(circle);
+                    });
+            modifyView(UncertaintyTestUtil.getDefaultView(vsum,
+                    List.of(Brakesystem.class, UncertaintyAnnotationRepository.class))
+                    .withChangeRecordingTrait(), view -> {
+                        BrakeDisk brakeDisk = (BrakeDisk) view.getRootObjects(Brakesystem.class).iterator().next()
+                                .getBrakeComponents().get(0);
+                        Uncertainty uncertainty = UncertaintyTestFactory.createUncertainty(Optional.of(
+                                UncertaintyTestFactory.createUncertaintyLocation(List.of(brakeDisk),
+                                        UncertaintyLocationType.PARAMETER, "brakeDiskThicknessInMM")));
+                        view.getRootObjects(UncertaintyAnnotationRepository.class).iterator().next()
+                                .getUncertainties().add(uncertainty);
+                    });
+
+            modifyView(UncertaintyTestUtil.getDefaultView(vsum,
+                    List.of(CADRepository.class, UncertaintyAnnotationRepository.class))
+                    .withChangeRecordingTrait(), view -> getUncertainty(view, Circle.class).getDescriptor()
+                            .getEffect().setSpecification("edited"));
+
+            View result = UncertaintyTestUtil.getDefaultView(vsum,
+                    List.of(Brakesystem.class, CADRepository.class, UncertaintyAnnotationRepository.class));
+            assertEquals("edited", getUncertainty(result, BrakeDisk.class).getEffect().getSpecification());
+            assertEquals("edited",
+                    UncertaintyDescriptors.getEffect(getUncertainty(result, Circle.class)).getSpecification());
+        } finally {
+            UncertaintyReactionsHelper.setFlyweight(false);
+        }
+    }
+
+    private static Uncertainty addFlyweight(UncertaintyAnnotationRepository repository, Uncertainty original) {
+        Uncertainty flyweight = UncertaintyDescriptors.createFlyweight(original, repository);
+        repository.getUncertainties().add(flyweight);
+        return flyweight;
+    }
+
+    private static Uncertainty getUncertainty(View view, Class<?> componentType) {
+        return view.getRootObjects(UncertaintyAnnotationRepository.class).iterator().next()
+                .getUncertainties().stream()
+                .filter(u -> u.getUncertaintyLocation().getReferencedComponents().stream()
+                        .anyMatch(componentType::isInstance))
+                .findFirst().orElseThrow();
+    }
+
+    private static void modifyView(CommittableView view, Consumer<CommittableView> modification) {
+        modification.accept(view);
+        view.commitChanges();
+    }
+}
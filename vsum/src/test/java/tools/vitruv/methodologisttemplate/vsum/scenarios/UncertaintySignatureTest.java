@@ -0,0 +1,159 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.BrakesystemFactory;
+import tools.vitruv.methodologisttemplate.consistency.UncertaintyReactionsHelper;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintyIndex;
+import tools.vitruv.methodologisttemplate.consistency.index.UncertaintySignature;
+import uncertainty.Effect;
+import uncertainty.OnDeleteMode;
+import uncertainty.Pattern;
+import uncertainty.PatternType;
+import uncertainty.ReducabilityLevel;
+import uncertainty.StochasticityEffectType;
+import uncertainty.StructuralEffectTypeRepresentation;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyFactory;
+import uncertainty.UncertaintyKind;
+import uncertainty.UncertaintyLocation;
+import uncertainty.UncertaintyNature;
+import uncertainty.UncertaintyPerspective;
+import uncertainty.UncertaintyPerspectiveType;
+
+/**
+ * Checks that the {@link UncertaintySignature} used for the duplicate lookup
+ * matches the pairwise {@link UncertaintyReactionsHelper#compareUncertainties}
+ * semantics, and that the signature index follows attribute changes, also of
+ * the descriptors shared by flyweights.
+ */
+public class UncertaintySignatureTest {
+
+    private static final int UNCERTAINTIES = 300;
+
+    @Test
+    @DisplayName("Signature equality matches compareUncertainties")
+    void signatureMatchesComparison() {
+        Random random = new Random(42);
+        List<Uncertainty> uncertainties = new ArrayList<>();
+        for (int i = 0; i < UNCERTAINTIES; i++) {
+            uncertainties.add(createRandomUncertainty(random, true));
+        }
+
+        int equalPairs = 0;
+        for (Uncertainty u1 : uncertainties) {
+            for (Uncertainty u2 : uncertainties) {
+                boolean equal = UncertaintyReactionsHelper.compareUncertainties(u1, u2);
+                assertEquals(equal, UncertaintySignature.of(u1).equals(UncertaintySignature.of(u2)));
+                equalPairs += equal && u1 != u2 ? 1 : 0;
+            }
+        }
+        assertTrue(equalPairs > 0);
+    }
+
+    @Test
+    @DisplayName("Equivalent uncertainty lookup follows attribute changes")
+    void indexFollowsSignatureChanges() {
+        BrakeCaliper caliper = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+        UncertaintyAnnotationRepository repo = UncertaintyFactory.eINSTANCE.createUncertaintyAnnotationRepository();
+        Uncertainty source = createRandomUncertainty(new Random(7), false);
+        UncertaintyIndex index = UncertaintyIndex.getIndex(repo);
+
+        List<Uncertainty> created = UncertaintyReactionsHelper.createMissingUncertaintiesForReferencedComponents(repo,
+                List.of(caliper), source);
+        assertEquals(1, created.size());
+        assertEquals(created, index.getEquivalentUncertainties(caliper, source));
+        assertTrue(UncertaintyReactionsHelper.createMissingUncertaintiesForReferencedComponents(repo,
+                List.of(caliper), source).isEmpty());
+
+        // A changed classification makes the existing uncertainty a different one
+        Uncertainty existing = created.get(0);
+        existing.setNature(existing.getNature() == UncertaintyNature.ALEATORY ? UncertaintyNature.EPISTEMIC
+                : UncertaintyNature.ALEATORY);
+        assertTrue(index.getEquivalentUncertainties(caliper, source).isEmpty());
+        assertEquals(1, UncertaintyReactionsHelper.createMissingUncertaintiesForReferencedComponents(repo,
+                List.of(caliper), source).size());
+    }
+
+    @Test
+    @DisplayName("Equivalent uncertainty lookup follows edits of a shared descriptor")
+    void indexFollowsDescriptorChanges() {
+        BrakeCaliper caliper = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+        BrakeCaliper other = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+        UncertaintyAnnotationRepository repo = UncertaintyFactory.eINSTANCE.createUncertaintyAnnotationRepository();
+        Uncertainty source = createRandomUncertainty(new Random(7), false);
+        UncertaintyIndex index = UncertaintyIndex.getIndex(repo);
+        List<Uncertainty> created;
+        UncertaintyReactionsHelper.setFlyweight(true);
+        try {
+            created = UncertaintyReactionsHelper.createMissingUncertaintiesForReferencedComponents(repo,
+                    List.of(caliper, other), source);
+        } finally {
+            UncertaintyReactionsHelper.setFlyweight(false);
+        }
+        assertEquals(2, created.size());
+        assertEquals(created.get(0).getDescriptor(), created.get(1).getDescriptor());
+
+        // The edit changes the signature of both flyweights sharing the descriptor
+        Pattern pattern = created.get(0).getDescriptor().getPattern();
+        PatternType editedType = pattern.getPatternType() == PatternType.PERSISTENT ? PatternType.PERIODIC
+                : PatternType.PERSISTENT;
+        pattern.setPatternType(editedType);
+        Uncertainty edited = EcoreUtil.copy(source);
+        edited.getPattern().setPatternType(editedType);
+
+        assertTrue(index.getEquivalentUncertainties(caliper, source).isEmpty());
+        assertFalse(index.hasEquivalentUncertainty(other, UncertaintySignature.of(source)));
+        assertEquals(List.of(created.get(0)), index.getEquivalentUncertainties(caliper, edited));
+        assertEquals(List.of(created.get(1)), index.getEquivalentUncertainties(other, edited));
+        assertTrue(UncertaintyReactionsHelper.createMissingUncertaintiesForReferencedComponents(repo,
+                List.of(caliper, other), edited).isEmpty());
+    }
+
+    private static Uncertainty createRandomUncertainty(Random random, boolean optionalParts) {
+        Uncertainty uncertainty = UncertaintyFactory.eINSTANCE.createUncertainty();
+        uncertainty.setKind(pick(random, UncertaintyKind.values()));
+        uncertainty.setNature(pick(random, UncertaintyNature.values()));
+        uncertainty.setReducability(pick(random, ReducabilityLevel.values()));
+        uncertainty.setOnDelete(pick(random, OnDeleteMode.values()));
+        UncertaintyLocation location = UncertaintyFactory.eINSTANCE.createUncertaintyLocation();
+        uncertainty.setUncertaintyLocation(location);
+        if (!optionalParts || random.nextInt(4) > 0) {
+            Effect effect = UncertaintyFactory.eINSTANCE.createEffect();
+            effect.setRepresentation(pick(random, StructuralEffectTypeRepresentation.values()));
+            effect.setStochasticity(pick(random, StochasticityEffectType.values()));
+            // Not compared, so it must not influence the signature
+            effect.setSpecification("spec" + random.nextInt(3));
+            uncertainty.setEffect(effect);
+        }
+        if (!optionalParts || random.nextInt(4) > 0) {
+            Pattern pattern = UncertaintyFactory.eINSTANCE.createPattern();
+            pattern.setPatternType(pick(random, PatternType.values()));
+            uncertainty.setPattern(pattern);
+        }
+        if (!optionalParts || random.nextInt(4) > 0) {
+            UncertaintyPerspective perspective = UncertaintyFactory.eINSTANCE.createUncertaintyPerspective();
+            perspective.setPerspective(pick(random, UncertaintyPerspectiveType.values()));
+            perspective.setSpecification("spec" + random.nextInt(3));
+            uncertainty.setPerspective(perspective);
+        }
+        return uncertainty;
+    }
+
+    // Only the first two literals are used, so that equal pairs are frequent
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(Math.min(2, values.length))];
+    }
+}
@@ -0,0 +1,128 @@
+package tools.vitruv.methodologisttemplate.vsum.domainSpecific;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import tools.vitruv.methodologisttemplate.consistency.formula.Formula;
+import tools.vitruv.methodologisttemplate.consistency.formula.FormulaRegistry;
+import tools.vitruv.methodologisttemplate.consistency.propagation.InputDistribution;
+import tools.vitruv.methodologisttemplate.consistency.propagation.MonteCarloEngine;
+import tools.vitruv.methodologisttemplate.consistency.propagation.MonteCarloResult;
+import tools.vitruv.methodologisttemplate.consistency.propagation.SamplingStrategy;
+
+/**
+ * Checks the variance reduction of the {@link MonteCarloEngine} on the
+ * clamping force formula with a normal piston diameter and a sampled
+ * hydraulic pressure.
+ */
+public class VarianceReductionTest {
+
+    private static final Formula CLAMPING_FORCE = FormulaRegistry
+            .compile("PI * ( (d * 0.001) / 2 ) ^ 2 * p * 10 ^ 2", "d", "p");
+
+    private static final InputDistribution PISTON_DIAMETER = new InputDistribution.Normal(50, 2);
+    private static final InputDistribution HYDRAULIC_PRESSURE = new InputDistribution.Empirical(new double[] {
+            60, 65, 70, 72, 74, 75, 76, 77, 78, 78, 78, 79, 80, 81, 82, 84, 85, 86, 88, 92 });
+
+    // E[d^2] = 50^2 + 2^2 and E[p] = 78
+    private static final double EXACT_MEAN = Math.PI * 2504e-6 / 4 * 78 * 100;
+
+    @Test
+    @DisplayName("Antithetic and Latin hypercube sampling lower the standard error")
+    void varianceReductionLowersStandardError() {
+        MonteCarloResult plain = propagate(SamplingStrategy.PLAIN);
+        MonteCarloResult antithetic = propagate(SamplingStrategy.ANTITHETIC);
+        MonteCarloResult latinHypercube = propagate(SamplingStrategy.LATIN_HYPERCUBE);
+
+        assertTrue(antithetic.getStandardError() < plain.getStandardError() / 3);
+        assertTrue(latinHypercube.getStandardError() < plain.getStandardError() / 3);
+        for (MonteCarloResult result : List.of(plain, antithetic, latinHypercube)) {
+            assertEquals(EXACT_MEAN, result.getMean(), 4 * result.getStandardError());
+        }
+    }
+
+    @Test
+    @DisplayName("Latin hypercube sampling meets the exact clamping force mean to 0.01")
+    void latinHypercubeMeetsExactMean() {
+        MonteCarloResult result = propagate(SamplingStrategy.LATIN_HYPERCUBE);
+        double summaryMean = result.toExpression().getValues().stream().mapToDouble(Double::doubleValue)
+                .average().orElseThrow();
+
+        // The variance of the piston diameter raises the mean above PI * (50 * 0.001/2)^2 * 78 * 10^2
+        assertEquals(EXACT_MEAN, result.getMean(), 0.01);
+        assertEquals(EXACT_MEAN, summaryMean, 0.01);
+    }
+
+    @Test
+    @DisplayName("The target accuracy is reached with fewer samples than plain sampling needs")
+    void targetAccuracyPicksSampleCount() {
+        double target = 0.005;
+        MonteCarloEngine engine = new MonteCarloEngine(10_000, 1, ForkJoinPool.commonPool(),
+                SamplingStrategy.LATIN_HYPERCUBE);
+
+        MonteCarloResult result = engine.propagateToAccuracy(CLAMPING_FORCE,
+                List.of(PISTON_DIAMETER, HYDRAULIC_PRESSURE), new int[] { 0, 1 }, target);
+        MonteCarloResult plain = engine.withSampling(SamplingStrategy.PLAIN).withTargetStandardError(target)
+                .propagate(CLAMPING_FORCE, List.of(PISTON_DIAMETER, HYDRAULIC_PRESSURE));
+
+        assertTrue(result.getStandardError() <= target);
+        assertTrue(plain.getStandardError() <= target);
+        assertTrue(result.getSampleCount() < plain.getSampleCount() / 4);
+        assertEquals(EXACT_MEAN, result.getMean(), 4 * target);
+    }
+
+    @Test
+    @DisplayName("Inputs sharing a stream are sampled at the same probabilities")
+    void sharedStreamsCorrelateInputs() {
+        Formula difference = FormulaRegistry.compile("a - b", "a", "b");
+        MonteCarloEngine engine = new MonteCarloEngine(1_000, 1, ForkJoinPool.commonPool());
+
+        MonteCarloResult shared = engine.propagate(difference, List.of(PISTON_DIAMETER, PISTON_DIAMETER),
+                new int[] { 0, 0 });
+        MonteCarloResult independent = engine.propagate(difference, List.of(PISTON_DIAMETER, PISTON_DIAMETER));
+
+        assertEquals(0, shared.getVariance());
+        assertEquals(8, independent.getVariance(), 1);
+    }
+
+    @Test
+    @DisplayName("Stratified samples do not depend on the number of worker threads")
+    void samplesAreIndependentOfParallelism() {
+        ForkJoinPool singleThread = new ForkJoinPool(1);
+        try {
+            MonteCarloEngine engine = new MonteCarloEngine(10_000, 7, ForkJoinPool.commonPool(),
+                    SamplingStrategy.LATIN_HYPERCUBE);
+            assertArrayEquals(
+                    engine.propagate(CLAMPING_FORCE, List.of(PISTON_DIAMETER, HYDRAULIC_PRESSURE)).getSamples(),
+                    new MonteCarloEngine(10_000, 7, singleThread, SamplingStrategy.LATIN_HYPERCUBE)
+                            .propagate(CLAMPING_FORCE, List.of(PISTON_DIAMETER, HYDRAULIC_PRESSURE)).getSamples());
+        } finally {
+            singleThread.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("The stored expression summarizes the samples by a fixed number of quantiles")
+    void expressionIsBoundedSummary() {
+        MonteCarloResult result = propagate(SamplingStrategy.PLAIN);
+        List<Double> quantiles = result.toExpression().getValues();
+
+        assertEquals(MonteCarloResult.SUMMARY_QUANTILES, quantiles.size());
+        assertEquals(result.getMean(), quantiles.stream().mapToDouble(Double::doubleValue).average().orElseThrow(),
+                1e-9);
+        for (int i = 1; i < quantiles.size(); i++) {
+            assertTrue(quantiles.get(i - 1) <= quantiles.get(i));
+        }
+    }
+
+    private static MonteCarloResult propagate(SamplingStrategy sampling) {
+        return new MonteCarloEngine(10_000, 1, ForkJoinPool.commonPool(), sampling).propagate(CLAMPING_FORCE,
+                List.of(PISTON_DIAMETER, HYDRAULIC_PRESSURE));
+    }
+}
@@ -0,0 +1,264 @@
+package tools.vitruv.methodologisttemplate.vsum.uncertainty;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import brakesystem.BrakeCaliper;
+import brakesystem.BrakeComponent;
+import brakesystem.BrakeDisk;
+import brakesystem.Brakesystem;
+import brakesystem.BrakesystemFactory;
+import cad.CADRepository;
+import tools.vitruv.framework.views.CommittableView;
+import tools.vitruv.framework.views.View;
+import tools.vitruv.framework.vsum.VirtualModel;
+import tools.vitruv.stoex.stoex.Expression;
+import tools.vitruv.stoex.stoex.NormalDistribution;
+import tools.vitruv.stoex.stoex.SampledDistribution;
+import tools.vitruv.stoex.stoex.StoexFactory;
+import uncertainty.Uncertainty;
+import uncertainty.UncertaintyAnnotationRepository;
+import uncertainty.UncertaintyKind;
+import uncertainty.UncertaintyLocationType;
+
+/**
+ * Generates brake system models of a configurable size in a VSUM for scale
+ * tests. Brake disks and calipers are added to the brake system in batches of
+ * {@link #withBatchSize(int)} elements per commit, so the reactions create the
+ * corresponding CAD elements and the VSUM saves all models to its storage
+ * folder. The i-th disk and the i-th caliper share the fitting position
+ * {@code corner-i}, so they form a paired brake corner. Afterwards the requested number of uncertainties is distributed round
+ * robin over the generated components, again in batches. The heap growth of a
+ * run is measured after an explicit garbage collection, so it approximates the
+ * memory retained by the VSUM rather than the garbage of the commits.
+ *
+ * <pre>
+ * GenerationReport report = new LargeModelGenerator()
+ * 		.withBrakeDisks(500)
+ * 		.withBrakeCalipers(500)
+ * 		.withUncertainties(1_000)
+ * 		.withDistribution(DistributionType.NORMAL)
+ * 		.generate(vsum, tempDir);
+ * </pre>
+ */
+public class LargeModelGenerator {
+
+	/**
+	 * The distribution used as effect expression of the generated uncertainties.
+	 * {@link #MIXED} alternates between no expression, a normal and a sampled
+	 * distribution.
+	 */
+	public enum DistributionType {
+		NONE, NORMAL, SAMPLED, MIXED
+	}
+
+	/**
+	 * Sizes and measurements of a generation run.
+	 *
+	 * @param brakeComponents number of components in the brake system
+	 * @param cadElements     number of elements in the CAD repository
+	 * @param uncertainties   number of uncertainties in the repository, including
+	 *                        the ones created by the reactions
+	 * @param commits         number of commits to the VSUM
+	 * @param elapsedNanos    time spent in the commits
+	 * @param heapGrowthBytes growth of the heap in use by the generation, measured
+	 *                        after a garbage collection before and after it
+	 * @param storageBytes    size of the storage folder after the generation
+	 */
+	public record GenerationReport(int brakeComponents, int cadElements, int uncertainties, int commits,
+			long elapsedNanos, long heapGrowthBytes, long storageBytes) {
+
+		public int elements() {
+			return brakeComponents + cadElements + uncertainties;
+		}
+
+		public double elementsPerSecond() {
+			return elements() / (elapsedNanos / 1_000_000_000.0);
+		}
+	}
+
+	private static final List<Double> SAMPLED_VALUES = List.of(60.0, 65.0, 70.0, 72.0, 74.0, 75.0, 76.0, 77.0,
+			78.0, 78.0, 78.0, 79.0, 80.0, 81.0, 82.0, 84.0, 85.0, 86.0, 88.0, 92.0);
+
+	private int brakeDisks;
+	private int brakeCalipers;
+	private int uncertainties;
+	private DistributionType distribution = DistributionType.NORMAL;
+	private int batchSize = 1_000;
+
+	public LargeModelGenerator withBrakeDisks(int brakeDisks) {
+		this.brakeDisks = brakeDisks;
+		return this;
+	}
+
+	public LargeModelGenerator withBrakeCalipers(int brakeCalipers) {
+		this.brakeCalipers = brakeCalipers;
+		return this;
+	}
+
+	public LargeModelGenerator withUncertainties(int uncertainties) {
+		this.uncertainties = uncertainties;
+		return this;
+	}
+
+	public LargeModelGenerator withDistribution(DistributionType distribution) {
+		this.distribution = distribution;
+		return this;
+	}
+
+	public LargeModelGenerator withBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive, was " + batchSize);
+		}
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * Generates the models in the given VSUM, whose root objects have to be
+	 * registered already, see
+	 * {@link UncertaintyTestUtil#registerRootObjects(VirtualModel, Path)}.
+	 *
+	 * @param vsum          the VSUM to generate the models in
+	 * @param storageFolder the storage folder of the VSUM, used to report the
+	 *                      size of the saved models
+	 * @return the sizes and measurements of the run
+	 */
+	public GenerationReport generate(VirtualModel vsum, Path storageFolder) {
+		int commits = 0;
+		long heapBefore = usedHeapAfterGc();
+		long start = System.nanoTime();
+
+		int components = brakeDisks + brakeCalipers;
+		for (int offset = 0; offset < components; offset += batchSize) {
+			int from = offset;
+			int to = Math.min(offset + batchSize, components);
+			modifyView(vsum, List.of(Brakesystem.class), view -> addBrakeComponents(view, from, to));
+			commits++;
+		}
+
+		if (uncertainties > 0 && components == 0) {
+			throw new IllegalStateException("Uncertainties need at least one brake component to reference");
+		}
+		for (int offset = 0; offset < uncertainties; offset += batchSize) {
+			int from = offset;
+			int to = Math.min(offset + batchSize, uncertainties);
+			modifyView(vsum, List.of(Brakesystem.class, UncertaintyAnnotationRepository.class),
+					view -> addUncertainties(view, from, to));
+			commits++;
+		}
+
+		long elapsedNanos = System.nanoTime() - start;
+		long heapGrowth = usedHeapAfterGc() - heapBefore;
+
+		View view = UncertaintyTestUtil.getDefaultView(vsum,
+				List.of(Brakesystem.class, CADRepository.class, UncertaintyAnnotationRepository.class));
+		int brakeComponents = view.getRootObjects(Brakesystem.class).iterator().next().getBrakeComponents().size();
+		int cadElements = view.getRootObjects(CADRepository.class).iterator().next().getCadElements().size();
+		int uncertaintyCount = view.getRootObjects(UncertaintyAnnotationRepository.class).iterator().next()
+				.getUncertainties().size();
+
+		return new GenerationReport(brakeComponents, cadElements, uncertaintyCount, commits, elapsedNanos,
+				heapGrowth, sizeOf(storageFolder));
+	}
+
+	private static long usedHeapAfterGc() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		memory.gc();
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+	private void addBrakeComponents(CommittableView view, int from, int to) {
+		List<BrakeComponent> components = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			if (i < brakeDisks) {
+				BrakeDisk brakeDisk = BrakesystemFactory.eINSTANCE.createBrakeDisk();
+				brakeDisk.setDiameterInMM(300);
+				brakeDisk.setBrakeDiskThicknessInMM(20);
+				brakeDisk.setFittingPosition(fittingPosition(i));
+				components.add(brakeDisk);
+			} else {
+				BrakeCaliper brakeCaliper = BrakesystemFactory.eINSTANCE.createBrakeCaliper();
+				brakeCaliper.setPistonDiameterInMM(50);
+				brakeCaliper.setHydraulicPressureInBar(80);
+				brakeCaliper.setFittingPosition(fittingPosition(i - brakeDisks));
+				components.add(brakeCaliper);
+			}
+		}
+		view.getRootObjects(Brakesystem.class).iterator().next().getBrakeComponents().addAll(components);
+	}
+
+	private static String fittingPosition(int corner) {
+		return "corner-" + corner;
+	}
+
+	private void addUncertainties(CommittableView view, int from, int to) {
+		List<BrakeComponent> components = view.getRootObjects(Brakesystem.class).iterator().next()
+				.getBrakeComponents().stream()
+				.filter(c -> c instanceof BrakeDisk || c instanceof BrakeCaliper)
+				.toList();
+		List<Uncertainty> created = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			BrakeComponent component = components.get(i % components.size());
+			String parameter = component instanceof BrakeDisk ? "brakeDiskThicknessInMM"
+					// Alternate between the inputs of the clamping force per caliper
+					: (i / components.size()) % 2 == 0 ? "pistonDiameterInMM" : "hydraulicPressureInBar";
+			Uncertainty uncertainty = UncertaintyTestFactory.createUncertainty(
+					Optional.of(UncertaintyTestFactory.createUncertaintyLocation(List.of(component),
+							UncertaintyLocationType.PARAMETER, parameter)));
+			uncertainty.setKind(UncertaintyKind.MEASUREMENT_UNCERTAINTY);
+			uncertainty.getEffect().setExpression(createExpression(i, parameter));
+			created.add(uncertainty);
+		}
+		view.getRootObjects(UncertaintyAnnotationRepository.class).iterator().next().getUncertainties()
+				.addAll(created);
+	}
+
+	private Expression createExpression(int index, String parameter) {
+		DistributionType type = distribution == DistributionType.MIXED
+				? DistributionType.values()[index % 3]
+				: distribution;
+		double mean = switch (parameter) {
+			case "brakeDiskThicknessInMM" -> 20;
+			case "pistonDiameterInMM" -> 50;
+			default -> 80;
+		};
+		switch (type) {
+			case NORMAL:
+				NormalDistribution normal = StoexFactory.eINSTANCE.createNormalDistribution();
+				normal.setMu(mean);
+				normal.setSigma(mean / 40);
+				return normal;
+			case SAMPLED:
+				SampledDistribution sampled = StoexFactory.eINSTANCE.createSampledDistribution();
+				SAMPLED_VALUES.forEach(value -> sampled.getValues().add(value * mean / 80));
+				return sampled;
+			default:
+				return null;
+		}
+	}
+
+	private static void modifyView(VirtualModel vsum, List<Class<?>> rootTypes,
+			Consumer<CommittableView> modification) {
+		CommittableView view = UncertaintyTestUtil.getDefaultView(vsum, rootTypes).withChangeRecordingTrait();
+		modification.accept(view);
+		view.commitChanges();
+	}
+
+	private static long sizeOf(Path folder) {
+		try (Stream<Path> files = Files.walk(folder)) {
+			return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
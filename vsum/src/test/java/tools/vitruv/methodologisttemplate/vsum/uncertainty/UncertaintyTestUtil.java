@@ -5,15 +5,9 @@ import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
 
-import brakesystem.BrakeDisk;
 import brakesystem.Brakesystem;
 import brakesystem.BrakesystemFactory;
 import cad.CADRepository;
-import cad.Circle;
-import mir.reactions.brakesystem2cad.Brakesystem2cadChangePropagationSpecification;
-import mir.reactions.cad2brakesystem.Cad2brakesystemChangePropagationSpecification;
-import mir.reactions.uncertainty2cad.Uncertainty2cadChangePropagationSpecification;
-import mir.reactions.uncertainty2uncertainty.Uncertainty2uncertaintyChangePropagationSpecification;
 import tools.vitruv.change.propagation.ChangePropagationMode;
 import tools.vitruv.change.testutils.TestUserInteraction;
 import tools.vitruv.framework.views.CommittableView;
@@ -22,7 +16,8 @@ import tools.vitruv.framework.views.ViewTypeFactory;
 import tools.vitruv.framework.vsum.VirtualModel;
 import tools.vitruv.framework.vsum.VirtualModelBuilder;
 import tools.vitruv.framework.vsum.internal.InternalVirtualModel;
-import uncertainty.Uncertainty;
+import tools.vitruv.methodologisttemplate.consistency.lifecycle.BrakeSystemSpecifications;
+import tools.vitruv.methodologisttemplate.consistency.lifecycle.PropagationLifecycle;
 import uncertainty.UncertaintyAnnotationRepository;
 import uncertainty.UncertaintyFactory;
 
@@ -33,17 +28,14 @@ public class UncertaintyTestUtil {
 	}
 
 	public static InternalVirtualModel createDefaultVirtualModel(Path projectPath) {
-		InternalVirtualModel model = new VirtualModelBuilder()
+		VirtualModelBuilder builder = new VirtualModelBuilder()
 				.withStorageFolder(projectPath)
 				.withUserInteractorForResultProvider(
-						new TestUserInteraction.ResultProvider(new TestUserInteraction()))
-				.withChangePropagationSpecification(new Brakesystem2cadChangePropagationSpecification())
-				.withChangePropagationSpecification(new Cad2brakesystemChangePropagationSpecification())
-				.withChangePropagationSpecification(new Uncertainty2cadChangePropagationSpecification())
-				.withChangePropagationSpecification(
-						new Uncertainty2uncertaintyChangePropagationSpecification())
-				.buildAndInitialize();
+						new TestUserInteraction.ResultProvider(new TestUserInteraction()));
+		BrakeSystemSpecifications.create().forEach(builder::withChangePropagationSpecification);
+		InternalVirtualModel model = builder.buildAndInitialize();
 		model.setChangePropagationMode(ChangePropagationMode.TRANSITIVE_CYCLIC);
+		model.addChangePropagationListener(new PropagationLifecycle());
 		return model;
 	}
 
@@ -106,24 +98,4 @@ public class UncertaintyTestUtil {
 		});
 	}
 
-	public static List<Uncertainty> getBrakeDiskUncertainties(View view) {
-		return view.getRootObjects(UncertaintyAnnotationRepository.class)
-				.iterator().next()
-				.getUncertainties().stream()
-				.filter(u -> u.getUncertaintyLocation()
-						.getReferencedComponents().stream()
-						.anyMatch(c -> c instanceof BrakeDisk))
-				.toList();
-	}
-
-	public static List<Uncertainty> getCircleUncertainties(View view) {
-		return view.getRootObjects(UncertaintyAnnotationRepository.class)
-				.iterator().next()
-				.getUncertainties().stream()
-				.filter(u -> u.getUncertaintyLocation()
-						.getReferencedComponents().stream()
-						.anyMatch(c -> c instanceof Circle))
-				.toList();
-	}
-
 }